@@ -0,0 +1,125 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of the active USER ids, for assignment strategies that
+ * only need "some assignable user" and not the rows themselves.
+ *
+ * - The ids live in a sorted long[] that is never modified after it is
+ *   published; readers take the volatile reference and index into it, so
+ *   picking an assignee needs no lock and no query
+ * - Round-robin order comes from a single AtomicLong cursor shared by all
+ *   callers, so concurrent assignments spread evenly
+ * - The snapshot is rebuilt (one id-only query) after a
+ *   {@link UserRosterChangedEvent} commits, and every
+ *   tasks.roster.resync-interval-ms to pick up changes made on other nodes
+ * - Until then a user deactivated on another node may still be picked: the
+ *   WIP slot reservation checks users.is_active under a row lock and refuses
+ *   it, and the strategy moves on to the next user
+ */
+@Component
+public class ActiveUserRoster {
+
+    private final UserRepository userRepository;
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile long[] ids;
+
+    public ActiveUserRoster(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Every active user once, in round-robin order: starts at the shared
+     * cursor, which moves on by advance (1 for a single assignment, the
+     * number of tasks for a bulk one). Callers take the first user that
+     * fits and only look further when users are at capacity
+     */
+    public PrimitiveIterator.OfLong rotation(int advance) {
+        long[] snapshot = snapshot();
+        return cycle(snapshot, snapshot.length == 0 ? 0 : cursor.getAndAdd(advance));
+    }
+
+    /**
+     * Every active user once, starting at a uniformly random one
+     */
+    public PrimitiveIterator.OfLong randomRotation() {
+        long[] snapshot = snapshot();
+        return cycle(snapshot, snapshot.length == 0 ? 0 : ThreadLocalRandom.current().nextInt(snapshot.length));
+    }
+
+    /**
+     * All active USER ids, ascending
+     */
+    public List<Long> ids() {
+        return Arrays.stream(snapshot()).boxed().toList();
+    }
+
+    /**
+     * Rebuild once the change that published the event has committed (or
+     * immediately when it was published outside a transaction)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(UserRosterChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Periodic rebuild - bounds how long a change made on another node goes
+     * unnoticed. Skipped until the roster is first used
+     */
+    @Scheduled(fixedDelayString = "${tasks.roster.resync-interval-ms:60000}")
+    public void resync() {
+        if (ids != null) {
+            refresh();
+        }
+    }
+
+    private static PrimitiveIterator.OfLong cycle(long[] snapshot, long start) {
+        return new PrimitiveIterator.OfLong() {
+            private int taken;
+
+            @Override
+            public boolean hasNext() {
+                return taken < snapshot.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return snapshot[Math.floorMod(start + taken++, snapshot.length)];
+            }
+        };
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = ids;
+        if (snapshot == null) {
+            // First use - concurrent first callers may both load, which is harmless
+            snapshot = refresh();
+        }
+        return snapshot;
+    }
+
+    private long[] refresh() {
+        long[] snapshot = userRepository.findActiveIdsByRole(Role.USER).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        ids = snapshot;
+        return snapshot;
+    }
+}
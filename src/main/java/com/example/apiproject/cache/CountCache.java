@@ -0,0 +1,46 @@
+package com.example.apiproject.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of exact list totals, keyed by entity and filter
+ * combination. Clients paging through a list re-request the same total on
+ * every page; with this cache the COUNT runs once per TTL instead.
+ *
+ * Entries are never evicted on writes - a total may be up to
+ * cache.counts.ttl-seconds stale, which is acceptable for page counts.
+ * Concurrent misses for the same key are coalesced into a single count.
+ *
+ * Metrics: cache.gets / cache.evictions etc. (cache=counts)
+ */
+@Component
+public class CountCache {
+
+    private final Cache<String, Long> counts;
+
+    public CountCache(MeterRegistry meterRegistry,
+            @Value("${cache.counts.max-size:10000}") long maxSize,
+            @Value("${cache.counts.ttl-seconds:10}") long ttlSeconds) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "counts");
+    }
+
+    /**
+     * Get a cached total, or run the count and cache it
+     */
+    public long get(String key, Supplier<Long> counter) {
+        return counts.get(key, k -> counter.get());
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.example.apiproject.util.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier cache of task detail views ({@link TaskResponseDTO}).
+ *
+ * - L1: bounded in-process Caffeine cache with a short TTL. Concurrent misses
+ *   for the same task are coalesced into a single load.
+ * - L2 (optional, cache.tasks.redis.enabled): Redis, shared by all nodes, so a
+ *   task loaded on one node is a hit on the others.
+ *
+ * The cache holds the unfiltered view of a task; callers must authorize the
+ * returned value themselves. Writes evict explicitly: the L1 entry is dropped
+ * immediately and again after commit, the L2 entry is replaced by a tombstone
+ * after commit and the eviction is broadcast so other nodes drop their L1
+ * copy. Redis failures degrade to database reads, never to errors.
+ *
+ * L2 is filled only where it holds nothing (SET NX): a view loaded before a
+ * write committed but stored after its eviction would otherwise sit in Redis
+ * until its TTL. The tombstone blocks such late stores for
+ * cache.tasks.redis.tombstone-seconds, which must exceed the longest load.
+ *
+ * Metrics: cache.gets / cache.evictions etc. (cache=tasks) for L1,
+ * cache.tasks.l2 (tag result=hit|miss|error) and cache.tasks.load (timer).
+ */
+@Slf4j
+@Component
+public class TaskCache {
+
+    static final String KEY_PREFIX = "cache:tasks:";
+    static final String EVICTION_CHANNEL = "cache:tasks:evictions";
+    // Never valid JSON for a task view
+    static final String TOMBSTONE = "-";
+
+    private final Cache<Long, TaskResponseDTO> local;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate redisTemplate;                 // null when L2 is disabled
+    private final RedisMessageListenerContainer listenerContainer;  // null when L2 is disabled
+    private final Duration redisTtl;
+    private final Duration tombstoneTtl;
+
+    private final Timer loadTimer;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l2Errors;
+
+    public TaskCache(MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+            @Value("${cache.tasks.max-size:10000}") long maxSize,
+            @Value("${cache.tasks.ttl-seconds:60}") long ttlSeconds,
+            @Value("${cache.tasks.redis.enabled:false}") boolean redisEnabled,
+            @Value("${cache.tasks.redis.ttl-seconds:300}") long redisTtlSeconds,
+            @Value("${cache.tasks.redis.tombstone-seconds:10}") long tombstoneSeconds) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.listenerContainer = redisEnabled ? listenerContainer.getIfAvailable() : null;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        this.tombstoneTtl = Duration.ofSeconds(tombstoneSeconds);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "tasks");
+        this.loadTimer = Timer.builder("cache.tasks.load").register(meterRegistry);
+        this.l2Hits = Counter.builder("cache.tasks.l2").tag("result", "hit").register(meterRegistry);
+        this.l2Misses = Counter.builder("cache.tasks.l2").tag("result", "miss").register(meterRegistry);
+        this.l2Errors = Counter.builder("cache.tasks.l2").tag("result", "error").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (listenerContainer == null) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                // One id, or a comma-separated list from evictAll()
+                for (String id : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+                    local.invalidate(Long.valueOf(id));
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed task eviction message");
+            }
+        }, new ChannelTopic(EVICTION_CHANNEL));
+    }
+
+    /**
+     * Get a task view, trying L1, then L2, then the loader. Exceptions thrown
+     * by the loader (e.g. task not found) propagate and nothing is cached.
+     */
+    public TaskResponseDTO get(Long id, Function<Long, TaskResponseDTO> loader) {
+        return local.get(id, key -> {
+            TaskResponseDTO shared = readShared(key);
+            if (shared != null) {
+                return shared;
+            }
+            TaskResponseDTO loaded = loadTimer.record(() -> loader.apply(key));
+            writeShared(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Evict a task after a write to it (or to anything shown in its view)
+     */
+    public void evict(Long id) {
+        local.invalidate(id);
+        TransactionUtils.afterCommit(() -> {
+            local.invalidate(id);
+            evictShared(id);
+        });
+    }
+
+    /**
+     * Evict many tasks after a set-based write - one pipelined round of
+     * tombstones and one broadcast for the whole set
+     */
+    public void evictAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> copy = List.copyOf(ids);
+        local.invalidateAll(copy);
+        TransactionUtils.afterCommit(() -> {
+            local.invalidateAll(copy);
+            evictShared(copy);
+        });
+    }
+
+    private TaskResponseDTO readShared(Long id) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+            if (json == null || TOMBSTONE.equals(json)) {
+                l2Misses.increment();
+                return null;
+            }
+            l2Hits.increment();
+            return objectMapper.readValue(json, TaskResponseDTO.class);
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Task cache L2 read failed for task {}: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(Long id, TaskResponseDTO task) {
+        if (redisTemplate == null || task == null) {
+            return;
+        }
+        try {
+            // Refused while a newer view or a tombstone is there
+            redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + id, objectMapper.writeValueAsString(task), redisTtl);
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Task cache L2 write failed for task {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void evictShared(Long id) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + id, TOMBSTONE, tombstoneTtl);
+            redisTemplate.convertAndSend(EVICTION_CHANNEL, String.valueOf(id));
+        } catch (Exception e) {
+            // The L2 entry (and other nodes' L1) run out on their TTL
+            l2Errors.increment();
+            log.warn("Task cache L2 eviction failed for task {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void evictShared(List<Long> ids) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            byte[] tombstone = TOMBSTONE.getBytes(StandardCharsets.UTF_8);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long id : ids) {
+                    connection.stringCommands().set((KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8), tombstone,
+                            Expiration.from(tombstoneTtl), SetOption.upsert());
+                }
+                return null;
+            });
+            redisTemplate.convertAndSend(EVICTION_CHANNEL,
+                    ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.warn("Task cache L2 eviction failed for {} tasks: {}", ids.size(), e.getMessage());
+        }
+    }
+}
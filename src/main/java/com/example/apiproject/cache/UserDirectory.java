@@ -0,0 +1,118 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process cache of users, indexed by both id and email.
+ *
+ * Used on the hot per-request and assignment paths instead of re-reading
+ * the same rows. Entries expire after a short TTL (which also bounds how long
+ * a change made on another node can go unnoticed) and are evicted explicitly
+ * by every write to a user row on this node. Because evictions stay local,
+ * nothing that checks credentials or issues tokens reads from here: login,
+ * password changes and refresh load the row from the database.
+ */
+@Component
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserSnapshot> byId;
+    private final Cache<String, UserSnapshot> byEmail;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserDirectory(UserRepository userRepository,
+            @Value("${cache.users.max-size:10000}") long maxSize,
+            @Value("${cache.users.ttl-seconds:30}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Find a user by id, loading from the database on a miss.
+     * Missing users are not cached.
+     */
+    public Optional<UserSnapshot> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, this::loadById));
+    }
+
+    /**
+     * Find a user by email, loading from the database on a miss.
+     * Missing users are not cached.
+     */
+    public Optional<UserSnapshot> findByEmail(String email) {
+        return Optional.ofNullable(byEmail.get(email, this::loadByEmail));
+    }
+
+    /**
+     * Evict a user after a write. Either key may be null (e.g. no id yet after
+     * registration). Runs immediately and again after the surrounding
+     * transaction commits, so a concurrent load cannot put the pre-commit row
+     * back into the cache.
+     */
+    public void evict(Long id, String email) {
+        doEvict(id, email);
+        TransactionUtils.afterCommit(() -> doEvict(id, email));
+    }
+
+    public UserDirectoryStats stats() {
+        CacheStats stats = byId.stats().plus(byEmail.stats());
+        return new UserDirectoryStats(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                invalidations.get(),
+                byId.estimatedSize());
+    }
+
+    private UserSnapshot loadById(Long id) {
+        UserSnapshot snapshot = userRepository.findById(id).map(UserSnapshot::from).orElse(null);
+        if (snapshot != null) {
+            byEmail.put(snapshot.email(), snapshot);
+        }
+        return snapshot;
+    }
+
+    private UserSnapshot loadByEmail(String email) {
+        UserSnapshot snapshot = userRepository.findByEmail(email).map(UserSnapshot::from).orElse(null);
+        if (snapshot != null) {
+            byId.put(snapshot.id(), snapshot);
+        }
+        return snapshot;
+    }
+
+    private void doEvict(Long id, String email) {
+        // asMap().remove() does not count towards hit/miss statistics
+        if (id != null) {
+            UserSnapshot cached = byId.asMap().remove(id);
+            if (cached != null) {
+                byEmail.invalidate(cached.email());
+            }
+        }
+        if (email != null) {
+            UserSnapshot cached = byEmail.asMap().remove(email);
+            if (cached != null) {
+                byId.invalidate(cached.id());
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+}
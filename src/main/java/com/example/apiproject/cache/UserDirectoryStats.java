@@ -0,0 +1,18 @@
+package com.example.apiproject.cache;
+
+/**
+ * Point-in-time counters for the {@link UserDirectory} cache
+ *
+ * @param hitCount          Lookups answered from memory
+ * @param missCount         Lookups that went to the database
+ * @param evictionCount     Entries dropped for size or TTL
+ * @param invalidationCount Explicit evictions triggered by user writes
+ * @param size              Current number of cached users
+ */
+public record UserDirectoryStats(
+        long hitCount,
+        long missCount,
+        long evictionCount,
+        long invalidationCount,
+        long size) {
+}
@@ -0,0 +1,276 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.repository.UserTaskCount;
+import com.example.apiproject.util.TransactionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process index of open (non-DONE) task counts per active USER, ordered
+ * by load, so "least-loaded user" is answered without touching the database.
+ *
+ * - Seeded from two queries: the active USER ids and one GROUP BY user_id
+ *   count over open tasks
+ * - Kept current by the write paths on this node (assignment, reassignment,
+ *   status changes, creation), applied after their transaction commits
+ * - Rebuilt after a {@link UserRosterChangedEvent} commits, after changes it
+ *   cannot apply incrementally (see {@link #invalidate()}), and periodically
+ *   (tasks.load-index.resync-interval-ms) to pick up writes made on other
+ *   nodes or through set-based updates. A user deactivated elsewhere in the
+ *   meantime is refused by the WIP slot reservation, which checks is_active
+ *
+ * Rebuilds run their queries outside the index monitor: lookups and updates
+ * keep using the current view meanwhile, and the new view is swapped in by
+ * reference once built. Updates that land during a rebuild are journaled and
+ * replayed onto the new view, since the counts it was built from may predate
+ * them. Only the very first lookup waits for the database.
+ *
+ * A change whose commit precedes the count query but whose after-commit
+ * update arrives once the query has started is counted twice; this needs
+ * the query to start between a writer's commit and its callback, and lasts
+ * until the next rebuild.
+ *
+ * Finding the least-loaded user reads the head of a sorted set (O(log n)),
+ * plus one step per excluded user ahead of the answer; updates are O(log n).
+ * The monitor is only ever held for in-memory work.
+ */
+@Component
+public class UserLoadIndex {
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+
+    private final Object lock = new Object();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock; replaced, never cleared, by a rebuild
+    private Map<Long, Load> byUser = new HashMap<>();
+    private TreeSet<Load> ordered = new TreeSet<>();
+    private Map<Long, Long> journal;
+    private volatile boolean seeded;
+
+    public UserLoadIndex(UserRepository userRepository, TaskRepository taskRepository) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Active USER with the fewest open tasks (lowest id on ties), or empty if
+     * there are no active users outside excluded
+     *
+     * @param excluded Users to pass over (e.g. found to be at their WIP limit)
+     */
+    public Optional<Long> leastLoaded(Set<Long> excluded) {
+        ensureSeeded();
+        synchronized (lock) {
+            for (Load load : ordered) {
+                if (!excluded.contains(load.userId())) {
+                    return Optional.of(load.userId());
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Copy of every active USER's open-task count, for callers that place
+     * several tasks against one consistent view
+     */
+    public Map<Long, Long> loads() {
+        ensureSeeded();
+        synchronized (lock) {
+            Map<Long, Long> loads = new HashMap<>(byUser.size() * 2);
+            byUser.forEach((userId, load) -> loads.put(userId, load.openTasks()));
+            return loads;
+        }
+    }
+
+    /**
+     * Current open-task count of a user, or empty if not an active USER
+     */
+    public Optional<Long> loadOf(Long userId) {
+        ensureSeeded();
+        synchronized (lock) {
+            Load load = byUser.get(userId);
+            return load == null ? Optional.empty() : Optional.of(load.openTasks());
+        }
+    }
+
+    /**
+     * A task moved between assignees (either may be null) - applied after commit
+     *
+     * @param open Whether the task counts towards its assignee's load (not DONE)
+     */
+    public void taskMoved(Long fromUserId, Long toUserId, boolean open) {
+        if (!open || (fromUserId != null && fromUserId.equals(toUserId))) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            synchronized (lock) {
+                adjust(fromUserId, -1);
+                adjust(toUserId, 1);
+            }
+        });
+    }
+
+    /**
+     * A task's status changed between open and DONE - applied after commit
+     */
+    public void taskStatusChanged(Long assigneeId, boolean wasOpen, boolean isOpen) {
+        if (wasOpen == isOpen || assigneeId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            synchronized (lock) {
+                adjust(assigneeId, isOpen ? 1 : -1);
+            }
+        });
+    }
+
+    /**
+     * Rebuild the index after a change it cannot follow incrementally
+     * (set-based status updates), once that change has committed
+     */
+    public void invalidate() {
+        TransactionUtils.afterCommit(() -> {
+            if (seeded) {
+                rebuild();
+            }
+        });
+    }
+
+    /**
+     * Users were added to or removed from the assignable set - rebuild once
+     * that change has committed. The user is dropped from the current view
+     * straight away, so a deactivated user is not picked while the rebuild
+     * runs (an activated one is added back by it)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(UserRosterChangedEvent event) {
+        if (!seeded) {
+            return;
+        }
+        synchronized (lock) {
+            Load current = byUser.remove(event.userId());
+            if (current != null) {
+                ordered.remove(current);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Periodic rebuild - bounds the drift caused by writes on other nodes
+     */
+    @Scheduled(fixedDelayString = "${tasks.load-index.resync-interval-ms:60000}")
+    public void resync() {
+        if (seeded) {
+            rebuild();
+        }
+    }
+
+    private void ensureSeeded() {
+        if (seeded) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            // Concurrent first callers wait for one seed instead of each running it
+            if (!seeded) {
+                rebuild();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Build a fresh view from the database and swap it in. One rebuild runs
+     * at a time; updates arriving while it queries are journaled and
+     * replayed onto the fresh counts
+     */
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            synchronized (lock) {
+                journal = new HashMap<>();
+            }
+            Map<Long, Load> freshByUser = new HashMap<>();
+            TreeSet<Load> freshOrdered = new TreeSet<>();
+            try {
+                List<Long> roster = userRepository.findActiveIdsByRole(Role.USER);
+                Map<Long, Long> counts = new HashMap<>();
+                for (UserTaskCount count : taskRepository.countOpenTasksByAssignee()) {
+                    counts.put(count.getUserId(), count.getOpenTasks());
+                }
+                for (Long userId : roster) {
+                    Load load = new Load(counts.getOrDefault(userId, 0L), userId);
+                    freshByUser.put(userId, load);
+                    freshOrdered.add(load);
+                }
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    journal = null;
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                journal.forEach((userId, delta) -> adjust(freshByUser, freshOrdered, userId, delta));
+                journal = null;
+                byUser = freshByUser;
+                ordered = freshOrdered;
+                seeded = true;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void adjust(Long userId, long delta) {
+        if (userId == null) {
+            return;
+        }
+        if (journal != null) {
+            journal.merge(userId, delta, Long::sum);
+        }
+        if (seeded) {
+            adjust(byUser, ordered, userId, delta);
+        }
+    }
+
+    private static void adjust(Map<Long, Load> byUser, TreeSet<Load> ordered, Long userId, long delta) {
+        Load current = byUser.get(userId);
+        if (current == null || delta == 0) {
+            return; // not an active USER
+        }
+        ordered.remove(current);
+        Load next = new Load(Math.max(0, current.openTasks() + delta), userId);
+        byUser.put(userId, next);
+        ordered.add(next);
+    }
+
+    /**
+     * Sort key: load, then user id (unique, so the set never merges users)
+     */
+    private record Load(long openTasks, long userId) implements Comparable<Load> {
+
+        @Override
+        public int compareTo(Load other) {
+            int byLoad = Long.compare(openTasks, other.openTasks);
+            return byLoad != 0 ? byLoad : Long.compare(userId, other.userId);
+        }
+    }
+}
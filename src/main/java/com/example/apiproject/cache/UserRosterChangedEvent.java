@@ -0,0 +1,13 @@
+package com.example.apiproject.cache;
+
+/**
+ * Published when the set of assignable users may have changed: a user was
+ * registered, activated, deactivated or given a different role.
+ * Listeners ({@link ActiveUserRoster}, {@link UserLoadIndex}, and the
+ * workload rebalancer's hand-off) react after the publishing transaction
+ * commits.
+ *
+ * @param userId User whose registration, role or status changed
+ */
+public record UserRosterChangedEvent(Long userId) {
+}
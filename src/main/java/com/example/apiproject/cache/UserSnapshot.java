@@ -0,0 +1,33 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, detached copy of a {@link User} row.
+ * Safe to share across threads and requests, unlike managed JPA entities.
+ * Carries no password hash: credentials are only ever checked against the
+ * database (see CustomUserDetailsService).
+ */
+public record UserSnapshot(
+        Long id,
+        String name,
+        String email,
+        Role role,
+        boolean active,
+        long securityVersion,
+        LocalDateTime createdAt) {
+
+    public static UserSnapshot from(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getRole(),
+                Boolean.TRUE.equals(user.getIsActive()),
+                user.getSecurityVersion() != null ? user.getSecurityVersion() : 0L,
+                user.getCreatedAt());
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.apiproject.config;
 
+import com.example.apiproject.security.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -12,10 +15,17 @@ public class ApplicationConfig {
      * Password encoder bean for encrypting and verifying passwords
      * Uses BCrypt hashing algorithm which is secure and industry-standard
      * 
-     * @return BCryptPasswordEncoder instance
+     * Hashing runs on a bounded pool of its own so that request threads never
+     * burn CPU on BCrypt while holding other resources, and a login storm is
+     * answered with 503 instead of an ever-growing backlog
+     * 
+     * @return BCrypt-backed encoder running on the password-hashing pool
      */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${auth.password-hashing.threads:0}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, meterRegistry);
     }
 }
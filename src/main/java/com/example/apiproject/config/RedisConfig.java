@@ -0,0 +1,26 @@
+package com.example.apiproject.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis pub/sub wiring used to propagate state changes between nodes
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Shared listener container - components register their channels on it.
+     * Only created when something actually uses Redis pub/sub.
+     */
+    @Bean
+    @ConditionalOnExpression("'${auth.revocation.store:redis}' == 'redis' or ${cache.tasks.redis.enabled:false}")
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.apiproject.controller;
+
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserDirectoryStats;
+import com.example.apiproject.dto.JobRunDTO;
+import com.example.apiproject.dto.SessionRevocationRequestDTO;
+import com.example.apiproject.dto.SessionRevocationResultDTO;
+import com.example.apiproject.entity.JobRun;
+import com.example.apiproject.mapper.JobRunMapper;
+import com.example.apiproject.repository.JobRunRepository;
+import com.example.apiproject.response.ApiResponse;
+import com.example.apiproject.response.PagedResponse;
+import com.example.apiproject.service.SessionRevocationService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Operational endpoints (Admin only)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+        private final UserDirectory userDirectory;
+        private final JobRunRepository jobRunRepository;
+        private final JobRunMapper jobRunMapper;
+        private final SessionRevocationService sessionRevocationService;
+
+        public AdminController(UserDirectory userDirectory,
+                        JobRunRepository jobRunRepository,
+                        JobRunMapper jobRunMapper,
+                        SessionRevocationService sessionRevocationService) {
+                this.userDirectory = userDirectory;
+                this.jobRunRepository = jobRunRepository;
+                this.jobRunMapper = jobRunMapper;
+                this.sessionRevocationService = sessionRevocationService;
+        }
+
+        /**
+         * User cache hit/miss/eviction counters
+         * GET /api/admin/caches/users
+         */
+        @GetMapping("/caches/users")
+        public ResponseEntity<ApiResponse<UserDirectoryStats>> getUserCacheStats() {
+                return ResponseEntity.ok(ApiResponse.success("User cache statistics retrieved", userDirectory.stats()));
+        }
+
+        /**
+         * Recent scheduled job runs, newest first
+         * GET /api/admin/jobs/runs?jobName=refresh-tokens.purge-dead-families&page=0&size=20
+         */
+        @GetMapping("/jobs/runs")
+        public ResponseEntity<ApiResponse<PagedResponse<JobRunDTO>>> getJobRuns(
+                        @RequestParam(required = false) String jobName,
+                        @RequestParam(defaultValue = "0") int page,
+                        @RequestParam(defaultValue = "20") int size) {
+
+                Pageable pageable = PageRequest.of(page, size);
+                Page<JobRun> runs = jobName != null
+                                ? jobRunRepository.findByJobNameOrderByStartedAtDesc(jobName, pageable)
+                                : jobRunRepository.findAllByOrderByStartedAtDesc(pageable);
+
+                return ResponseEntity.ok(ApiResponse.success("Job runs retrieved",
+                                PagedResponse.from(runs.map(jobRunMapper::toDTO))));
+        }
+
+        /**
+         * Revoke a single login session (refresh token family)
+         * DELETE /api/admin/sessions/families/{familyId}
+         */
+        @DeleteMapping("/sessions/families/{familyId}")
+        public ResponseEntity<ApiResponse<SessionRevocationResultDTO>> revokeFamily(@PathVariable String familyId) {
+                log.warn("Admin requested revocation of session family {}", familyId);
+                return ResponseEntity.ok(ApiResponse.success("Session revoked",
+                                sessionRevocationService.revokeFamily(familyId)));
+        }
+
+        /**
+         * Revoke all sessions of a user
+         * DELETE /api/admin/sessions/users/{userId}
+         */
+        @DeleteMapping("/sessions/users/{userId}")
+        public ResponseEntity<ApiResponse<SessionRevocationResultDTO>> revokeUserSessions(@PathVariable Long userId) {
+                log.warn("Admin requested revocation of all sessions of user {}", userId);
+                return ResponseEntity.ok(ApiResponse.success("User sessions revoked",
+                                sessionRevocationService.revokeUser(userId)));
+        }
+
+        /**
+         * Revoke all sessions of several users
+         * POST /api/admin/sessions/revoke-users  { "userIds": [1, 2, 3] }
+         */
+        @PostMapping("/sessions/revoke-users")
+        public ResponseEntity<ApiResponse<SessionRevocationResultDTO>> revokeUsersSessions(
+                        @Valid @RequestBody SessionRevocationRequestDTO request) {
+                log.warn("Admin requested revocation of all sessions of {} user(s)", request.getUserIds().size());
+                return ResponseEntity.ok(ApiResponse.success("User sessions revoked",
+                                sessionRevocationService.revokeUsers(request.getUserIds())));
+        }
+
+        /**
+         * Revoke every session issued before a point in time (key-rotation incidents)
+         * POST /api/admin/sessions/revoke-issued-before?before=2024-01-31T12:00:00
+         */
+        @PostMapping("/sessions/revoke-issued-before")
+        public ResponseEntity<ApiResponse<SessionRevocationResultDTO>> revokeSessionsIssuedBefore(
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+                log.warn("Admin requested revocation of all sessions issued before {}", before);
+                return ResponseEntity.ok(ApiResponse.success("Sessions revoked",
+                                sessionRevocationService.revokeIssuedBefore(before)));
+        }
+}
@@ -2,6 +2,7 @@ package com.example.apiproject.controller;
 
 import com.example.apiproject.dto.CommentRequestDTO;
 import com.example.apiproject.dto.CommentResponseDTO;
+import com.example.apiproject.pagination.CommentSortField;
 import com.example.apiproject.response.ApiResponse;
 import com.example.apiproject.response.PagedResponse;
 import com.example.apiproject.service.CommentService;
@@ -9,11 +10,11 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/tasks/{taskId}/comments")
@@ -47,15 +48,40 @@ public class CommentController {
     /**
      * Get all comments for a specific task (with pagination and sorting)
      * GET /api/tasks/{taskId}/comments?page=0&size=10&sortBy=createdAt
+     * sortBy: id, createdAt (id breaks ties)
+     *
+     * Passing a cursor parameter (empty for the first page) switches to keyset
+     * pagination: ascending order, no totals, nextCursor in the response.
+     * GET /api/tasks/{taskId}/comments?cursor=&size=10&sortBy=createdAt
+     *
+     * Responses carry an ETag of the task's comments (count + sums of ids and versions); a
+     * matching If-None-Match returns 304 before the page query runs.
      */
     @GetMapping
     public ResponseEntity<ApiResponse<PagedResponse<CommentResponseDTO>>> getCommentsForTask(
             @PathVariable Long taskId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+
+        // Only indexed orderings are accepted (400 otherwise)
+        CommentSortField sortField = CommentSortField.fromProperty(sortBy);
+
+        // Access-checked fingerprint; 304 skips the page query and serialization
+        if (webRequest.checkNotModified(commentService.getCommentsETag(taskId))) {
+            return null;
+        }
+
+        if (cursor != null) {
+            ApiResponse<PagedResponse<CommentResponseDTO>> response = ApiResponse.success(
+                    "Comments retrieved successfully",
+                    PagedResponse.fromKeyset(commentService.getCommentsAfter(taskId, sortField, cursor, size), size));
+            return ResponseEntity.ok(response);
+        }
+
+        Pageable pageable = PageRequest.of(page, size, sortField.order());
         Page<CommentResponseDTO> comments = commentService.getCommentsByTaskId(taskId, pageable);
 
         ApiResponse<PagedResponse<CommentResponseDTO>> response = new ApiResponse<>(
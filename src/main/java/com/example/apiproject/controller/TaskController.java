@@ -1,29 +1,47 @@
 package com.example.apiproject.controller;
 
+import com.example.apiproject.dto.RebalanceResultDTO;
+import com.example.apiproject.dto.TaskBatchRequestDTO;
+import com.example.apiproject.dto.TaskBatchResultDTO;
+import com.example.apiproject.dto.TaskBulkAssignDTO;
+import com.example.apiproject.dto.TaskBulkAssignResultDTO;
+import com.example.apiproject.dto.TaskBulkUpdateDTO;
+import com.example.apiproject.dto.TaskBulkUpdateResultDTO;
 import com.example.apiproject.dto.TaskRequestDTO;
 import com.example.apiproject.dto.TaskResponseDTO;
 import com.example.apiproject.dto.TaskUpdateDTO;
 import com.example.apiproject.entity.AssignmentType;
 import com.example.apiproject.entity.TaskPriority;
 import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.ListETag;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TaskSortField;
+import com.example.apiproject.pagination.TotalMode;
 import com.example.apiproject.response.ApiResponse;
 import com.example.apiproject.response.PagedResponse;
+import com.example.apiproject.service.LeastLoadedAssignmentQueue;
+import com.example.apiproject.service.TaskBulkService;
 import com.example.apiproject.service.TaskService;
+import com.example.apiproject.service.WorkloadRebalancer;
+import com.example.apiproject.util.ETagUtils;
 import jakarta.validation.Valid;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -31,10 +49,18 @@ import java.time.LocalDateTime;
 public class TaskController {
 
         private final TaskService taskService;
+        private final TaskBulkService taskBulkService;
+        private final LeastLoadedAssignmentQueue leastLoadedAssignmentQueue;
+        private final WorkloadRebalancer workloadRebalancer;
 
         // Constructor Injection - Best Practice
-        public TaskController(TaskService taskService) {
+        public TaskController(TaskService taskService, TaskBulkService taskBulkService,
+                        LeastLoadedAssignmentQueue leastLoadedAssignmentQueue,
+                        WorkloadRebalancer workloadRebalancer) {
                 this.taskService = taskService;
+                this.taskBulkService = taskBulkService;
+                this.leastLoadedAssignmentQueue = leastLoadedAssignmentQueue;
+                this.workloadRebalancer = workloadRebalancer;
         }
 
         /**
@@ -67,6 +93,38 @@ public class TaskController {
                                 .body(response);
         }
 
+        /**
+         * Create many tasks in one request
+         * POST /api/tasks/batch
+         * Only MANAGER role can create tasks
+         *
+         * All items are validated up front (any invalid body rejects the whole
+         * request); items with an unknown or non-USER assignee are reported as
+         * rejected and the rest are created in a single transaction.
+         *
+         * @param request Up to 1000 TaskRequestDTOs
+         * @return ResponseEntity with one result (task id or error) per item
+         */
+        @PostMapping("/batch")
+        @PreAuthorize("hasRole('MANAGER')")
+        public ResponseEntity<ApiResponse<TaskBatchResultDTO>> createTasks(
+                        @Valid @RequestBody TaskBatchRequestDTO request) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("User '{}' requested to create {} tasks", auth.getName(), request.getTasks().size());
+
+                TaskBatchResultDTO result = taskBulkService.createTasks(request.getTasks());
+
+                ApiResponse<TaskBatchResultDTO> response = new ApiResponse<>(
+                                true,
+                                result.getCreated() + " task(s) created, " + result.getRejected() + " rejected",
+                                result,
+                                null,
+                                LocalDateTime.now());
+
+                return ResponseEntity.status(HttpStatus.CREATED)
+                                .body(response);
+        }
+
         /**
          * Assign a task to a user using dynamic strategy selection
          * PUT /api/tasks/{id}/assign
@@ -77,12 +135,19 @@ public class TaskController {
          * - RANDOM: userId parameter ignored (selects random active user)
          * - LEAST_LOADED: userId parameter ignored (selects user with fewest active
          * tasks)
+         * - ROUND_ROBIN: userId parameter ignored (selects active users in turn)
+         *
+         * LEAST_LOADED requests arriving within a few milliseconds of each other
+         * are assigned as one batch (see LeastLoadedAssignmentQueue), so they
+         * spread across users instead of all picking the same one.
          * 
          * @param id             The ID of the task to assign
          * @param userId         The ID of the user (required for MANUAL, ignored for
-         *                       RANDOM/LEAST_LOADED)
+         *                       RANDOM/LEAST_LOADED/ROUND_ROBIN)
          * @param assignmentType The assignment strategy to use (MANUAL, RANDOM,
-         *                       LEAST_LOADED)
+         *                       LEAST_LOADED, ROUND_ROBIN)
+         * @param ifMatch        Optional ETag of the task version this change is
+         *                       based on; 412 if the task has changed since
          * @return ResponseEntity with ApiResponse wrapper containing updated
          *         TaskResponseDTO
          */
@@ -91,13 +156,18 @@ public class TaskController {
         public ResponseEntity<ApiResponse<TaskResponseDTO>> assignTask(
                         @PathVariable Long id,
                         @RequestParam(required = false) Long userId,
-                        @RequestParam AssignmentType assignmentType) {
+                        @RequestParam AssignmentType assignmentType,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
                 log.info("Manager '{}' requested to assign task {} using {} strategy",
                                 auth.getName(), id, assignmentType);
 
-                // Call service to assign task with selected strategy
-                TaskResponseDTO taskResponse = taskService.assignTask(id, userId, assignmentType);
+                // Call service to assign task with selected strategy. LEAST_LOADED is
+                // queued for batching - no transaction is held while it waits
+                Long expectedVersion = ETagUtils.parseVersion(ifMatch, "task", id);
+                TaskResponseDTO taskResponse = assignmentType == AssignmentType.LEAST_LOADED
+                                ? leastLoadedAssignmentQueue.assign(id, expectedVersion)
+                                : taskService.assignTask(id, userId, assignmentType, expectedVersion);
 
                 // Wrap response in ApiResponse structure
                 ApiResponse<TaskResponseDTO> response = new ApiResponse<>(
@@ -107,16 +177,143 @@ public class TaskController {
                                 null,
                                 LocalDateTime.now());
 
-                // Return ResponseEntity with HTTP 200 OK
+                // Return ResponseEntity with HTTP 200 OK and the new version's ETag
+                return ResponseEntity.ok()
+                                .eTag(ETagUtils.ofVersion("task", taskResponse.getId(), taskResponse.getVersion()))
+                                .body(response);
+        }
+
+        /**
+         * Assign many tasks in one pass
+         * PUT /api/tasks/assign/batch
+         * Only MANAGER role can assign tasks
+         *
+         * Tasks are selected by taskIds, or as all unassigned tasks matching
+         * filter (capped by tasks.bulk-assign.max-tasks). The roster and current
+         * loads are read once; LEAST_LOADED balances with a min-heap, RANDOM
+         * deals round-robin over a shuffled roster, ROUND_ROBIN continues the
+         * shared rotation, MANUAL needs userId.
+         *
+         * @param request TaskBulkAssignDTO with the strategy and selection
+         * @return ResponseEntity with ApiResponse wrapper containing the resulting
+         *         distribution
+         */
+        @PutMapping("/assign/batch")
+        @PreAuthorize("hasRole('MANAGER')")
+        public ResponseEntity<ApiResponse<TaskBulkAssignResultDTO>> assignTasks(
+                        @Valid @RequestBody TaskBulkAssignDTO request) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("Manager '{}' requested a bulk assignment using {} strategy (ids={}, filter={})",
+                                auth.getName(), request.getAssignmentType(),
+                                request.getTaskIds() == null ? 0 : request.getTaskIds().size(), request.getFilter());
+
+                TaskBulkAssignResultDTO result = taskBulkService.assignTasks(request);
+
+                ApiResponse<TaskBulkAssignResultDTO> response = new ApiResponse<>(
+                                true,
+                                result.getAssigned() + " task(s) assigned using " + request.getAssignmentType()
+                                                + " strategy",
+                                result,
+                                null,
+                                LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+        }
+
+        /**
+         * Rebalance open tasks across active users
+         * POST /api/tasks/rebalance?dryRun=true
+         * Only MANAGER role can rebalance
+         *
+         * Hands off open tasks of inactive accounts, then moves not-started
+         * tasks from the most to the least loaded users until everyone is within
+         * tasks.rebalance.tolerance of the mean (at most
+         * tasks.rebalance.max-moves per call). Also runs on a schedule.
+         *
+         * @param dryRun Only return the plan, move nothing (default false)
+         * @return ResponseEntity with ApiResponse wrapper containing the band and
+         *         the moves made (or planned)
+         */
+        @PostMapping("/rebalance")
+        @PreAuthorize("hasRole('MANAGER')")
+        public ResponseEntity<ApiResponse<RebalanceResultDTO>> rebalance(
+                        @RequestParam(defaultValue = "false") boolean dryRun) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("Manager '{}' requested a workload rebalance (dryRun={})", auth.getName(), dryRun);
+
+                RebalanceResultDTO result = workloadRebalancer.rebalance(dryRun);
+
+                ApiResponse<RebalanceResultDTO> response = new ApiResponse<>(
+                                true,
+                                result.getMoved() + (dryRun ? " task(s) would be moved" : " task(s) moved"),
+                                result,
+                                null,
+                                LocalDateTime.now());
+
                 return ResponseEntity.ok(response);
         }
 
+        /**
+         * Claim the next task
+         * POST /api/tasks/claim-next?priority=HIGH,MEDIUM
+         * Only USER role can claim tasks, always for themselves
+         *
+         * Atomically takes the oldest OPEN, unassigned task of the highest
+         * priority available, assigns it to the caller and sets it IN_PROGRESS.
+         * Concurrent claimers skip each other's rows (SKIP LOCKED), so every
+         * claimer gets a different task without waiting.
+         *
+         * @param priority Optional priorities to claim from (default: any)
+         * @return ResponseEntity with the claimed TaskResponseDTO and its ETag,
+         *         204 No Content if nothing is claimable, 409 if the caller is
+         *         at their work-in-progress limit
+         */
+        @PostMapping("/claim-next")
+        @PreAuthorize("hasRole('USER')")
+        public ResponseEntity<ApiResponse<TaskResponseDTO>> claimNextTask(
+                        @RequestParam(required = false) Set<TaskPriority> priority) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("User '{}' requested to claim the next task (priority={})", auth.getName(), priority);
+
+                Optional<TaskResponseDTO> claimed = taskService.claimNextTask(priority);
+                if (claimed.isEmpty()) {
+                        return ResponseEntity.noContent().build();
+                }
+                TaskResponseDTO taskResponse = claimed.get();
+
+                ApiResponse<TaskResponseDTO> response = new ApiResponse<>(
+                                true,
+                                "Task claimed successfully",
+                                taskResponse,
+                                null,
+                                LocalDateTime.now());
+
+                return ResponseEntity.ok()
+                                .eTag(ETagUtils.ofVersion("task", taskResponse.getId(), taskResponse.getVersion()))
+                                .body(response);
+        }
+
         /**
          * Get all tasks (with pagination, sorting, and optional filters)
          * GET
-         * /api/tasks?page=0&size=10&sortBy=id&status=OPEN&priority=HIGH&assignedToUserId=5
+         * /api/tasks?page=0&size=10&sortBy=id&status=OPEN&priority=HIGH&assignedToUserId=5&createdByUserId=2
+         * sortBy: id, title, status, priority, createdAt, updatedAt (id breaks ties)
          * - ADMIN/MANAGER see all tasks
          * - USER sees only tasks assigned to them
+         *
+         * total=EXACT (default) | ESTIMATED | NONE chooses how totalElements is
+         * computed - NONE skips the count, ESTIMATED reads planner statistics.
+         * The response's totalKind says which one was returned.
+         *
+         * Passing a cursor parameter (empty for the first page) switches to keyset
+         * pagination: ascending order, no totals, nextCursor in the response.
+         * GET /api/tasks?cursor=&size=10&sortBy=createdAt&status=OPEN
+         *
+         * Responses carry an ETag; a matching If-None-Match returns 304 before
+         * the page query runs. For total=EXACT offset pages the tag
+         * fingerprints the filtered set (count + sums of ids and versions) and
+         * that count is the returned total; other requests are not counted and
+         * get a tag that changes with any committed task write.
          */
         @GetMapping
         public ResponseEntity<ApiResponse<PagedResponse<TaskResponseDTO>>> getAllTasks(
@@ -125,14 +322,40 @@ public class TaskController {
                         @RequestParam(defaultValue = "id") String sortBy,
                         @RequestParam(required = false) TaskStatus status,
                         @RequestParam(required = false) TaskPriority priority,
-                        @RequestParam(required = false) Long assignedToUserId) {
+                        @RequestParam(required = false) Long assignedToUserId,
+                        @RequestParam(required = false) Long createdByUserId,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "EXACT") TotalMode total,
+                        WebRequest webRequest) {
 
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                log.info("User '{}' requested to retrieve tasks (page={}, size={}, sortBy={}, status={}, priority={}, assignedTo={})",
-                                auth.getName(), page, size, sortBy, status, priority, assignedToUserId);
+                log.info("User '{}' requested to retrieve tasks (page={}, size={}, sortBy={}, status={}, priority={}, assignedTo={}, createdBy={}, total={})",
+                                auth.getName(), page, size, sortBy, status, priority, assignedToUserId, createdByUserId, total);
+
+                // Only indexed orderings are accepted (400 otherwise)
+                TaskSortField sortField = TaskSortField.fromProperty(sortBy);
+
+                // Tag first: the body read afterwards is never older than it. Only an
+                // EXACT total is worth counting for, and then the count is counted once
+                boolean exact = cursor == null && total == TotalMode.EXACT;
+                ListETag etag = taskService.getTaskListETag(status, priority, assignedToUserId,
+                                createdByUserId, exact);
+                if (webRequest.checkNotModified(etag.value())) {
+                        // 304 Not Modified - nothing is queried, mapped or serialized
+                        return null;
+                }
+
+                if (cursor != null) {
+                        KeysetPage<TaskResponseDTO> tasks = taskService.getTasksAfter(status, priority,
+                                        assignedToUserId, createdByUserId, sortField, cursor, size);
+                        return ResponseEntity.ok(ApiResponse.success(
+                                        "Tasks retrieved successfully",
+                                        PagedResponse.fromKeyset(tasks, size)));
+                }
 
-                Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-                Page<TaskResponseDTO> tasks = taskService.getAllTasks(status, priority, assignedToUserId, pageable);
+                Pageable pageable = PageRequest.of(page, size, sortField.order());
+                PageResult<TaskResponseDTO> tasks = taskService.getAllTasks(status, priority, assignedToUserId,
+                                createdByUserId, pageable, total, etag.count());
 
                 ApiResponse<PagedResponse<TaskResponseDTO>> response = new ApiResponse<>(
                                 true,
@@ -147,17 +370,27 @@ public class TaskController {
         /**
          * Get a single task by ID
          * GET /api/tasks/{id}
+         *
+         * Responses carry a strong ETag naming the task version (also usable as
+         * If-Match on PUT); a matching If-None-Match returns 304 without a body.
          * 
          * @param id The ID of the task to retrieve
          * @return ResponseEntity with ApiResponse wrapper containing TaskResponseDTO
          */
         @GetMapping("/{id}")
-        public ResponseEntity<ApiResponse<TaskResponseDTO>> getTaskById(@PathVariable Long id) {
+        public ResponseEntity<ApiResponse<TaskResponseDTO>> getTaskById(@PathVariable Long id,
+                        WebRequest webRequest) {
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
                 log.info("User '{}' requested to retrieve task {}", auth.getName(), id);
 
+                // Served from the task cache (already mapped) and access-checked
                 TaskResponseDTO taskResponse = taskService.getTaskById(id);
 
+                if (webRequest.checkNotModified(
+                                ETagUtils.ofVersion("task", taskResponse.getId(), taskResponse.getVersion()))) {
+                        return null;
+                }
+
                 ApiResponse<TaskResponseDTO> response = new ApiResponse<>(
                                 true,
                                 "Task retrieved successfully",
@@ -174,17 +407,21 @@ public class TaskController {
          * 
          * @param id        The ID of the task to update
          * @param updateDTO TaskUpdateDTO containing fields to update
+         * @param ifMatch   Optional ETag of the task version this change is based
+         *                  on; 412 if the task has changed since
          * @return ResponseEntity with ApiResponse wrapper containing updated
          *         TaskResponseDTO
          */
         @PutMapping("/{id}")
         public ResponseEntity<ApiResponse<TaskResponseDTO>> updateTask(
                         @PathVariable Long id,
-                        @RequestBody TaskUpdateDTO updateDTO) {
+                        @RequestBody TaskUpdateDTO updateDTO,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
                 log.info("User '{}' requested to update task {}", auth.getName(), id);
 
-                TaskResponseDTO taskResponse = taskService.updateTask(id, updateDTO);
+                TaskResponseDTO taskResponse = taskService.updateTask(id, updateDTO,
+                                ETagUtils.parseVersion(ifMatch, "task", id));
 
                 ApiResponse<TaskResponseDTO> response = new ApiResponse<>(
                                 true,
@@ -193,6 +430,40 @@ public class TaskController {
                                 null,
                                 LocalDateTime.now());
 
+                return ResponseEntity.ok()
+                                .eTag(ETagUtils.ofVersion("task", taskResponse.getId(), taskResponse.getVersion()))
+                                .body(response);
+        }
+
+        /**
+         * Update the status and/or priority of many tasks in one statement
+         * PUT /api/tasks/batch
+         * Tasks are selected by taskIds or by filter; same role rules as
+         * PUT /api/tasks/{id} (USER: own assigned tasks, status only; ADMIN: none)
+         * A filter updates at most tasks.bulk-update.max-tasks tasks per request;
+         * while hasMore is true, repeat it with afterId = nextAfterId.
+         *
+         * @param request TaskBulkUpdateDTO with the selection and target values
+         * @return ResponseEntity with ApiResponse wrapper containing updated and
+         *         rejected task ids
+         */
+        @PutMapping("/batch")
+        public ResponseEntity<ApiResponse<TaskBulkUpdateResultDTO>> updateTasks(
+                        @Valid @RequestBody TaskBulkUpdateDTO request) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("User '{}' requested a bulk task update (ids={}, filter={}, status={}, priority={})",
+                                auth.getName(), request.getTaskIds() == null ? 0 : request.getTaskIds().size(),
+                                request.getFilter(), request.getStatus(), request.getPriority());
+
+                TaskBulkUpdateResultDTO result = taskBulkService.updateTasks(request);
+
+                ApiResponse<TaskBulkUpdateResultDTO> response = new ApiResponse<>(
+                                true,
+                                result.getUpdated() + " task(s) updated",
+                                result,
+                                null,
+                                LocalDateTime.now());
+
                 return ResponseEntity.ok(response);
         }
 }
@@ -3,16 +3,19 @@ package com.example.apiproject.controller;
 import com.example.apiproject.dto.PasswordUpdateDTO;
 import com.example.apiproject.dto.UserAdminDTO;
 import com.example.apiproject.dto.UserProfileDTO;
+import com.example.apiproject.dto.UserWorkloadDTO;
 import com.example.apiproject.entity.Role;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.pagination.UserSortField;
 import com.example.apiproject.response.ApiResponse;
 import com.example.apiproject.response.PagedResponse;
 import com.example.apiproject.service.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -36,9 +39,18 @@ public class UserController {
          * Get all users (Admin and Manager) with pagination, sorting, and optional
          * filters
          * GET /api/users?page=0&size=10&sortBy=id&role=USER&isActive=true
+         * sortBy: id, name, email, role, createdAt (id breaks ties)
          * - ADMIN: Returns all users with full details (role + isActive filters
          * applied)
          * - MANAGER: Returns only active USERs with limited details (filters ignored)
+         *
+         * total=EXACT (default) | ESTIMATED | NONE chooses how totalElements is
+         * computed - NONE skips the count, ESTIMATED reads planner statistics.
+         * The response's totalKind says which one was returned.
+         *
+         * Passing a cursor parameter (empty for the first page) switches to keyset
+         * pagination: ascending order, no totals, nextCursor in the response.
+         * GET /api/users?cursor=&size=10&sortBy=createdAt
          */
         @GetMapping
         @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -47,14 +59,25 @@ public class UserController {
                         @RequestParam(defaultValue = "10") int size,
                         @RequestParam(defaultValue = "id") String sortBy,
                         @RequestParam(required = false) Role role,
-                        @RequestParam(required = false) Boolean isActive) {
+                        @RequestParam(required = false) Boolean isActive,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "EXACT") TotalMode total) {
 
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                log.info("'{}' requested to retrieve users (page={}, size={}, sortBy={}, role={}, isActive={})",
-                                auth.getName(), page, size, sortBy, role, isActive);
+                log.info("'{}' requested to retrieve users (page={}, size={}, sortBy={}, role={}, isActive={}, total={})",
+                                auth.getName(), page, size, sortBy, role, isActive, total);
 
-                Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-                Page<?> users = userService.getAllUsers(role, isActive, pageable);
+                // Only indexed orderings are accepted (400 otherwise)
+                UserSortField sortField = UserSortField.fromProperty(sortBy);
+
+                if (cursor != null) {
+                        KeysetPage<?> users = userService.getUsersAfter(role, isActive, sortField, cursor, size);
+                        PagedResponse<?> body = PagedResponse.fromKeyset(users, size);
+                        return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", body));
+                }
+
+                Pageable pageable = PageRequest.of(page, size, sortField.order());
+                PageResult<?> users = userService.getAllUsers(role, isActive, pageable, total);
 
                 ApiResponse<PagedResponse<?>> response = new ApiResponse<>(
                                 true,
@@ -158,4 +181,30 @@ public class UserController {
 
                 return ResponseEntity.ok(response);
         }
+
+        /**
+         * Set a user's work-in-progress limit (Admin only)
+         * PUT /api/users/{id}/wip-limit?limit=10 - omit limit to go back to the
+         * default (tasks.wip-limit.default)
+         */
+        @PutMapping("/{id}/wip-limit")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<ApiResponse<UserWorkloadDTO>> updateWipLimit(
+                        @PathVariable Long id,
+                        @RequestParam(required = false) Integer limit) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                log.info("Admin '{}' requested to set WIP limit of user {} to {}", auth.getName(), id,
+                                limit != null ? limit : "default");
+
+                UserWorkloadDTO workload = userService.updateWipLimit(id, limit);
+
+                ApiResponse<UserWorkloadDTO> response = new ApiResponse<>(
+                                true,
+                                "WIP limit updated successfully",
+                                workload,
+                                null,
+                                LocalDateTime.now());
+
+                return ResponseEntity.ok(response);
+        }
 }
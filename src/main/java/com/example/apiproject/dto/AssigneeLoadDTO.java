@@ -0,0 +1,19 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's share of a bulk assignment
+ * - assigned: tasks given to the user by this request
+ * - openTasks: the user's open (non-DONE) tasks afterwards
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssigneeLoadDTO {
+    private Long userId;
+    private int assigned;
+    private long openTasks;
+}
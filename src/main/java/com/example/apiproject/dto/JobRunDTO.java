@@ -0,0 +1,26 @@
+package com.example.apiproject.dto;
+
+import com.example.apiproject.entity.JobRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Admin DTO for a scheduled job execution
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRunDTO {
+    private Long id;
+    private String jobName;
+    private String nodeId;
+    private JobRunStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Long rowsAffected;
+    private String message;
+}
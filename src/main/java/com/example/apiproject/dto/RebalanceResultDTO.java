@@ -0,0 +1,35 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a workload rebalance
+ * - meanLoad, lowerBound, upperBound: the band every active USER is brought
+ *   into (mean open tasks per active USER, plus/minus the tolerance)
+ * - orphanedTasks: open tasks held by inactive or non-USER accounts, handed
+ *   off first
+ * - orphansLeft: of those, still held by such accounts after this run (no
+ *   capacity, tasks.rebalance.max-moves reached, or rows locked concurrently)
+ * - moved: tasks moved (dry run: that would be moved)
+ * - skipped: planned moves dropped because the task changed in the meantime
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RebalanceResultDTO {
+    private boolean dryRun;
+    private int activeUsers;
+    private long openTasks;
+    private long orphanedTasks;
+    private long orphansLeft;
+    private double meanLoad;
+    private int lowerBound;
+    private int upperBound;
+    private int moved;
+    private int skipped;
+    private List<TaskMoveDTO> moves;
+}
@@ -0,0 +1,18 @@
+package com.example.apiproject.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for revoking the sessions of several users at once (admin only)
+ */
+@Data
+public class SessionRevocationRequestDTO {
+
+    @NotEmpty(message = "At least one user id is required")
+    @Size(max = 1000, message = "At most 1000 users per request")
+    private List<Long> userIds;
+}
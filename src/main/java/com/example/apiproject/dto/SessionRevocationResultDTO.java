@@ -0,0 +1,19 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of an admin session revocation
+ * - revokedRefreshTokens: number of refresh tokens revoked by this call
+ * - accessTokensRevoked: whether already-issued access tokens were cut off
+ *   too (false for a single family - those expire on their own)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRevocationResultDTO {
+    private int revokedRefreshTokens;
+    private boolean accessTokensRevoked;
+}
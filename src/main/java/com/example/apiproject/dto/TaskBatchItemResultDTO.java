@@ -0,0 +1,29 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request
+ * - index: position of the item in the request
+ * - taskId: id of the task (null if the item was rejected)
+ * - error: why the item was rejected (null on success)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchItemResultDTO {
+    private int index;
+    private Long taskId;
+    private boolean success;
+    private String error;
+
+    public static TaskBatchItemResultDTO created(int index, Long taskId) {
+        return new TaskBatchItemResultDTO(index, taskId, true, null);
+    }
+
+    public static TaskBatchItemResultDTO rejected(int index, String error) {
+        return new TaskBatchItemResultDTO(index, null, false, error);
+    }
+}
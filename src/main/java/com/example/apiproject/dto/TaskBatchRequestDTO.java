@@ -0,0 +1,21 @@
+package com.example.apiproject.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for creating many tasks in one request (manager only).
+ * Every item is validated like a single POST /api/tasks body; any invalid
+ * item rejects the whole request before anything is written.
+ */
+@Data
+public class TaskBatchRequestDTO {
+
+    @NotEmpty(message = "At least one task is required")
+    @Size(max = 1000, message = "At most 1000 tasks per request")
+    private List<@Valid TaskRequestDTO> tasks;
+}
@@ -0,0 +1,20 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch task creation, one result per requested item in
+ * request order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchResultDTO {
+    private int created;
+    private int rejected;
+    private List<TaskBatchItemResultDTO> results;
+}
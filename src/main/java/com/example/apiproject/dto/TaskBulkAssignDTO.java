@@ -0,0 +1,30 @@
+package com.example.apiproject.dto;
+
+import com.example.apiproject.entity.AssignmentType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for assigning many tasks in one pass (manager only).
+ * Tasks are selected either by id (taskIds) or as "all unassigned tasks
+ * matching filter" - exactly one of the two must be given.
+ */
+@Data
+public class TaskBulkAssignDTO {
+
+    @NotNull(message = "Assignment type is required")
+    private AssignmentType assignmentType;
+
+    // Required for MANUAL, ignored otherwise
+    private Long userId;
+
+    @Size(max = 1000, message = "At most 1000 task ids per request")
+    private List<Long> taskIds;
+
+    @Valid
+    private TaskBulkFilterDTO filter;
+}
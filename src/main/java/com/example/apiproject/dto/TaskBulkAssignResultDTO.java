@@ -0,0 +1,23 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk assignment
+ * - distribution: per receiving user, how many tasks they got and their
+ *   resulting open-task load
+ * - rejectedIds: requested ids that do not exist, and selected tasks left
+ *   as they were because every candidate is at their WIP limit
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkAssignResultDTO {
+    private int assigned;
+    private List<AssigneeLoadDTO> distribution;
+    private List<Long> rejectedIds;
+}
@@ -0,0 +1,23 @@
+package com.example.apiproject.dto;
+
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import lombok.Data;
+
+/**
+ * Task selection for a bulk update - same criteria as the GET /api/tasks
+ * filters (see TaskSpecifications). At least one criterion is required so a
+ * bulk update can never touch every task by accident.
+ */
+@Data
+public class TaskBulkFilterDTO {
+
+    private TaskStatus status;
+    private TaskPriority priority;
+    private Long assignedToUserId;
+    private Long createdByUserId;
+
+    public boolean hasCriteria() {
+        return status != null || priority != null || assignedToUserId != null || createdByUserId != null;
+    }
+}
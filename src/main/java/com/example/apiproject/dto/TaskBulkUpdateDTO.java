@@ -0,0 +1,33 @@
+package com.example.apiproject.dto;
+
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for updating the status and/or priority of many tasks at once.
+ * Tasks are selected either by id (taskIds) or by filter - exactly one of
+ * the two must be given. A filter selection is worked through in chunks of
+ * tasks.bulk-update.max-tasks: repeat the request with afterId set to the
+ * previous response's nextAfterId while hasMore is true.
+ */
+@Data
+public class TaskBulkUpdateDTO {
+
+    @Size(max = 1000, message = "At most 1000 task ids per request")
+    private List<Long> taskIds;
+
+    @Valid
+    private TaskBulkFilterDTO filter;
+
+    // Filter mode only: continue after this task id
+    private Long afterId;
+
+    // Target values - at least one is required
+    private TaskStatus status;
+    private TaskPriority priority;
+}
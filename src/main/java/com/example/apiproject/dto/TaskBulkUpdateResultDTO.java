@@ -0,0 +1,26 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk task update
+ * - updatedIds: tasks that were changed
+ * - rejectedIds: requested ids that do not exist or that the caller may not
+ *   update (always empty when selecting by filter)
+ * - hasMore / nextAfterId: filter mode only - more tasks match beyond this
+ *   chunk; send nextAfterId as afterId to update the next one
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkUpdateResultDTO {
+    private int updated;
+    private List<Long> updatedIds;
+    private List<Long> rejectedIds;
+    private boolean hasMore;
+    private Long nextAfterId;
+}
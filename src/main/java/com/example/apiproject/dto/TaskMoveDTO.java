@@ -0,0 +1,17 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One task moved (or, in a dry run, to be moved) by the workload rebalancer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskMoveDTO {
+    private Long taskId;
+    private Long fromUserId;
+    private Long toUserId;
+}
@@ -14,6 +14,8 @@ public class TaskResponseDTO {
     private TaskStatus status;
     private TaskPriority priority;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
     private Long assignedUserId;
     private String assignedUserName;
     private Long createdByUserId;
@@ -0,0 +1,20 @@
+package com.example.apiproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user's work-in-progress counter
+ * - wipLimit: the user's own limit, null when the default applies
+ * - effectiveLimit: the limit actually enforced
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserWorkloadDTO {
+    private Long userId;
+    private int openTasks;
+    private Integer wipLimit;
+    private int effectiveLimit;
+}
@@ -21,5 +21,11 @@ public enum AssignmentType {
      * Least loaded assignment - userId not required
      * System assigns to user with fewest active tasks
      */
-    LEAST_LOADED
+    LEAST_LOADED,
+
+    /**
+     * Round-robin assignment - userId not required
+     * System assigns to active users in turn
+     */
+    ROUND_ROBIN
 }
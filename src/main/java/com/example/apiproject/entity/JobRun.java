@@ -0,0 +1,48 @@
+package com.example.apiproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a cluster-wide scheduled job (see ClusterJobRunner)
+ */
+@Entity
+@Table(name = "job_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jobName;
+
+    @Column(nullable = false)
+    private String nodeId; // node that held the lease
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobRunStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private Long durationMs;
+
+    @Column(nullable = false)
+    private Long rowsAffected;
+
+    @Column(columnDefinition = "TEXT")
+    private String message; // failure reason, null on success
+}
@@ -0,0 +1,6 @@
+package com.example.apiproject.entity;
+
+public enum JobRunStatus {
+    SUCCEEDED,
+    FAILED
+}
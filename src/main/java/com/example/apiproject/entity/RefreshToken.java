@@ -21,8 +21,8 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String tokenHash; // SHA-256 of the raw token — never store raw
+    @Column(nullable = false)
+    private String tokenHash; // SHA-256 of the raw token — never store raw (unique per partition, see V4)
 
     @Column(nullable = false)
     private String familyId; // UUID shared by a rotation chain
@@ -33,7 +33,7 @@ public class RefreshToken {
     private LocalDateTime issuedAt;
 
     @Column(nullable = false)
-    private LocalDateTime expiresAt;
+    private LocalDateTime expiresAt; // partition key of refresh_tokens
 
     private LocalDateTime revokedAt; // null = still valid
 
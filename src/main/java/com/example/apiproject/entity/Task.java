@@ -14,8 +14,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Task {
 
+    // SEQUENCE with pooled allocation (not IDENTITY) so Hibernate can batch
+    // inserts - see V7__Pool_Task_Ids.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,15 +41,23 @@ public class Task {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    // Optimistic locking: every UPDATE is "... WHERE id = ? AND version = ?"
+    // (see V8__Add_Optimistic_Lock_Versions.sql); also the task's ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // LAZY: read paths that need the users load them through an entity graph
+    // (see TaskRepository), everything else only touches their ids
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User assignedTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by")
     private User updatedBy;
 
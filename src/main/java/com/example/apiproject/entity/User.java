@@ -34,6 +34,10 @@ public class User {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Incremented on role/status changes; access tokens carrying an older value are rejected
+    @Column(nullable = false)
+    private Long securityVersion = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -43,5 +47,8 @@ public class User {
         if (isActive == null) {
             isActive = true;
         }
+        if (securityVersion == null) {
+            securityVersion = 0L;
+        }
     }
 }
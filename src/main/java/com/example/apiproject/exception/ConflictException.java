@@ -0,0 +1,17 @@
+package com.example.apiproject.exception;
+
+/**
+ * Exception thrown when a request conflicts with the current state of a
+ * resource (e.g. assigning to a user who has reached their WIP limit)
+ * Results in HTTP 409 Conflict response
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,10 +2,13 @@ package com.example.apiproject.exception;
 
 import com.example.apiproject.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -194,6 +197,92 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Handler for ServiceUnavailableException (custom)
+     * Thrown when a bounded resource (e.g. the password-hashing pool) is saturated,
+     * or a revocation could not be written to the shared store
+     * Returns HTTP 503 Service Unavailable with a Retry-After hint
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        log.warn("Shedding load: {}", ex.getMessage());
+
+        ApiResponse<?> response = new ApiResponse<>(
+                false,
+                ex.getMessage(),
+                null,
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /**
+     * Handler for ConflictException (custom)
+     * Returns HTTP 409 Conflict
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<?>> handleConflictException(ConflictException ex) {
+        log.warn("Conflict: {}", ex.getMessage());
+
+        ApiResponse<?> response = new ApiResponse<>(
+                false,
+                ex.getMessage(),
+                null,
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Handler for PreconditionFailedException (custom)
+     * Thrown when If-Match names a version that is no longer current
+     * Returns HTTP 412 Precondition Failed
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<?>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+
+        ApiResponse<?> response = new ApiResponse<>(
+                false,
+                ex.getMessage(),
+                null,
+                null,
+                LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
+    /**
+     * Handler for OptimisticLockingFailureException (Spring/JPA)
+     * The versioned UPDATE matched no row: another request changed the entity
+     * between our read and our write. Same outcome as a stale If-Match
+     * Returns HTTP 412 Precondition Failed
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<?>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+        return handlePreconditionFailedException(new PreconditionFailedException(
+                "The resource was modified by another request; reload it and retry", ex));
+    }
+
+    /**
+     * Handler for InternalAuthenticationServiceException (Spring Security)
+     * Spring wraps failures raised while looking up the user; unwrap load
+     * shedding so it still surfaces as 503
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<ApiResponse<?>> handleInternalAuthenticationServiceException(
+            InternalAuthenticationServiceException ex) {
+        if (ex.getCause() instanceof ServiceUnavailableException unavailable) {
+            return handleServiceUnavailableException(unavailable);
+        }
+        return handleGenericException(ex);
+    }
+
     /**
      * Handler for all other exceptions (catch-all)
      * Returns HTTP 500 Internal Server Error
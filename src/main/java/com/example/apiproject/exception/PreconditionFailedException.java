@@ -0,0 +1,17 @@
+package com.example.apiproject.exception;
+
+/**
+ * Exception thrown when a conditional write (If-Match) targets a version of a
+ * resource that is no longer current
+ * Results in HTTP 412 Precondition Failed response
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
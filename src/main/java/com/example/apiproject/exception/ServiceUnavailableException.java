@@ -0,0 +1,17 @@
+package com.example.apiproject.exception;
+
+/**
+ * Exception thrown when the server is temporarily saturated and sheds load,
+ * or a shared store it must write through to is unreachable
+ * Results in HTTP 503 Service Unavailable response with a Retry-After header
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.apiproject.mapper;
+
+import com.example.apiproject.dto.JobRunDTO;
+import com.example.apiproject.entity.JobRun;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapper component for converting JobRun entities to DTOs
+ */
+@Component
+public class JobRunMapper {
+
+    public JobRunDTO toDTO(JobRun run) {
+        return new JobRunDTO(
+                run.getId(),
+                run.getJobName(),
+                run.getNodeId(),
+                run.getStatus(),
+                run.getStartedAt(),
+                run.getFinishedAt(),
+                run.getDurationMs(),
+                run.getRowsAffected(),
+                run.getMessage());
+    }
+}
@@ -23,6 +23,8 @@ public class TaskMapper {
         response.setStatus(task.getStatus());
         response.setPriority(task.getPriority());
         response.setCreatedAt(task.getCreatedAt());
+        response.setUpdatedAt(task.getUpdatedAt());
+        response.setVersion(task.getVersion());
 
         // Map assigned user details if task is assigned
         if (task.getAssignedTo() != null) {
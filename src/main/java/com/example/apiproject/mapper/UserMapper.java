@@ -1,5 +1,6 @@
 package com.example.apiproject.mapper;
 
+import com.example.apiproject.cache.UserSnapshot;
 import com.example.apiproject.dto.UserAdminDTO;
 import com.example.apiproject.dto.UserProfileDTO;
 import com.example.apiproject.dto.UserSummaryDTO;
@@ -25,6 +26,17 @@ public class UserMapper {
                 user.getRole());
     }
 
+    /**
+     * Maps a cached user snapshot to UserProfileDTO (for /me endpoint)
+     */
+    public UserProfileDTO toProfileDTO(UserSnapshot user) {
+        return new UserProfileDTO(
+                user.id(),
+                user.name(),
+                user.email(),
+                user.role());
+    }
+
     /**
      * Maps User entity to UserAdminDTO (for admin views)
      * Includes all fields: id, name, email, role, isActive, createdAt
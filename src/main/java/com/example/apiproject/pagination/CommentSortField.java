@@ -0,0 +1,48 @@
+package com.example.apiproject.pagination;
+
+import com.example.apiproject.entity.Comment;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sortable comment columns
+ */
+public enum CommentSortField implements KeysetSortField<Comment> {
+    ID("id", Long::valueOf, Comment::getId),
+    CREATED_AT("createdAt", LocalDateTime::parse, Comment::getCreatedAt);
+
+    private final String property;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<Comment, Object> extractor;
+
+    CommentSortField(String property, Function<String, Comparable<?>> parser, Function<Comment, Object> extractor) {
+        this.property = property;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public static CommentSortField fromProperty(String sortBy) {
+        return SortFields.parse(CommentSortField.class, sortBy);
+    }
+
+    @Override
+    public String property() {
+        return property;
+    }
+
+    @Override
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    @Override
+    public Object extract(Comment row) {
+        return extractor.apply(row);
+    }
+
+    @Override
+    public Long idOf(Comment row) {
+        return row.getId();
+    }
+}
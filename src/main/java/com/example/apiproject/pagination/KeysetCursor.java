@@ -0,0 +1,65 @@
+package com.example.apiproject.pagination;
+
+import com.example.apiproject.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination: the sort value and id of the
+ * last row of the previous page. Serialized as opaque base64url text -
+ * clients must pass it back unchanged.
+ *
+ * @param sortBy Sort property the cursor was issued for
+ * @param id     Id of the last row returned
+ * @param value  Sort value of the last row returned
+ */
+public record KeysetCursor(String sortBy, Long id, String value) {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Cursor pointing just past the given row
+     */
+    public static <T> KeysetCursor after(KeysetSortField<T> field, T row) {
+        return new KeysetCursor(field.property(), field.idOf(row), String.valueOf(field.extract(row)));
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + sortBy + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client-supplied cursor
+     *
+     * @param token    Cursor from the previous response; null or blank means first page
+     * @param expected Sort field of the current request - must match the cursor
+     * @return the cursor, or null for the first page
+     * @throws BadRequestException if the cursor is malformed or was issued for another sort
+     */
+    public static KeysetCursor decode(String token, KeysetSortField<?> expected) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        KeysetCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // value goes last - it may itself contain the separator
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            cursor = new KeysetCursor(parts[1], Long.valueOf(parts[2]), parts[3]);
+            expected.parse(cursor.value());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!expected.property().equals(cursor.sortBy())) {
+            throw new BadRequestException("Cursor was issued for sortBy=" + cursor.sortBy()
+                    + " and cannot be used with sortBy=" + expected.property());
+        }
+        return cursor;
+    }
+}
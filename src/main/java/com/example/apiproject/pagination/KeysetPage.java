@@ -0,0 +1,29 @@
+package com.example.apiproject.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list
+ *
+ * @param content    Rows of this page
+ * @param nextCursor Cursor for the following page, null on the last page
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Build a page from a query that fetched up to {@code size + 1} rows -
+     * the extra row only signals that another page exists
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, KeysetSortField<T> field) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(content, KeysetCursor.after(field, content.get(size - 1)).encode());
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
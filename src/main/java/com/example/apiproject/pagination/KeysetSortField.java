@@ -0,0 +1,46 @@
+package com.example.apiproject.pagination;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * A column a list endpoint may be sorted by, in offset and keyset (cursor)
+ * mode alike. Only indexed, non-nullable columns qualify, and the entity id
+ * is always used as the tie-breaker, so the (sort value, id) pair is unique
+ * and totally ordered.
+ *
+ * @param <T> Entity type
+ */
+public interface KeysetSortField<T> {
+
+    /**
+     * Entity attribute name, also the value accepted in the sortBy parameter
+     */
+    String property();
+
+    /**
+     * Parse a sort value that was written into a cursor by {@link #extract}
+     */
+    Comparable<?> parse(String value);
+
+    /**
+     * Sort value of a row, written into the cursor for the next page
+     */
+    Object extract(T row);
+
+    /**
+     * Id of a row (tie-breaker)
+     */
+    Long idOf(T row);
+
+    default boolean isId() {
+        return "id".equals(property());
+    }
+
+    /**
+     * Sort value, then id as tie-breaker - the order the (column, id) indexes
+     * are built in (see V6__Add_Query_Shape_Indexes.sql)
+     */
+    default Sort order() {
+        return isId() ? Sort.by("id") : Sort.by(property()).and(Sort.by("id"));
+    }
+}
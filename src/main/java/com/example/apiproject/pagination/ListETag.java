@@ -0,0 +1,13 @@
+package com.example.apiproject.pagination;
+
+/**
+ * ETag of a list request, and the exact total it was computed from when it
+ * was built from a count (so the page can reuse that count instead of
+ * running - or caching - another one)
+ *
+ * @param value ETag value, unquoted
+ * @param count Exact number of rows in the filtered set; null when the tag
+ *              was built without counting
+ */
+public record ListETag(String value, Long count) {
+}
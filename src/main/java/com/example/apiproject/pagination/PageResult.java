@@ -0,0 +1,20 @@
+package com.example.apiproject.pagination;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.function.Function;
+
+/**
+ * One page of an offset-paginated list together with the total that was
+ * actually computed for it
+ *
+ * @param slice     Page content and has-next flag
+ * @param total     Total number of rows; null when totalKind is NONE
+ * @param totalKind How the total was obtained
+ */
+public record PageResult<T>(Slice<T> slice, Long total, TotalMode totalKind) {
+
+    public <R> PageResult<R> map(Function<? super T, ? extends R> mapper) {
+        return new PageResult<>(slice.map(mapper), total, totalKind);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.apiproject.pagination;
+
+import com.example.apiproject.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Lookup of sort fields by the property name used in the sortBy parameter
+ */
+public final class SortFields {
+
+    private SortFields() {
+    }
+
+    public static <E extends Enum<E> & KeysetSortField<?>> E parse(Class<E> type, String sortBy) {
+        return Arrays.stream(type.getEnumConstants())
+                .filter(field -> field.property().equals(sortBy))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported sortBy '" + sortBy + "'. Allowed: "
+                        + Arrays.stream(type.getEnumConstants())
+                                .map(KeysetSortField::property)
+                                .collect(Collectors.joining(", "))));
+    }
+}
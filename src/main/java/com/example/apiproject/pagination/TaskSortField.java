@@ -0,0 +1,54 @@
+package com.example.apiproject.pagination;
+
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sortable task columns
+ */
+public enum TaskSortField implements KeysetSortField<Task> {
+    ID("id", Long::valueOf, Task::getId),
+    TITLE("title", value -> value, Task::getTitle),
+    STATUS("status", TaskStatus::valueOf, Task::getStatus),
+    PRIORITY("priority", TaskPriority::valueOf, Task::getPriority),
+    CREATED_AT("createdAt", LocalDateTime::parse, Task::getCreatedAt),
+    UPDATED_AT("updatedAt", LocalDateTime::parse, Task::getUpdatedAt);
+
+    private final String property;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<Task, Object> extractor;
+
+    TaskSortField(String property, Function<String, Comparable<?>> parser, Function<Task, Object> extractor) {
+        this.property = property;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public static TaskSortField fromProperty(String sortBy) {
+        return SortFields.parse(TaskSortField.class, sortBy);
+    }
+
+    @Override
+    public String property() {
+        return property;
+    }
+
+    @Override
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    @Override
+    public Object extract(Task row) {
+        return extractor.apply(row);
+    }
+
+    @Override
+    public Long idOf(Task row) {
+        return row.getId();
+    }
+}
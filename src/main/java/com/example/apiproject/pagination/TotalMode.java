@@ -0,0 +1,24 @@
+package com.example.apiproject.pagination;
+
+/**
+ * How a list endpoint computes the total of a paged response.
+ * Requested with the "total" parameter, echoed back as totalKind.
+ */
+public enum TotalMode {
+
+    /**
+     * COUNT(*) with the same filters (briefly cached per filter combination)
+     */
+    EXACT,
+
+    /**
+     * PostgreSQL planner statistics; falls back to an exact count when the
+     * estimate is small or the table has not been analyzed yet
+     */
+    ESTIMATED,
+
+    /**
+     * No total at all - only whether a next page exists
+     */
+    NONE
+}
@@ -0,0 +1,52 @@
+package com.example.apiproject.pagination;
+
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sortable user columns
+ */
+public enum UserSortField implements KeysetSortField<User> {
+    ID("id", Long::valueOf, User::getId),
+    NAME("name", value -> value, User::getName),
+    EMAIL("email", value -> value, User::getEmail),
+    ROLE("role", Role::valueOf, User::getRole),
+    CREATED_AT("createdAt", LocalDateTime::parse, User::getCreatedAt);
+
+    private final String property;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<User, Object> extractor;
+
+    UserSortField(String property, Function<String, Comparable<?>> parser, Function<User, Object> extractor) {
+        this.property = property;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public static UserSortField fromProperty(String sortBy) {
+        return SortFields.parse(UserSortField.class, sortBy);
+    }
+
+    @Override
+    public String property() {
+        return property;
+    }
+
+    @Override
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    @Override
+    public Object extract(User row) {
+        return extractor.apply(row);
+    }
+
+    @Override
+    public Long idOf(User row) {
+        return row.getId();
+    }
+}
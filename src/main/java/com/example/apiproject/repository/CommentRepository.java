@@ -3,6 +3,7 @@ package com.example.apiproject.repository;
 import com.example.apiproject.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +11,9 @@ import org.springframework.stereotype.Repository;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     /**
-     * Find all comments for a specific task (paged)
+     * Find all comments for a specific task (paged), with their authors
+     * fetched in the page query
      */
+    @EntityGraph(attributePaths = "commentedBy")
     Page<Comment> findByTaskId(Long taskId, Pageable pageable);
 }
@@ -0,0 +1,44 @@
+package com.example.apiproject.repository;
+
+import com.example.apiproject.entity.JobRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    /**
+     * Most recent runs of all jobs
+     */
+    Page<JobRun> findAllByOrderByStartedAtDesc(Pageable pageable);
+
+    /**
+     * Most recent runs of a single job
+     */
+    Page<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Pageable pageable);
+
+    /**
+     * Delete up to {@code limit} runs started before {@code cutoff}, oldest
+     * first (walks idx_job_runs_started_at)
+     *
+     * @return number of rows deleted (less than limit when nothing is left)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM job_runs
+             WHERE id IN (SELECT id FROM job_runs
+                           WHERE started_at < :cutoff
+                           ORDER BY started_at
+                           LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteStartedBeforeChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,70 @@
+package com.example.apiproject.repository;
+
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.KeysetSortField;
+import com.specification.KeysetSpecifications;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Runs keyset (seek) queries: WHERE filters AND (value, id) > cursor
+ * ORDER BY value, id LIMIT size + 1.
+ *
+ * Unlike Page queries there is no OFFSET (cost does not grow with depth)
+ * and no COUNT statement - the extra row only tells whether a next page exists.
+ */
+@Repository
+public class KeysetQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Fetch the page after the cursor
+     *
+     * @param type           Entity class
+     * @param filters        Filter specification (may be null)
+     * @param field          Sort field
+     * @param cursor         Cursor from the previous page, null for the first page
+     * @param size           Page size
+     * @param attributePaths To-one associations to fetch in the same query
+     */
+    public <T> KeysetPage<T> findPage(Class<T> type, Specification<T> filters, KeysetSortField<T> field,
+            KeysetCursor cursor, int size, String... attributePaths) {
+        Specification<T> spec = Specification.where(filters)
+                .and(KeysetSpecifications.seekAfter(field, cursor));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root)
+                .orderBy(QueryUtils.toOrders(field.order(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query).setMaxResults(size + 1);
+        if (attributePaths.length > 0) {
+            EntityGraph<T> graph = entityManager.createEntityGraph(type);
+            graph.addAttributeNodes(attributePaths);
+            typedQuery.setHint("jakarta.persistence.loadgraph", graph);
+        }
+
+        List<T> rows = typedQuery.getResultList();
+        return KeysetPage.of(rows, size, field);
+    }
+}
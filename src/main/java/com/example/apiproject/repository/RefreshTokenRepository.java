@@ -1,7 +1,6 @@
 package com.example.apiproject.repository;
 
 import com.example.apiproject.entity.RefreshToken;
-import com.example.apiproject.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -18,12 +17,99 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Stri
 
     Optional<RefreshToken> findByTokenHash(String hash);
 
-    List<RefreshToken> findByFamilyId(String familyId);
+    // -- Set-based revocation ---------------------------------------------------
+    // Each is a single UPDATE returning the number of tokens revoked. Already
+    // expired tokens are skipped (nothing to revoke, and the expires_at
+    // predicate lets PostgreSQL prune expired partitions).
 
-    List<RefreshToken> findByUserAndRevokedAtIsNull(User user);
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now "
+         + "WHERE r.tokenHash = :hash AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int revokeByTokenHash(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now "
+         + "WHERE r.familyId = :familyId AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int revokeByFamilyId(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now "
+         + "WHERE r.user.id = :userId AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int revokeByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now "
+         + "WHERE r.user.id IN :userIds AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int revokeByUserIds(@Param("userIds") Collection<Long> userIds, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now "
+         + "WHERE r.issuedAt < :before AND r.revokedAt IS NULL AND r.expiresAt > :now")
+    int revokeIssuedBefore(@Param("before") LocalDateTime before, @Param("now") LocalDateTime now);
+
+    /**
+     * Rotate a refresh token in a single statement: claim the old token (only
+     * while it is still current) and insert its successor into the same family.
+     * The row lock taken by the UPDATE serialises concurrent rotations - the
+     * loser re-evaluates the predicate after the winner commits and matches nothing.
+     *
+     * @return owner of the token, or empty if the old token is unknown, expired,
+     *         revoked or already rotated
+     */
+    @Transactional
+    @Query(value = """
+            WITH claimed AS (
+                UPDATE refresh_tokens
+                   SET replaced_by = :newId
+                 WHERE token_hash = :oldHash
+                   AND replaced_by IS NULL
+                   AND revoked_at IS NULL
+                   AND expires_at > :now
+             RETURNING user_id, family_id
+            )
+            INSERT INTO refresh_tokens (id, user_id, token_hash, family_id, issued_at, expires_at)
+            SELECT :newId, user_id, :newHash, family_id, :now, :expiresAt FROM claimed
+            RETURNING user_id
+            """, nativeQuery = true)
+    Optional<Long> rotate(@Param("oldHash") String oldHash,
+                          @Param("newId") String newId,
+                          @Param("newHash") String newHash,
+                          @Param("now") LocalDateTime now,
+                          @Param("expiresAt") LocalDateTime expiresAt);
 
+    /**
+     * Delete up to {@code limit} tokens belonging to dead families: families
+     * with no usable token left (all revoked, replaced or expired) and no
+     * activity since {@code cutoff}. Live families are never touched, so
+     * replaced tokens stay available for reuse detection.
+     *
+     * @return number of rows deleted (less than limit when nothing is left)
+     */
     @Modifying
     @Transactional
-    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
+    @Query(value = """
+            WITH doomed AS (
+                SELECT t.id, t.expires_at
+                  FROM refresh_tokens t
+                 WHERE t.issued_at < :cutoff
+                   AND (t.revoked_at IS NOT NULL OR t.replaced_by IS NOT NULL)
+                   AND NOT EXISTS (
+                       SELECT 1 FROM refresh_tokens f
+                        WHERE f.family_id = t.family_id
+                          AND ((f.revoked_at IS NULL AND f.replaced_by IS NULL AND f.expires_at > :now)
+                               OR COALESCE(f.revoked_at, f.issued_at) >= :cutoff))
+                 LIMIT :limit
+            )
+            DELETE FROM refresh_tokens r
+             USING doomed d
+             WHERE r.id = d.id AND r.expires_at = d.expires_at
+            """, nativeQuery = true)
+    int deleteDeadFamiliesChunk(@Param("cutoff") LocalDateTime cutoff,
+                                @Param("now") LocalDateTime now,
+                                @Param("limit") int limit);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.apiproject.repository;
+
+/**
+ * Cheap summary of a filtered set of versioned rows: its size and the sums of
+ * their ids and versions. An insert or delete changes the count, an update
+ * the version sum, and a row leaving the set as another enters it the id sum.
+ * Two equal fingerprints mean the set is very likely unchanged, which is all
+ * a conditional GET needs.
+ *
+ * @param count      Number of rows in the set
+ * @param idSum      Sum of the ids, null for an empty set
+ * @param versionSum Sum of the @Version values, null for an empty set
+ */
+public record SetFingerprint(long count, Long idSum, Long versionSum) {
+}
@@ -0,0 +1,106 @@
+package com.example.apiproject.repository;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Offset queries split into their two halves, so the page and the count can
+ * be run independently: {@link #findSlice} reads size + 1 rows and never
+ * counts, {@link #count} is only called when a total is actually wanted.
+ * {@link #fingerprint} summarizes the filtered set for conditional GETs.
+ */
+@Repository
+public class SliceQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Fetch one page without a count query
+     *
+     * @param type           Entity class
+     * @param spec           Filter specification (may be null)
+     * @param pageable       Page, size and sort
+     * @param attributePaths To-one associations to fetch in the same query
+     */
+    public <T> Slice<T> findSlice(Class<T> type, Specification<T> spec, Pageable pageable,
+            String... attributePaths) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1);
+        if (attributePaths.length > 0) {
+            EntityGraph<T> graph = entityManager.createEntityGraph(type);
+            graph.addAttributeNodes(attributePaths);
+            typedQuery.setHint("jakarta.persistence.loadgraph", graph);
+        }
+
+        List<T> rows = typedQuery.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * SELECT count(*) with the given filters
+     */
+    public <T> long count(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * SELECT count(*), sum(id), sum(version) with the given filters - one
+     * aggregate row instead of a page of entities, no joins and nothing to map.
+     * Every committed write bumps the version of the rows it changes, so the
+     * sums move with commits whatever timestamps the writers used
+     *
+     * @param type Entity with an id and a @Version named version
+     */
+    public <T> SetFingerprint fingerprint(Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(cb.count(root), cb.sumAsLong(root.get("id")), cb.sumAsLong(root.get("version")));
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        return new SetFingerprint(row.get(0, Long.class), row.get(1, Long.class), row.get(2, Long.class));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.apiproject.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Row-count estimates from PostgreSQL planner statistics (pg_class, pg_stats),
+ * as maintained by ANALYZE / autovacuum. Reading them costs two catalog lookups
+ * per filter, independent of table size.
+ */
+@Repository
+public class TableStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TableStatistics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estimate the rows of a table matching "column = value" for every entry,
+     * the way the planner does: selectivities from the most-common-values
+     * list (or a uniform share of the remaining distinct values) multiplied
+     * as if the columns were independent.
+     *
+     * @param table   Table name
+     * @param filters Column name to value; empty for the whole table
+     * @return the estimate, or empty if the table or a column has no statistics yet
+     */
+    public OptionalLong estimateRows(String table, Map<String, Object> filters) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+        // -1 = never vacuumed/analyzed
+        if (rows == null || rows < 0) {
+            return OptionalLong.empty();
+        }
+
+        double selectivity = 1.0;
+        for (Map.Entry<String, Object> filter : filters.entrySet()) {
+            Double columnSelectivity = selectivity(table, filter.getKey(), filter.getValue(), rows);
+            if (columnSelectivity == null) {
+                return OptionalLong.empty();
+            }
+            selectivity *= columnSelectivity;
+        }
+        return OptionalLong.of(Math.round(rows * selectivity));
+    }
+
+    private Double selectivity(String table, String column, Object value, long rows) {
+        List<Double> result = jdbcTemplate.query("""
+                SELECT s.null_frac, s.n_distinct, f.freq,
+                       coalesce(array_length(s.most_common_freqs, 1), 0) AS mcv_count,
+                       coalesce((SELECT sum(x) FROM unnest(s.most_common_freqs) x), 0) AS mcv_total
+                FROM pg_stats s
+                LEFT JOIN LATERAL (
+                    SELECT v.freq
+                    FROM unnest(s.most_common_vals::text::text[], s.most_common_freqs) AS v(val, freq)
+                    WHERE v.val = ?
+                ) f ON true
+                WHERE s.schemaname = current_schema() AND s.tablename = ? AND s.attname = ?
+                """,
+                (rs, rowNum) -> {
+                    double freq = rs.getDouble("freq");
+                    if (!rs.wasNull()) {
+                        return freq;
+                    }
+                    // Not a common value: share what the common values leave
+                    // evenly among the remaining distinct values
+                    double nDistinct = rs.getDouble("n_distinct");
+                    double distinct = nDistinct >= 0 ? nDistinct : -nDistinct * rows;
+                    double others = distinct - rs.getInt("mcv_count");
+                    double remaining = 1.0 - rs.getDouble("null_frac") - rs.getDouble("mcv_total");
+                    return others > 0 ? Math.max(remaining, 0) / others : 0.0;
+                },
+                textOf(value), table, column);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Text form of a value as it appears in the anyarray-to-text cast
+     */
+    private static String textOf(Object value) {
+        if (value instanceof Boolean b) {
+            return b ? "t" : "f";
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        return String.valueOf(value);
+    }
+}
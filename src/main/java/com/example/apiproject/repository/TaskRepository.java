@@ -1,21 +1,99 @@
 package com.example.apiproject.repository;
 
 import com.example.apiproject.entity.Task;
-import com.example.apiproject.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
 
     // --- Unpaged methods (used by strategy pattern, etc.) ---
 
-    // Used by LeastLoadedAssignmentStrategy to count active tasks per user
-    List<Task> findByAssignedTo(User user);
+    /**
+     * Open (non-DONE) task count of every user with at least one, in a single
+     * aggregate over the partial index idx_tasks_open_user_id
+     * (seeds UserLoadIndex, used by bulk assignment)
+     */
+    @Query(value = """
+            SELECT user_id AS userId, count(*) AS openTasks
+            FROM tasks
+            WHERE status <> 'DONE' AND user_id IS NOT NULL
+            GROUP BY user_id
+            """, nativeQuery = true)
+    List<UserTaskCount> countOpenTasksByAssignee();
 
-    // Filtered/paged queries are now handled by JpaSpecificationExecutor.findAll(spec, pageable)
-    // via TaskSpecifications — see TaskServiceImpl.getAllTasks()
+    /**
+     * Oldest claimable (OPEN, unassigned) task of one priority, row-locked for
+     * the caller's transaction. Rows held by concurrent claimers are skipped
+     * instead of waited for, so claimers never queue behind each other
+     * (walks the partial index idx_tasks_claimable)
+     */
+    @Query(value = """
+            SELECT id FROM tasks
+            WHERE status = 'OPEN' AND user_id IS NULL AND priority = :priority
+            ORDER BY created_at, id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<Long> lockNextClaimable(@Param("priority") String priority);
+
+    /**
+     * Number of committed transactions that have written tasks, from the 16
+     * counter rows kept by the tasks_count_change trigger (V11). Grows with
+     * every commit, in commit order
+     */
+    @Query(value = "SELECT COALESCE(sum(changes), 0) FROM task_change_counters", nativeQuery = true)
+    long countCommittedChanges();
+
+    // --- Read paths that render TaskResponseDTO (needs all three users) ---
+
+    /**
+     * Single task with assignee, creator and updater fetched in the same query
+     */
+    @EntityGraph(attributePaths = {"assignedTo", "createdBy", "updatedBy"})
+    Optional<Task> findWithUsersById(Long id);
+
+    /**
+     * Several tasks with their users, in one query (batched assignment)
+     */
+    @EntityGraph(attributePaths = {"assignedTo", "createdBy", "updatedBy"})
+    List<Task> findWithUsersByIdIn(Collection<Long> ids);
+
+    // --- Write paths: the task row is locked before any WIP counter ---
+    // (single-task writes start with their conditional UPDATE, bulk paths and
+    // the rebalancer lock with SELECT ... FOR UPDATE first, so task rows always
+    // come before user_workload rows). Task rows only: locking through the
+    // user joins would lock the users' rows as well
+
+    /**
+     * Conditional UPDATE of one task row that changes nothing: it takes the
+     * row lock only if the task is still at the version the caller read. A
+     * concurrent writer that commits first makes it match no row (412)
+     * instead of queueing behind it and then overwriting its change
+     *
+     * @return 1, or 0 if the task has changed since it was read
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET version = version WHERE id = :id AND version = :version", nativeQuery = true)
+    int claimIfUnchanged(@Param("id") Long id, @Param("version") Long version);
+
+    /**
+     * Lock several task rows, in id order (batched assignment)
+     *
+     * @return The ids that exist
+     */
+    @Query(value = "SELECT id FROM tasks WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Filtered/paged task lists go through PagingService / KeysetQueryExecutor
+    // (see TaskServiceImpl.getAllTasks()), which join the users in the same way
 }
@@ -4,7 +4,11 @@ import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,10 +22,47 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Optional<User> findByEmail(String email);
 
     /**
-     * Find all active users by role (used by strategy pattern)
+     * Cheap existence check used before registering a new account
      */
-    List<User> findAllByRoleAndIsActiveTrue(Role role);
+    boolean existsByEmail(String email);
 
-    // Filtered/paged queries are now handled by JpaSpecificationExecutor.findAll(spec, pageable)
-    // via UserSpecifications — see UserServiceImpl.getAllUsers()
+    /**
+     * Ids of all active users with the given role (used by UserLoadIndex and
+     * ActiveUserRoster - assignment never needs the full rows)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.isActive = true")
+    List<Long> findActiveIdsByRole(@Param("role") Role role);
+
+    /**
+     * Overwrite a user's password hash without loading the entity
+     *
+     * @return number of rows updated (0 if the user does not exist)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Change a user's role and bump the security version in one statement, so
+     * concurrent changes each add one and none overwrites the other's field
+     *
+     * @return number of rows updated (0 if the user does not exist)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.role = :role, u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int updateRole(@Param("id") Long id, @Param("role") Role role);
+
+    /**
+     * Activate or deactivate a user and bump the security version in one
+     * statement (see updateRole)
+     *
+     * @return number of rows updated (0 if the user does not exist)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.isActive = :active, u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int updateActive(@Param("id") Long id, @Param("active") boolean active);
+
+    // Filtered/paged queries are built from UserSpecifications and run through
+    // PagingService / KeysetQueryExecutor — see UserServiceImpl.getAllUsers()
 }
@@ -0,0 +1,11 @@
+package com.example.apiproject.repository;
+
+/**
+ * Number of open (non-DONE) tasks assigned to one user
+ */
+public interface UserTaskCount {
+
+    Long getUserId();
+
+    long getOpenTasks();
+}
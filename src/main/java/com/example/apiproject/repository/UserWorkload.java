@@ -0,0 +1,11 @@
+package com.example.apiproject.repository;
+
+/**
+ * A row of user_workload
+ *
+ * @param userId    User id
+ * @param openTasks Open (non-DONE) tasks currently assigned to the user
+ * @param wipLimit  Per-user WIP limit, null when the default applies
+ */
+public record UserWorkload(Long userId, int openTasks, Integer wipLimit) {
+}
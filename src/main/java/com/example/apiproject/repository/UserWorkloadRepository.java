@@ -0,0 +1,121 @@
+package com.example.apiproject.repository;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-user open-task counters (user_workload, see V9__Create_User_Workload.sql).
+ *
+ * Plain SQL rather than an entity: every change is a single conditional
+ * UPDATE that reads and writes the counter atomically under the row lock,
+ * never a read-modify-write through the persistence context.
+ */
+@Repository
+public class UserWorkloadRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserWorkloadRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add count open tasks to a user if the result stays within their limit
+     * and the user is active. Concurrent callers queue on the row and each
+     * re-checks the condition against the committed value, so the limit
+     * cannot be overshot. The user row is share-locked for the check: a
+     * deactivation either commits first and refuses the slot, or waits for
+     * this transaction - whatever roster snapshot picked the user.
+     *
+     * @param defaultLimit Limit for users without a per-user override
+     * @return true if the slots were taken
+     */
+    public boolean tryIncrement(Long userId, int count, int defaultLimit) {
+        if (increment(userId, count, defaultLimit)) {
+            return true;
+        }
+        // No row yet (user never had open tasks), at the limit or inactive:
+        // make sure the row exists and try once more
+        jdbcTemplate.update("INSERT INTO user_workload (user_id) VALUES (:userId) ON CONFLICT DO NOTHING",
+                new MapSqlParameterSource("userId", userId));
+        return increment(userId, count, defaultLimit);
+    }
+
+    /**
+     * Move one open task from one user to the other if the receiver stays
+     * within their limit. For callers that must touch the giver's row first
+     * (lower user id): should the receiver be at the limit, both changes are
+     * rolled back to a savepoint, which also drops the lock on the giver's
+     * row - a refused move holds no lock.
+     *
+     * @return true if the slot was moved
+     */
+    public boolean tryTransfer(Long fromUserId, Long toUserId, int defaultLimit) {
+        JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+        jdbc.execute("SAVEPOINT workload_transfer");
+        decrement(fromUserId, 1);
+        boolean moved = tryIncrement(toUserId, 1, defaultLimit);
+        if (!moved) {
+            jdbc.execute("ROLLBACK TO SAVEPOINT workload_transfer");
+        }
+        jdbc.execute("RELEASE SAVEPOINT workload_transfer");
+        return moved;
+    }
+
+    /**
+     * Remove count open tasks from a user (never below zero)
+     */
+    public void decrement(Long userId, int count) {
+        jdbcTemplate.update("""
+                UPDATE user_workload SET open_tasks = GREATEST(open_tasks - :count, 0)
+                WHERE user_id = :userId
+                """,
+                new MapSqlParameterSource("userId", userId).addValue("count", count));
+    }
+
+    /**
+     * Set (or with null, clear) a user's own WIP limit
+     */
+    public void setLimit(Long userId, Integer wipLimit) {
+        jdbcTemplate.update("""
+                INSERT INTO user_workload (user_id, wip_limit) VALUES (:userId, :wipLimit)
+                ON CONFLICT (user_id) DO UPDATE SET wip_limit = EXCLUDED.wip_limit
+                """,
+                new MapSqlParameterSource("userId", userId).addValue("wipLimit", wipLimit));
+    }
+
+    public Optional<UserWorkload> findById(Long userId) {
+        return findAllById(List.of(userId)).stream().findFirst();
+    }
+
+    /**
+     * Counters of the given users; users without a row are omitted
+     */
+    public List<UserWorkload> findAllById(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT user_id, open_tasks, wip_limit FROM user_workload WHERE user_id IN (:userIds)",
+                new MapSqlParameterSource("userIds", userIds),
+                (rs, rowNum) -> new UserWorkload(rs.getLong("user_id"), rs.getInt("open_tasks"),
+                        (Integer) rs.getObject("wip_limit")));
+    }
+
+    private boolean increment(Long userId, int count, int defaultLimit) {
+        return jdbcTemplate.update("""
+                UPDATE user_workload SET open_tasks = open_tasks + :count
+                WHERE user_id = :userId AND open_tasks + :count <= COALESCE(wip_limit, :defaultLimit)
+                  AND EXISTS (SELECT 1 FROM users WHERE id = :userId AND is_active FOR SHARE)
+                """,
+                new MapSqlParameterSource("userId", userId)
+                        .addValue("count", count)
+                        .addValue("defaultLimit", defaultLimit)) == 1;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.apiproject.response;
 
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TotalMode;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -11,19 +16,29 @@ import java.util.List;
  * Generic paged response wrapper for list endpoints.
  * Converts Spring's Page<T> into a clean, frontend-friendly envelope.
  *
+ * totalKind tells how totalElements was obtained (EXACT, ESTIMATED or NONE).
+ * With NONE, totalElements and totalPages are omitted and only last tells
+ * whether another page exists.
+ *
+ * In keyset (cursor) mode there is no page number or total: pageNumber,
+ * totalElements and totalPages are omitted and nextCursor is set instead.
+ *
  * @param <T> The type of content in the page
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponse<T> {
 
     private List<T> content;
-    private int pageNumber;
+    private Integer pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
+    private TotalMode totalKind;
     private boolean last;
+    private String nextCursor;
 
     /**
      * Factory method to create PagedResponse from Spring's Page object
@@ -38,6 +53,48 @@ public class PagedResponse<T> {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
-                page.isLast());
+                TotalMode.EXACT,
+                page.isLast(),
+                null);
+    }
+
+    /**
+     * Factory method to create PagedResponse from a page whose total may be
+     * estimated or absent
+     *
+     * @param result The page and its total
+     * @return PagedResponse with the total and its kind
+     */
+    public static <T> PagedResponse<T> from(PageResult<T> result) {
+        Slice<T> slice = result.slice();
+        Long total = result.total();
+        return new PagedResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                total,
+                total == null ? null : (int) ((total + slice.getSize() - 1) / slice.getSize()),
+                result.totalKind(),
+                !slice.hasNext(),
+                null);
+    }
+
+    /**
+     * Factory method to create PagedResponse from a keyset page
+     *
+     * @param page     The keyset page
+     * @param pageSize Requested page size
+     * @return PagedResponse carrying the cursor for the next page
+     */
+    public static <T> PagedResponse<T> fromKeyset(KeysetPage<T> page, int pageSize) {
+        return new PagedResponse<>(
+                page.content(),
+                null,
+                pageSize,
+                null,
+                null,
+                TotalMode.NONE,
+                page.nextCursor() == null,
+                page.nextCursor());
     }
 }
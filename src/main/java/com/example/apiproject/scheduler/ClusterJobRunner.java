@@ -0,0 +1,141 @@
+package com.example.apiproject.scheduler;
+
+import com.example.apiproject.entity.JobRun;
+import com.example.apiproject.entity.JobRunStatus;
+import com.example.apiproject.repository.JobRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Runs scheduled jobs on at most one node of the cluster at a time.
+ *
+ * Every node fires the same @Scheduled triggers; before running, a node must
+ * take the job's row in job_leases. The lease is taken with a single
+ * INSERT ... ON CONFLICT DO UPDATE guarded by the current lease having
+ * expired, so exactly one node wins and a crashed owner loses the lease once
+ * it times out. Lease times use the database clock, not the nodes' clocks.
+ * Every run that was started is recorded in job_runs.
+ */
+@Slf4j
+@Component
+public class ClusterJobRunner {
+
+    /**
+     * Work performed under a lease
+     */
+    @FunctionalInterface
+    public interface ClusterJob {
+        /**
+         * @param deadline point by which the job should stop (leaves headroom
+         *                 before the lease expires); chunked jobs check it
+         *                 between chunks
+         * @return number of rows (or other units) processed
+         */
+        long run(Instant deadline) throws Exception;
+    }
+
+    // Lease kept briefly after a run so that a node whose trigger fires a
+    // little late (clock skew) does not run the same job again
+    private static final Duration COOLDOWN = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRunRepository jobRunRepository;
+    private final String nodeId;
+
+    public ClusterJobRunner(JdbcTemplate jdbcTemplate, JobRunRepository jobRunRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRunRepository = jobRunRepository;
+        this.nodeId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Run the job if no other node currently holds its lease
+     *
+     * @param jobName unique job name (lease key)
+     * @param lease   upper bound for one run; the lease expires after it even
+     *                if this node dies
+     * @return true if this node ran the job
+     */
+    public boolean runExclusively(String jobName, Duration lease, ClusterJob job) {
+        if (!tryAcquire(jobName, lease)) {
+            log.debug("Job '{}' is running on another node, skipping", jobName);
+            return false;
+        }
+
+        JobRun run = new JobRun();
+        run.setJobName(jobName);
+        run.setNodeId(nodeId);
+        run.setStartedAt(LocalDateTime.now());
+        run.setRowsAffected(0L);
+        long start = System.nanoTime();
+
+        try {
+            Instant deadline = Instant.now().plus(lease.minus(lease.dividedBy(5)));
+            run.setRowsAffected(job.run(deadline));
+            run.setStatus(JobRunStatus.SUCCEEDED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.setStatus(JobRunStatus.FAILED);
+            run.setMessage("Interrupted");
+        } catch (Exception e) {
+            log.error("Job '{}' failed: {}", jobName, e.getMessage(), e);
+            run.setStatus(JobRunStatus.FAILED);
+            run.setMessage(e.getMessage());
+        } finally {
+            run.setDurationMs(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            run.setFinishedAt(LocalDateTime.now());
+            record(run);
+            release(jobName);
+        }
+
+        log.info("Job '{}' {} in {} ms ({} rows)", jobName, run.getStatus(), run.getDurationMs(), run.getRowsAffected());
+        return true;
+    }
+
+    private boolean tryAcquire(String jobName, Duration lease) {
+        int updated = jdbcTemplate.update("""
+                INSERT INTO job_leases (job_name, owner, locked_until)
+                VALUES (?, ?, now() + ? * interval '1 second')
+                ON CONFLICT (job_name) DO UPDATE
+                   SET owner = EXCLUDED.owner, locked_until = EXCLUDED.locked_until
+                 WHERE job_leases.locked_until < now()
+                """, jobName, nodeId, lease.toSeconds());
+        return updated == 1;
+    }
+
+    private void release(String jobName) {
+        try {
+            jdbcTemplate.update("""
+                    UPDATE job_leases SET locked_until = now() + ? * interval '1 second'
+                     WHERE job_name = ? AND owner = ?
+                    """, COOLDOWN.toSeconds(), jobName, nodeId);
+        } catch (RuntimeException e) {
+            // The lease simply runs out on its own
+            log.warn("Could not release lease for job '{}': {}", jobName, e.getMessage());
+        }
+    }
+
+    private void record(JobRun run) {
+        try {
+            jobRunRepository.save(run);
+        } catch (RuntimeException e) {
+            log.warn("Could not record run of job '{}': {}", run.getJobName(), e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -1,22 +1,137 @@
 package com.example.apiproject.scheduler;
 
+import com.example.apiproject.repository.JobRunRepository;
 import com.example.apiproject.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
 
+/**
+ * Refresh token and job history housekeeping. Each job runs on one node at a
+ * time through {@link ClusterJobRunner}.
+ *
+ * - partition maintenance for refresh_tokens (see V4 migration): daily
+ *   partitions are pre-created ahead of the longest token lifetime and
+ *   expired tokens are purged by dropping whole partitions
+ * - dead token families (no usable token left) are deleted in small chunks
+ *   once they have been quiet for the retention window, instead of lingering
+ *   until their partition is dropped
+ * - job_runs rows older than the run-history retention are deleted the same
+ *   way, so the history of these (and every other) job stays bounded
+ */
+@Slf4j
 @Component
 public class TokenCleanupScheduler {
 
-    private final RefreshTokenRepository repo;
+    static final String ENSURE_PARTITIONS_JOB = "refresh-tokens.ensure-partitions";
+    static final String DROP_PARTITIONS_JOB = "refresh-tokens.drop-expired-partitions";
+    static final String PURGE_DEAD_FAMILIES_JOB = "refresh-tokens.purge-dead-families";
+    static final String PURGE_JOB_RUNS_JOB = "job-runs.purge-old-runs";
 
-    public TokenCleanupScheduler(RefreshTokenRepository repo) {
-        this.repo = repo;
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JobRunRepository jobRunRepository;
+    private final ClusterJobRunner jobRunner;
+    private final int partitionDaysAhead;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+    private final Duration deadFamilyRetention;
+    private final Duration jobRunRetention;
+
+    public TokenCleanupScheduler(JdbcTemplate jdbcTemplate,
+                                 RefreshTokenRepository refreshTokenRepository,
+                                 JobRunRepository jobRunRepository,
+                                 ClusterJobRunner jobRunner,
+                                 @Value("${jwt.refresh.partition-days-ahead:14}") int partitionDaysAhead,
+                                 @Value("${jobs.token-cleanup.chunk-size:2000}") int chunkSize,
+                                 @Value("${jobs.token-cleanup.chunk-pause-ms:100}") long chunkPauseMs,
+                                 @Value("${jobs.token-cleanup.dead-family-retention-hours:24}") long retentionHours,
+                                 @Value("${jobs.job-runs.retention-days:30}") long jobRunRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jobRunRepository = jobRunRepository;
+        this.jobRunner = jobRunner;
+        this.partitionDaysAhead = partitionDaysAhead;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+        this.deadFamilyRetention = Duration.ofHours(retentionHours);
+        this.jobRunRetention = Duration.ofDays(jobRunRetentionDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        // Idempotent - safe on every node, and the node must not wait for the hourly run
+        createMissingPartitions();
+    }
+
+    @Scheduled(cron = "0 0 * * * *") // hourly - cheap when nothing is missing
+    public void ensurePartitions() {
+        jobRunner.runExclusively(ENSURE_PARTITIONS_JOB, Duration.ofMinutes(5), deadline -> createMissingPartitions());
     }
 
     @Scheduled(cron = "0 0 3 * * *") // 3 AM every day
     public void purgeExpiredTokens() {
-        repo.deleteExpiredTokens(LocalDateTime.now());
+        jobRunner.runExclusively(DROP_PARTITIONS_JOB, Duration.ofMinutes(5), deadline -> {
+            Integer dropped = jdbcTemplate.queryForObject(
+                "SELECT refresh_tokens_drop_expired_partitions()", Integer.class);
+            return dropped != null ? dropped : 0;
+        });
+    }
+
+    @Scheduled(cron = "0 30 * * * *") // hourly, off the hour - keeps each run small
+    public void purgeDeadFamilies() {
+        jobRunner.runExclusively(PURGE_DEAD_FAMILIES_JOB, Duration.ofMinutes(15), this::deleteDeadFamilies);
+    }
+
+    @Scheduled(cron = "0 45 3 * * *") // daily, after the partition drop
+    public void purgeOldJobRuns() {
+        jobRunner.runExclusively(PURGE_JOB_RUNS_JOB, Duration.ofMinutes(15), this::deleteOldJobRuns);
+    }
+
+    private long deleteDeadFamilies(Instant deadline) throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(deadFamilyRetention);
+        return deleteInChunks(deadline,
+                () -> refreshTokenRepository.deleteDeadFamiliesChunk(cutoff, LocalDateTime.now(), chunkSize));
+    }
+
+    private long deleteOldJobRuns(Instant deadline) throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobRunRetention);
+        return deleteInChunks(deadline, () -> jobRunRepository.deleteStartedBeforeChunk(cutoff, chunkSize));
+    }
+
+    /**
+     * Delete chunk by chunk - one short transaction per chunk, pausing in
+     * between so replication and autovacuum keep up - until a chunk comes
+     * back short or the deadline has passed
+     */
+    private long deleteInChunks(Instant deadline, IntSupplier deleteChunk) throws InterruptedException {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = deleteChunk.getAsInt();
+            total += deleted;
+            if (deleted == chunkSize) {
+                Thread.sleep(chunkPauseMs);
+            }
+        } while (deleted == chunkSize && Instant.now().isBefore(deadline));
+        return total;
+    }
+
+    private long createMissingPartitions() {
+        Integer created = jdbcTemplate.queryForObject(
+            "SELECT refresh_tokens_ensure_partitions(?)", Integer.class, partitionDaysAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} refresh_tokens partition(s)", created);
+        }
+        return created != null ? created : 0;
     }
 }
@@ -0,0 +1,81 @@
+package com.example.apiproject.scheduler;
+
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserRosterChangedEvent;
+import com.example.apiproject.dto.RebalanceResultDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.service.WorkloadRebalancer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the {@link WorkloadRebalancer} on one node at a time through
+ * {@link ClusterJobRunner}:
+ * - periodically (jobs.rebalance.cron), to undo drift as statuses change
+ * - shortly after a user leaves the assignable set (deactivated, or given
+ *   another role), to hand off the open tasks they still hold. The event only
+ *   marks a hand-off as pending; a short poll runs it, so the admin request
+ *   that caused it does not wait for the rebalance. A run is capped by
+ *   tasks.rebalance.max-moves and skips rows locked by other writers, so
+ *   the hand-off stays pending while it leaves orphaned tasks behind and
+ *   still makes progress (with no free capacity the periodic run retries)
+ */
+@Component
+public class WorkloadRebalanceScheduler {
+
+    static final String REBALANCE_JOB = "tasks.rebalance";
+
+    private final WorkloadRebalancer rebalancer;
+    private final ClusterJobRunner jobRunner;
+    private final UserDirectory userDirectory;
+    private final AtomicBoolean handOffPending = new AtomicBoolean();
+
+    public WorkloadRebalanceScheduler(WorkloadRebalancer rebalancer,
+                                      ClusterJobRunner jobRunner,
+                                      UserDirectory userDirectory) {
+        this.rebalancer = rebalancer;
+        this.jobRunner = jobRunner;
+        this.userDirectory = userDirectory;
+    }
+
+    @Scheduled(cron = "${jobs.rebalance.cron:0 */15 * * * *}")
+    public void rebalance() {
+        run();
+    }
+
+    /**
+     * Users joining the roster wait for the periodic run; a user leaving it
+     * strands their open tasks, so schedule a hand-off
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(UserRosterChangedEvent event) {
+        boolean assignable = userDirectory.findById(event.userId())
+                .map(user -> user.active() && user.role() == Role.USER)
+                .orElse(false);
+        if (!assignable) {
+            handOffPending.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.rebalance.hand-off-poll-ms:5000}")
+    public void handOffIfPending() {
+        if (handOffPending.getAndSet(false) && !run()) {
+            // Another node holds the lease - try again on the next poll
+            handOffPending.set(true);
+        }
+    }
+
+    private boolean run() {
+        return jobRunner.runExclusively(REBALANCE_JOB, Duration.ofMinutes(5), deadline -> {
+            RebalanceResultDTO result = rebalancer.rebalance(false);
+            if (result.getOrphansLeft() > 0 && result.getMoved() + result.getSkipped() > 0) {
+                handOffPending.set(true);
+            }
+            return result.getMoved();
+        });
+    }
+}
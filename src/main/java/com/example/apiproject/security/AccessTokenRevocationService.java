@@ -0,0 +1,178 @@
+package com.example.apiproject.security;
+
+import com.example.apiproject.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revocation of already-issued access tokens.
+ *
+ * Two mechanisms, both checked in constant time by the JWT filter against
+ * in-memory maps (ConcurrentHashMap is internally striped, so lookups never
+ * contend with writers):
+ * - per-user not-before epoch: every token issued at or before it is invalid
+ *   (logout-all, deactivation, refresh-token reuse)
+ * - a global not-before epoch for incidents such as a signing-key rotation
+ * - a small denylist of individual token ids (single logout)
+ *
+ * Changes are written through to the {@link RevocationStore} so all nodes
+ * converge. Entries older than the maximum access-token lifetime cannot match
+ * any live token and are purged periodically, keeping both maps small.
+ */
+@Slf4j
+@Service
+public class AccessTokenRevocationService {
+
+    private static final long NONE = Long.MIN_VALUE; // no global epoch set
+
+    private final RevocationStore store;
+    private final long tokenLifetimeMillis;
+
+    private final Map<Long, Long> userNotBefore = new ConcurrentHashMap<>();
+    private final Map<String, Long> deniedTokens = new ConcurrentHashMap<>();
+    private final AtomicLong globalNotBefore = new AtomicLong(NONE);
+
+    public AccessTokenRevocationService(RevocationStore store,
+            @Value("${jwt.expiration}") long expirationMillis) {
+        this.store = store;
+        this.tokenLifetimeMillis = expirationMillis + 1000;
+    }
+
+    @PostConstruct
+    void init() {
+        store.subscribe(this::apply);
+        resync();
+    }
+
+    /**
+     * Check whether a verified token has been revoked. Epochs and issue times
+     * are compared in milliseconds, so a token issued right after a revocation
+     * (the login after a logout-all, say) is valid even within the same second
+     *
+     * @param userId   User the token was issued to
+     * @param tokenId  Token id (jti), may be null for older tokens
+     * @param issuedAt Token issue time (millisecond precision, see
+     *                 {@link JwtUtils#CLAIM_ISSUED_AT_MS})
+     */
+    public boolean isRevoked(Long userId, String tokenId, Instant issuedAt) {
+        long issuedAtMillis = issuedAt.toEpochMilli();
+        long global = globalNotBefore.get();
+        if (global != NONE && issuedAtMillis <= global) {
+            return true;
+        }
+        Long notBefore = userNotBefore.get(userId);
+        if (notBefore != null && issuedAtMillis <= notBefore) {
+            return true;
+        }
+        return tokenId != null && deniedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Invalidate every access token issued to the user up to now
+     */
+    public void revokeAllForUser(Long userId) {
+        publish(RevocationEvent.userEpoch(userId, Instant.now().toEpochMilli()));
+    }
+
+    /**
+     * Invalidate every access token of each given user issued up to now.
+     * Written to the store as one batch (a single round trip for any number
+     * of users)
+     */
+    public void revokeAllForUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        long now = Instant.now().toEpochMilli();
+        List<RevocationEvent> events = userIds.stream()
+                .map(userId -> RevocationEvent.userEpoch(userId, now))
+                .toList();
+        events.forEach(this::apply);
+        try {
+            store.publishAll(events);
+        } catch (RuntimeException e) {
+            log.error("Could not publish access-token revocations of {} user(s): {}", events.size(), e.getMessage());
+            throw unavailable(e);
+        }
+    }
+
+    /**
+     * Invalidate every access token, of any user, issued at or before the
+     * given instant
+     */
+    public void revokeAllIssuedBefore(Instant before) {
+        publish(RevocationEvent.globalEpoch(before.toEpochMilli()));
+    }
+
+    /**
+     * Invalidate a single access token until it would have expired anyway
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        publish(RevocationEvent.token(tokenId, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Reload from the shared store (covers missed broadcasts) and drop entries
+     * that can no longer match a live token
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.resync-interval-ms:60000}")
+    public void resync() {
+        long now = Instant.now().toEpochMilli();
+        long cutoff = now - tokenLifetimeMillis;
+
+        userNotBefore.values().removeIf(epoch -> epoch <= cutoff);
+        globalNotBefore.updateAndGet(epoch -> epoch <= cutoff ? NONE : epoch);
+        deniedTokens.values().removeIf(expiry -> expiry < now);
+
+        try {
+            store.purge(cutoff, now);
+            store.loadAll().forEach(this::apply);
+        } catch (RuntimeException e) {
+            log.warn("Could not resync access-token revocations from store: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply locally, then write through to the store. A revocation only this
+     * node knows about is lost on restart and not enforced elsewhere, so a
+     * store failure fails the request (503) instead of reporting success;
+     * revoking again is harmless, so the caller can simply retry
+     */
+    private void publish(RevocationEvent event) {
+        apply(event);
+        try {
+            store.publish(event);
+        } catch (RuntimeException e) {
+            log.error("Could not publish access-token revocation {}: {}", event.encode(), e.getMessage());
+            throw unavailable(e);
+        }
+    }
+
+    private static ServiceUnavailableException unavailable(RuntimeException cause) {
+        return new ServiceUnavailableException(
+                "Revocation could not be shared with the other nodes, please retry", cause);
+    }
+
+    private void apply(RevocationEvent event) {
+        if (event.type() == RevocationEvent.Type.GLOBAL_EPOCH) {
+            globalNotBefore.accumulateAndGet(event.epochMillis(), Math::max);
+        } else if (event.type() == RevocationEvent.Type.USER_EPOCH) {
+            userNotBefore.merge(Long.valueOf(event.key()), event.epochMillis(), Math::max);
+        } else {
+            deniedTokens.put(event.key(), event.epochMillis());
+        }
+    }
+}
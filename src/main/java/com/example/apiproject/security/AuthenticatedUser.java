@@ -0,0 +1,32 @@
+package com.example.apiproject.security;
+
+import com.example.apiproject.entity.Role;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Lightweight principal built entirely from access-token claims.
+ * Placed in the SecurityContext by {@link JwtAuthenticationFilter} so that
+ * authenticated requests need no database round trip to identify the caller.
+ *
+ * @param id              User ID
+ * @param email           User email (also returned by {@link #getName()})
+ * @param role            User role at the time the token was issued
+ * @param securityVersion User security version at the time the token was issued
+ * @param tokenId         Id (jti) of the access token used for this request
+ * @param tokenExpiresAt  Expiry of the access token used for this request
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        Role role,
+        long securityVersion,
+        String tokenId,
+        Instant tokenExpiresAt) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -24,7 +24,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Find user by email (username in our case is email)
+        // Find user by email (username in our case is email). Always from the
+        // database, never the user cache: a password change or deactivation
+        // made on another node must stop the old credentials at once
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
 
@@ -34,7 +36,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
-                .disabled(!user.getIsActive())
+                .disabled(!Boolean.TRUE.equals(user.getIsActive()))
                 .authorities(getAuthorities(user))
                 .build();
     }
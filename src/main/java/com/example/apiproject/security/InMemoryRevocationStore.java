@@ -0,0 +1,54 @@
+package com.example.apiproject.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single-node revocation store for tests and local development without Redis.
+ * Enable with auth.revocation.store=memory
+ */
+@Component
+@ConditionalOnProperty(name = "auth.revocation.store", havingValue = "memory")
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final Map<String, RevocationEvent> userEpochs = new ConcurrentHashMap<>();
+    private final Map<String, RevocationEvent> deniedTokens = new ConcurrentHashMap<>();
+    private final List<Consumer<RevocationEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(RevocationEvent event) {
+        if (event.isEpoch()) {
+            // the global epoch lives here too, under its own key
+            userEpochs.merge(event.key(), event,
+                    (a, b) -> a.epochMillis() >= b.epochMillis() ? a : b);
+        } else {
+            deniedTokens.put(event.key(), event);
+        }
+        listeners.forEach(listener -> listener.accept(event));
+    }
+
+    @Override
+    public List<RevocationEvent> loadAll() {
+        List<RevocationEvent> all = new ArrayList<>(userEpochs.values());
+        all.addAll(deniedTokens.values());
+        return all;
+    }
+
+    @Override
+    public void purge(long userEpochCutoff, long now) {
+        userEpochs.values().removeIf(e -> e.epochMillis() <= userEpochCutoff);
+        deniedTokens.values().removeIf(e -> e.epochMillis() < now);
+    }
+
+    @Override
+    public void subscribe(Consumer<RevocationEvent> listener) {
+        listeners.add(listener);
+    }
+}
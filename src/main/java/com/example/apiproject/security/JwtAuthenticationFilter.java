@@ -1,27 +1,33 @@
 package com.example.apiproject.security;
 
+import com.example.apiproject.cache.UserDirectory;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final CustomUserDetailsService userDetailsService;
+    private final UserDirectory userDirectory;
+    private final AccessTokenRevocationService revocationService;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils,
+            UserDirectory userDirectory,
+            AccessTokenRevocationService revocationService) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.userDirectory = userDirectory;
+        this.revocationService = revocationService;
     }
 
     @Override
@@ -31,36 +37,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 1. Extract Authorization header
         String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         // 2. Check if header exists and starts with "Bearer "
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             // 3. Extract token (remove "Bearer " prefix)
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
 
-            // 4. Extract username from token
+            // 4. Verify signature and expiry once; all claims come from this result
             try {
-                username = jwtUtils.extractUsername(jwt);
+                token = jwtUtils.verify(jwt);
             } catch (Exception e) {
-                // Token is malformed or invalid
-                logger.error("Error extracting username from token: " + e.getMessage());
+                // Token is malformed, tampered with or expired
+                logger.error("Error verifying token: " + e.getMessage());
             }
         }
 
-        // 5. If we have a username and no authentication is set in the context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // 5. If we have a verified token and no authentication is set in the context
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // 6. Load user details from database
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // 6. Build the principal from token claims - no database lookup
+            AuthenticatedUser principal = toPrincipal(token);
 
-            // 7. Validate token
-            if (jwtUtils.validateToken(jwt, userDetails)) {
+            // 7. Reject revoked tokens (O(1) in-memory check) and tokens issued
+            // before the user's last role/status change
+            if (principal != null
+                    && !revocationService.isRevoked(principal.id(), principal.tokenId(), token.issuedAt())
+                    && isCurrent(principal)) {
                 // 8. Create authentication token
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities());
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.role().name())));
 
                 // Set additional details
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -73,4 +81,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 10. Continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * The token is current if its user is still active and its security
+     * version matches (answered from the user cache in the common case)
+     */
+    private boolean isCurrent(AuthenticatedUser principal) {
+        return userDirectory.findById(principal.id())
+                .map(user -> user.active() && user.securityVersion() == principal.securityVersion())
+                .orElse(false);
+    }
+
+    /**
+     * Map verified claims to a principal, or null if the token lacks the
+     * required claims (e.g. issued by an older version of the application)
+     */
+    private AuthenticatedUser toPrincipal(VerifiedToken token) {
+        try {
+            Long userId = token.userId();
+            Long securityVersion = token.securityVersion();
+            if (userId == null || securityVersion == null || token.role() == null) {
+                return null;
+            }
+            return new AuthenticatedUser(userId, token.subject(), token.role(), securityVersion,
+                    token.tokenId(), token.expiresAt());
+        } catch (IllegalArgumentException e) {
+            logger.error("Token carries an unknown role: " + e.getMessage());
+            return null;
+        }
+    }
 }
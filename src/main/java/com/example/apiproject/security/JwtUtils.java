@@ -1,112 +1,187 @@
 package com.example.apiproject.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.example.apiproject.cache.UserSnapshot;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
 
+    // Custom claims carried by access tokens
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SECURITY_VERSION = "sv";
+    // Issue time in milliseconds - iat only has second precision, too coarse
+    // to tell a token issued just after a revocation from one issued before
+    public static final String CLAIM_ISSUED_AT_MS = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long expirationTime;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.ttl-seconds:30}")
+    private long verifiedCacheTtlSeconds;
+
+    // Decoded once at startup - the secret never changes at runtime
+    private Key signingKey;
+
+    // JwtParser is immutable and thread-safe, so a single instance is shared
+    private JwtParser parser;
+
+    // Short-lived cache of already verified tokens, keyed by SHA-256 digest of the
+    // raw token so raw bearer tokens are never kept in memory
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(verifiedCacheTtlSeconds))
+                .build();
+    }
+
     /**
      * Generate JWT token for a user
-     * 
-     * @param username The username (email) to include in the token
+     * The token carries id, role and security version so requests can be
+     * authenticated without loading the user from the database.
+     *
+     * @param user The user to issue the token for
      * @return Generated JWT token
      */
-    public String generateToken(String username) {
+    public String generateToken(UserSnapshot user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, user.id());
+        claims.put(CLAIM_ROLE, user.role().name());
+        claims.put(CLAIM_SECURITY_VERSION, user.securityVersion());
+        return createToken(claims, user.email());
     }
 
     /**
      * Create token with claims and subject
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
+        claims.put(CLAIM_ISSUED_AT_MS, now);
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationTime))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Get signing key from secret
+     * Verify signature and expiry of a token exactly once and return its contents.
+     * Repeated calls for the same token are answered from a bounded cache until
+     * the cache TTL or the token's own expiry, whichever comes first.
+     *
+     * @param token JWT token
+     * @return the verified token
+     * @throws JwtException if the token is malformed, tampered with or expired
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        Instant now = Instant.now();
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.invalidate(digest);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                issuedAt(claims),
+                claims.getExpiration().toInstant(),
+                Collections.unmodifiableMap(new HashMap<>(claims)));
+
+        verifiedTokens.put(digest, verified);
+        return verified;
     }
 
     /**
      * Extract username from token
-     * 
+     *
      * @param token JWT token
      * @return Username extracted from token
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    /**
-     * Extract expiration date from token
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    /**
-     * Extract a specific claim from token
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return verify(token).subject();
     }
 
     /**
-     * Extract all claims from token
+     * Validate token against user details
+     *
+     * @param token       JWT token
+     * @param userDetails User details from database
+     * @return true if token is valid, false otherwise
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        try {
+            return verify(token).subject().equals(userDetails.getUsername());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     /**
-     * Check if token is expired
+     * Millisecond issue time; a token without it cannot be checked against
+     * revocation epochs and is rejected
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static Instant issuedAt(Claims claims) {
+        if (claims.get(CLAIM_ISSUED_AT_MS) instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        throw new MalformedJwtException("Token has no " + CLAIM_ISSUED_AT_MS + " claim");
     }
 
     /**
-     * Validate token against user details
-     * 
-     * @param token       JWT token
-     * @param userDetails User details from database
-     * @return true if token is valid, false otherwise
+     * SHA-256 digest of the raw token, used as the cache key
      */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
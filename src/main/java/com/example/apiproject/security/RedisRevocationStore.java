@@ -0,0 +1,161 @@
+package com.example.apiproject.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Redis-backed revocation store shared by all nodes.
+ *
+ * Revocations live in two hashes (user id or "*" for the global epoch →
+ * not-before millisecond, token id → expiry millisecond) so a restarted node
+ * can rebuild its view, and every change is broadcast on a pub/sub channel so
+ * running nodes apply it immediately.
+ *
+ * Epochs only ever move forward: writes keep the later of the stored and the
+ * new not-before (an older cut-off, or one from a node whose clock lags,
+ * never weakens a revocation), and the purge only removes fields whose value
+ * is still at or before the cut-off when it runs. Both are Lua scripts, so
+ * each check-and-write is atomic in Redis.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.revocation.store", havingValue = "redis", matchIfMissing = true)
+public class RedisRevocationStore implements RevocationStore {
+
+    static final String USER_EPOCHS_KEY = "auth:revocation:user-epochs";
+    static final String DENIED_TOKENS_KEY = "auth:revocation:denied-tokens";
+    static final String CHANNEL = "auth:revocation:events";
+
+    // KEYS[1] hash, ARGV field/value pairs: HSET each value that is later
+    // than the one stored
+    static final RedisScript<Long> MAX_MERGE = new DefaultRedisScript<>("""
+            local written = 0
+            for i = 1, #ARGV, 2 do
+                local current = redis.call('HGET', KEYS[1], ARGV[i])
+                if not current or tonumber(ARGV[i + 1]) > tonumber(current) then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    written = written + 1
+                end
+            end
+            return written
+            """, Long.class);
+
+    // KEYS[1] hash, ARGV[1] cut-off, ARGV[2..] fields: HDEL each field whose
+    // value is (still) at or before the cut-off
+    static final RedisScript<Long> PURGE_UP_TO = new DefaultRedisScript<>("""
+            local deleted = 0
+            local cutoff = tonumber(ARGV[1])
+            for i = 2, #ARGV do
+                local current = redis.call('HGET', KEYS[1], ARGV[i])
+                if current and tonumber(current) <= cutoff then
+                    deleted = deleted + redis.call('HDEL', KEYS[1], ARGV[i])
+                end
+            end
+            return deleted
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisRevocationStore(StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void publish(RevocationEvent event) {
+        publishAll(List.of(event));
+    }
+
+    /**
+     * One script call per hash and a single PUBLISH carrying every event
+     * (one per line), however many events there are
+     */
+    @Override
+    public void publishAll(List<RevocationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> byHash = new HashMap<>();
+        for (RevocationEvent event : events) {
+            byHash.computeIfAbsent(hashKey(event.type()), key -> new ArrayList<>())
+                    .addAll(List.of(event.key(), String.valueOf(event.epochMillis())));
+        }
+        byHash.forEach((hash, fieldsAndValues) ->
+                redisTemplate.execute(MAX_MERGE, List.of(hash), fieldsAndValues.toArray()));
+        redisTemplate.convertAndSend(CHANNEL, events.stream()
+                .map(RevocationEvent::encode)
+                .collect(Collectors.joining("\n")));
+    }
+
+    @Override
+    public List<RevocationEvent> loadAll() {
+        List<RevocationEvent> all = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(USER_EPOCHS_KEY).entrySet()) {
+            String key = entry.getKey().toString();
+            RevocationEvent.Type type = RevocationEvent.GLOBAL_KEY.equals(key)
+                    ? RevocationEvent.Type.GLOBAL_EPOCH
+                    : RevocationEvent.Type.USER_EPOCH;
+            all.add(new RevocationEvent(type, key, Long.parseLong(entry.getValue().toString())));
+        }
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(DENIED_TOKENS_KEY).entrySet()) {
+            all.add(new RevocationEvent(RevocationEvent.Type.TOKEN, entry.getKey().toString(),
+                    Long.parseLong(entry.getValue().toString())));
+        }
+        return all;
+    }
+
+    @Override
+    public void purge(long userEpochCutoff, long now) {
+        // Candidates from a snapshot; the script re-checks each value, so an
+        // epoch moved forward since the snapshot is kept
+        List<String> staleEpochs = new ArrayList<>(List.of(String.valueOf(userEpochCutoff)));
+        List<String> staleTokens = new ArrayList<>(List.of(String.valueOf(now - 1)));
+        for (RevocationEvent event : loadAll()) {
+            if (event.isEpoch() && event.epochMillis() <= userEpochCutoff) {
+                staleEpochs.add(event.key());
+            } else if (event.type() == RevocationEvent.Type.TOKEN && event.epochMillis() < now) {
+                staleTokens.add(event.key());
+            }
+        }
+        if (staleEpochs.size() > 1) {
+            redisTemplate.execute(PURGE_UP_TO, List.of(USER_EPOCHS_KEY), staleEpochs.toArray());
+        }
+        if (staleTokens.size() > 1) {
+            redisTemplate.execute(PURGE_UP_TO, List.of(DENIED_TOKENS_KEY), staleTokens.toArray());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RevocationEvent> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            // One event per line (see publishAll)
+            for (String line : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+                try {
+                    listener.accept(RevocationEvent.decode(line));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring malformed revocation message: {}", e.getMessage());
+                }
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    private static String hashKey(RevocationEvent.Type type) {
+        return type == RevocationEvent.Type.TOKEN ? DENIED_TOKENS_KEY : USER_EPOCHS_KEY;
+    }
+}
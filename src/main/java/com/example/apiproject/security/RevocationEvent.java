@@ -0,0 +1,56 @@
+package com.example.apiproject.security;
+
+/**
+ * A single access-token revocation, as stored and broadcast between nodes.
+ *
+ * @param type         What is being revoked
+ * @param key          User id (USER_EPOCH), {@link #GLOBAL_KEY} (GLOBAL_EPOCH)
+ *                     or token id (TOKEN)
+ * @param epochMillis USER_EPOCH / GLOBAL_EPOCH: tokens issued at or before
+ *                    this millisecond are invalid. TOKEN: when the denied
+ *                    token expires anyway.
+ */
+public record RevocationEvent(Type type, String key, long epochMillis) {
+
+    public static final String GLOBAL_KEY = "*";
+
+    public enum Type {
+        USER_EPOCH,
+        GLOBAL_EPOCH,
+        TOKEN
+    }
+
+    public static RevocationEvent userEpoch(Long userId, long notBeforeEpochMillis) {
+        return new RevocationEvent(Type.USER_EPOCH, String.valueOf(userId), notBeforeEpochMillis);
+    }
+
+    public static RevocationEvent globalEpoch(long notBeforeEpochMillis) {
+        return new RevocationEvent(Type.GLOBAL_EPOCH, GLOBAL_KEY, notBeforeEpochMillis);
+    }
+
+    public static RevocationEvent token(String tokenId, long expiresAtEpochMillis) {
+        return new RevocationEvent(Type.TOKEN, tokenId, expiresAtEpochMillis);
+    }
+
+    /**
+     * Not-before epochs (per user or global) as opposed to single denied tokens
+     */
+    public boolean isEpoch() {
+        return type != Type.TOKEN;
+    }
+
+    /**
+     * Compact wire format used on the pub/sub channel: TYPE|key|epochMillis
+     */
+    public String encode() {
+        return type.name() + "|" + key + "|" + epochMillis;
+    }
+
+    public static RevocationEvent decode(String value) {
+        String[] parts = value.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed revocation event: " + value);
+        }
+        return new RevocationEvent(Type.valueOf(parts[0]), parts[1], Long.parseLong(parts[2]));
+    }
+}
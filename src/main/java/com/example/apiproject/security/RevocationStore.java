@@ -0,0 +1,46 @@
+package com.example.apiproject.security;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Shared backing store for access-token revocations.
+ * Keeps every node's in-memory view in {@link AccessTokenRevocationService}
+ * converging on the same state.
+ */
+public interface RevocationStore {
+
+    /**
+     * Persist a revocation and notify all subscribed nodes (including this one)
+     */
+    void publish(RevocationEvent event);
+
+    /**
+     * Persist and broadcast several revocations at once. Stores that can
+     * batch the writes should override this
+     */
+    default void publishAll(List<RevocationEvent> events) {
+        events.forEach(this::publish);
+    }
+
+    /**
+     * All revocations currently held by the store (used at startup and for
+     * periodic resync in case a broadcast was missed)
+     */
+    List<RevocationEvent> loadAll();
+
+    /**
+     * Remove entries that can no longer affect any live token
+     *
+     * @param userEpochCutoff Drop user / global epochs at or before this
+     *                        millisecond
+     * @param now             Drop denied tokens that expired before this
+     *                        millisecond
+     */
+    void purge(long userEpochCutoff, long now);
+
+    /**
+     * Register a callback for revocations published by any node
+     */
+    void subscribe(Consumer<RevocationEvent> listener);
+}
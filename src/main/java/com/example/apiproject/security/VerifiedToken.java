@@ -0,0 +1,67 @@
+package com.example.apiproject.security;
+
+import com.example.apiproject.entity.Role;
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable result of a successful JWT signature and expiry check.
+ * Produced once per token by {@link JwtUtils#verify(String)} so callers never
+ * have to re-parse the token to read another claim.
+ *
+ * @param subject   The token subject (user email)
+ * @param issuedAt  When the token was issued
+ * @param expiresAt When the token expires
+ * @param claims    All remaining custom claims (read-only)
+ */
+public record VerifiedToken(
+        String subject,
+        Instant issuedAt,
+        Instant expiresAt,
+        Map<String, Object> claims) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    /**
+     * Token id (jti) claim, or null for tokens issued without it
+     */
+    public String tokenId() {
+        return claim(Claims.ID, String.class);
+    }
+
+    /**
+     * User ID claim, or null for tokens issued without it
+     */
+    public Long userId() {
+        Number value = claim(JwtUtils.CLAIM_USER_ID, Number.class);
+        return value != null ? value.longValue() : null;
+    }
+
+    /**
+     * Role claim, or null for tokens issued without it
+     */
+    public Role role() {
+        String value = claim(JwtUtils.CLAIM_ROLE, String.class);
+        return value != null ? Role.valueOf(value) : null;
+    }
+
+    /**
+     * Security version claim, or null for tokens issued without it
+     */
+    public Long securityVersion() {
+        Number value = claim(JwtUtils.CLAIM_SECURITY_VERSION, Number.class);
+        return value != null ? value.longValue() : null;
+    }
+
+    /**
+     * Read a custom claim, or null if absent / of a different type
+     */
+    public <T> T claim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.apiproject.service;
 
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserRosterChangedEvent;
+import com.example.apiproject.cache.UserSnapshot;
 import com.example.apiproject.dto.AuthResponse;
 import com.example.apiproject.dto.LoginRequest;
 import com.example.apiproject.dto.RegisterRequest;
-import com.example.apiproject.entity.RefreshToken;
 import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.EmailAlreadyExistsException;
-import com.example.apiproject.repository.RefreshTokenRepository;
+import com.example.apiproject.exception.InvalidTokenException;
+import com.example.apiproject.exception.ServiceUnavailableException;
+import com.example.apiproject.exception.TokenReusedException;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AccessTokenRevocationService;
 import com.example.apiproject.security.JwtUtils;
+import com.example.apiproject.util.SecurityUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -17,8 +24,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Login, registration and token lifecycle.
+ *
+ * Not transactional as a whole: password hashing / verification is slow by
+ * design and must not run while a pooled JDBC connection is checked out.
+ * Repository calls open their own short transactions, and only the flows
+ * that need several statements to commit together are @Transactional.
+ */
 @Service
-@Transactional
 public class AuthService {
 
     private final AuthenticationManager authenticationManager;
@@ -26,65 +40,96 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserDirectory userDirectory;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthService(AuthenticationManager authenticationManager,
                        UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        JwtUtils jwtUtils,
                        RefreshTokenService refreshTokenService,
-                       RefreshTokenRepository refreshTokenRepository) {
+                       UserDirectory userDirectory,
+                       AccessTokenRevocationService accessTokenRevocationService,
+                       SecurityUtils securityUtils,
+                       ApplicationEventPublisher eventPublisher) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtils = jwtUtils;
         this.refreshTokenService = refreshTokenService;
-        this.refreshTokenRepository = refreshTokenRepository;
+        this.userDirectory = userDirectory;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.securityUtils = securityUtils;
+        this.eventPublisher = eventPublisher;
     }
 
     public void register(RegisterRequest request) {
-        if (userRepository.findByEmail(request.getEmail()).isPresent())
+        if (userRepository.existsByEmail(request.getEmail()))
             throw new EmailAlreadyExistsException("Email already in use");
 
+        // Hash before touching the database again - no connection held meanwhile
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHash);
         user.setRole(request.getRole() != null ? request.getRole() : Role.USER);
         userRepository.save(user);
+        userDirectory.evict(user.getId(), user.getEmail());
+        if (user.getRole() == Role.USER) {
+            // New assignee with no open tasks
+            eventPublisher.publishEvent(new UserRosterChangedEvent(user.getId()));
+        }
     }
 
     public AuthResponse login(LoginRequest request) {
+        // Credentials are checked against the database row; the BCrypt check
+        // runs on the password-hashing pool outside any transaction
         Authentication auth = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
-        User user = userRepository.findByEmail(auth.getName()).orElseThrow();
-        String accessToken = jwtUtils.generateToken(user.getEmail());
-        String refreshToken = refreshTokenService.createRefreshToken(user, null);
+        // Tokens carry role and security version - mint them from the row as
+        // committed, not from a cache entry another node may have outdated
+        UserSnapshot user = userRepository.findByEmail(auth.getName()).map(UserSnapshot::from).orElseThrow();
+        String accessToken = jwtUtils.generateToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(userRepository.getReferenceById(user.id()), null);
 
         return new AuthResponse(accessToken, refreshToken, "Login successful");
     }
 
+    // Reuse detection revokes the token family before throwing - keep that work,
+    // also when the access-token revocation could not be shared (503)
+    @Transactional(noRollbackFor = { TokenReusedException.class, ServiceUnavailableException.class })
     public AuthResponse refresh(String rawRefreshToken) {
-        RefreshToken old = refreshTokenService.verifyAndConsume(rawRefreshToken);
-        User user = old.getUser();
-
-        String newAccessToken = jwtUtils.generateToken(user.getEmail());
-        String newRawRefresh = refreshTokenService.createRefreshToken(user, old.getFamilyId());
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(rawRefreshToken);
 
-        RefreshToken newStored = refreshTokenRepository.findByTokenHash(
-            RefreshTokenService.sha256(newRawRefresh)).orElseThrow();
-        refreshTokenService.markReplaced(old, newStored.getId());
+        // Throwing here rolls the rotation back, leaving the old token untouched
+        UserSnapshot user = userRepository.findById(rotation.userId())
+            .map(UserSnapshot::from)
+            .filter(UserSnapshot::active)
+            .orElseThrow(() -> new InvalidTokenException("Account is deactivated"));
 
-        return new AuthResponse(newAccessToken, newRawRefresh, "Token refreshed successfully");
+        String newAccessToken = jwtUtils.generateToken(user);
+        return new AuthResponse(newAccessToken, rotation.rawToken(), "Token refreshed successfully");
     }
 
+    @Transactional
     public void logout(String rawRefreshToken) {
         refreshTokenService.revokeToken(rawRefreshToken);
+
+        // If the caller also presented an access token, deny it right away
+        // instead of letting it live until expiry
+        securityUtils.findCurrentPrincipal().ifPresent(principal ->
+            accessTokenRevocationService.revokeToken(principal.tokenId(), principal.tokenExpiresAt()));
     }
 
+    @Transactional
     public void logoutAll(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow();
-        refreshTokenService.revokeAllForUser(user);
+        UserSnapshot user = userDirectory.findByEmail(email).orElseThrow();
+        refreshTokenService.revokeAllForUser(user.id());
+        accessTokenRevocationService.revokeAllForUser(user.id());
     }
 }
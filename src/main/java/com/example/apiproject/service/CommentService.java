@@ -2,6 +2,8 @@ package com.example.apiproject.service;
 
 import com.example.apiproject.dto.CommentRequestDTO;
 import com.example.apiproject.dto.CommentResponseDTO;
+import com.example.apiproject.pagination.CommentSortField;
+import com.example.apiproject.pagination.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -21,6 +23,25 @@ public interface CommentService {
      */
     Page<CommentResponseDTO> getCommentsByTaskId(Long taskId, Pageable pageable);
 
+    /**
+     * ETag of a task's comments (same access rules as
+     * {@link #getCommentsByTaskId}), from a count + sum(id) + sum(version)
+     * fingerprint - it changes with every committed write, in whatever order
+     * the ids were handed out
+     */
+    String getCommentsETag(Long taskId);
+
+    /**
+     * Get comments for a specific task with keyset pagination
+     *
+     * @param taskId    The ID of the task
+     * @param sortField Sort column (ascending, id as tie-breaker)
+     * @param cursor    Cursor from the previous page, null or blank for the first page
+     * @param size      Page size
+     * @return Page content and the cursor of the following page
+     */
+    KeysetPage<CommentResponseDTO> getCommentsAfter(Long taskId, CommentSortField sortField, String cursor, int size);
+
     /**
      * Delete a comment (only author or admin)
      */
@@ -1,18 +1,27 @@
 package com.example.apiproject.service;
 
+import com.example.apiproject.cache.TaskCache;
 import com.example.apiproject.dto.CommentRequestDTO;
 import com.example.apiproject.dto.CommentResponseDTO;
 import com.example.apiproject.entity.Comment;
 import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.Task;
-import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.BadRequestException;
 import com.example.apiproject.exception.ForbiddenException;
 import com.example.apiproject.exception.ResourceNotFoundException;
 import com.example.apiproject.mapper.CommentMapper;
+import com.example.apiproject.pagination.CommentSortField;
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.KeysetPage;
 import com.example.apiproject.repository.CommentRepository;
+import com.example.apiproject.repository.KeysetQueryExecutor;
+import com.example.apiproject.repository.SetFingerprint;
+import com.example.apiproject.repository.SliceQueryExecutor;
 import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import com.example.apiproject.util.ETagUtils;
 import com.example.apiproject.util.SecurityUtils;
+import com.specification.CommentSpecifications;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,15 +34,24 @@ public class CommentServiceImpl implements CommentService {
     private final TaskRepository taskRepository;
     private final CommentMapper commentMapper;
     private final SecurityUtils securityUtils;
+    private final TaskCache taskCache;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final SliceQueryExecutor sliceQueryExecutor;
 
     public CommentServiceImpl(CommentRepository commentRepository,
             TaskRepository taskRepository,
             CommentMapper commentMapper,
-            SecurityUtils securityUtils) {
+            SecurityUtils securityUtils,
+            TaskCache taskCache,
+            KeysetQueryExecutor keysetQueryExecutor,
+            SliceQueryExecutor sliceQueryExecutor) {
         this.commentRepository = commentRepository;
         this.taskRepository = taskRepository;
         this.commentMapper = commentMapper;
         this.securityUtils = securityUtils;
+        this.taskCache = taskCache;
+        this.keysetQueryExecutor = keysetQueryExecutor;
+        this.sliceQueryExecutor = sliceQueryExecutor;
     }
 
     @Override
@@ -44,7 +62,7 @@ public class CommentServiceImpl implements CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
 
         // Step 2: Get current user
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentPrincipal();
 
         // Step 3: AUTHORIZATION - Verify user can see the task
         verifyTaskAccess(task, currentUser);
@@ -53,10 +71,11 @@ public class CommentServiceImpl implements CommentService {
         Comment comment = new Comment();
         comment.setMessage(request.getMessage());
         comment.setTask(task);
-        comment.setCommentedBy(currentUser);
+        comment.setCommentedBy(securityUtils.getCurrentUserReference());
 
         // Step 5: Save the comment
         Comment savedComment = commentRepository.save(comment);
+        taskCache.evict(taskId);
 
         // Step 6: Convert to DTO and return
         return commentMapper.toResponseDTO(savedComment);
@@ -69,7 +88,7 @@ public class CommentServiceImpl implements CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
 
         // Step 2: Get current user
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentPrincipal();
 
         // Step 3: AUTHORIZATION - Verify user can see the task
         verifyTaskAccess(task, currentUser);
@@ -81,6 +100,44 @@ public class CommentServiceImpl implements CommentService {
         return comments.map(commentMapper::toResponseDTO);
     }
 
+    @Override
+    public String getCommentsETag(Long taskId) {
+        // Step 1: Verify task exists
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+
+        // Step 2: AUTHORIZATION - never answer 304 to someone who would get 403
+        verifyTaskAccess(task, securityUtils.getCurrentPrincipal());
+
+        // Step 3: count + sum(id) + sum(version) of the task's comments - an
+        // id that commits after a larger one still changes the sum
+        SetFingerprint fingerprint = sliceQueryExecutor.fingerprint(Comment.class,
+                CommentSpecifications.belongsToTask(taskId));
+        return ETagUtils.of("comments", taskId, fingerprint.count(), fingerprint.idSum(),
+                fingerprint.versionSum());
+    }
+
+    @Override
+    public KeysetPage<CommentResponseDTO> getCommentsAfter(Long taskId, CommentSortField sortField,
+            String cursor, int size) {
+        // Step 1: Validate the cursor
+        KeysetCursor after = KeysetCursor.decode(cursor, sortField);
+
+        // Step 2: Verify task exists
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+
+        // Step 3: AUTHORIZATION - Verify user can see the task
+        verifyTaskAccess(task, securityUtils.getCurrentPrincipal());
+
+        // Step 4: Seek past the cursor, authors fetched in the same query
+        KeysetPage<Comment> comments = keysetQueryExecutor.findPage(Comment.class,
+                CommentSpecifications.belongsToTask(taskId), sortField, after, size, "commentedBy");
+
+        // Step 5: Convert to DTOs
+        return comments.map(commentMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional
     public void deleteComment(Long taskId, Long commentId) {
@@ -94,12 +151,12 @@ public class CommentServiceImpl implements CommentService {
         }
 
         // Step 3: Get current user
-        User currentUser = securityUtils.getCurrentUser();
+        AuthenticatedUser currentUser = securityUtils.getCurrentPrincipal();
 
         // Step 4: AUTHORIZATION - Only author or admin can delete
-        Role role = currentUser.getRole();
+        Role role = currentUser.role();
         boolean isAdmin = role == Role.ADMIN;
-        boolean isAuthor = comment.getCommentedBy().getId().equals(currentUser.getId());
+        boolean isAuthor = comment.getCommentedBy().getId().equals(currentUser.id());
 
         if (!isAdmin && !isAuthor) {
             throw new ForbiddenException("Access denied: Only comment author or admin can delete");
@@ -107,19 +164,20 @@ public class CommentServiceImpl implements CommentService {
 
         // Step 5: Delete the comment
         commentRepository.delete(comment);
+        taskCache.evict(taskId);
     }
 
     /**
      * Verify user has access to the task
      * Reuses logic from TaskServiceImpl - Admin OR Creator OR Assignee
      */
-    private void verifyTaskAccess(Task task, User user) {
-        Role role = user.getRole();
+    private void verifyTaskAccess(Task task, AuthenticatedUser user) {
+        Role role = user.role();
         boolean isAdmin = role == Role.ADMIN;
         boolean isCreator = task.getCreatedBy() != null &&
-                task.getCreatedBy().getId().equals(user.getId());
+                task.getCreatedBy().getId().equals(user.id());
         boolean isAssignee = task.getAssignedTo() != null &&
-                task.getAssignedTo().getId().equals(user.getId());
+                task.getAssignedTo().getId().equals(user.id());
 
         if (!isAdmin && !isCreator && !isAssignee) {
             throw new ForbiddenException("Access denied: You don't have permission to access this task");
@@ -0,0 +1,397 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.TaskCache;
+import com.example.apiproject.cache.UserLoadIndex;
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ConflictException;
+import com.example.apiproject.exception.PreconditionFailedException;
+import com.example.apiproject.exception.ResourceNotFoundException;
+import com.example.apiproject.exception.ServiceUnavailableException;
+import com.example.apiproject.mapper.TaskMapper;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent LEAST_LOADED assignments into micro-batches.
+ *
+ * Requests are queued and picked up by a single worker, which waits up to
+ * tasks.assign-queue.window-ms (or until tasks.assign-queue.max-batch
+ * requests are waiting) and then, for the whole batch:
+ * - reads the open-task loads once from {@link UserLoadIndex}
+ * - locks the batch's task rows, in id order
+ * - places the tasks one by one on the least-loaded user, counting each
+ *   placement before the next, so simultaneous requests spread across users
+ *   instead of all landing on the same "least loaded" one; users at their
+ *   WIP limit (per one capacity snapshot) drop out of the batch
+ * - moves the WIP slots in user id order, then writes all tasks in the
+ *   same transaction (batched, versioned UPDATEs)
+ * and completes each caller's future with its own task.
+ *
+ * Per-request failures (missing task, stale If-Match, WIP limits) fail only
+ * that request, and only once the batch transaction has committed. If the
+ * batch transaction fails, its requests are retried one at a time so a single
+ * conflict cannot fail the others. A full queue or a worker failure answers
+ * 503. A caller still waiting after tasks.assign-queue.timeout-ms withdraws
+ * its request if the worker has not taken it yet (503, nothing assigned);
+ * once its batch has started, it waits for that batch's outcome instead, as
+ * a retry could assign the task a second time.
+ *
+ * Metrics: tasks.assign.batch.size (distribution summary).
+ */
+@Slf4j
+@Service
+public class LeastLoadedAssignmentQueue {
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TaskMapper taskMapper;
+    private final TaskCache taskCache;
+    private final UserLoadIndex userLoadIndex;
+    private final WorkloadService workloadService;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizes;
+    private final BlockingQueue<AssignRequest> queue;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final long timeoutMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public LeastLoadedAssignmentQueue(TaskRepository taskRepository,
+            UserRepository userRepository,
+            TaskMapper taskMapper,
+            TaskCache taskCache,
+            UserLoadIndex userLoadIndex,
+            WorkloadService workloadService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.assign-queue.capacity:1024}") int capacity,
+            @Value("${tasks.assign-queue.max-batch:64}") int maxBatch,
+            @Value("${tasks.assign-queue.window-ms:5}") long windowMillis,
+            @Value("${tasks.assign-queue.timeout-ms:10000}") long timeoutMillis) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.taskMapper = taskMapper;
+        this.taskCache = taskCache;
+        this.userLoadIndex = userLoadIndex;
+        this.workloadService = workloadService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSizes = DistributionSummary.builder("tasks.assign.batch.size").register(meterRegistry);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.timeoutMillis = timeoutMillis;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("assign-batch-");
+        threadFactory.setDaemon(true);
+        this.worker = threadFactory.newThread(this::run);
+    }
+
+    @PostConstruct
+    void start() {
+        worker.start();
+    }
+
+    /**
+     * Stop the worker; requests still queued fail with 503
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.interrupt();
+        List<AssignRequest> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(request -> request.result().completeExceptionally(
+                new ServiceUnavailableException("Assignment service is shutting down, please retry")));
+    }
+
+    /**
+     * Assign a task to the least-loaded active user, together with whatever
+     * other requests arrive in the same window. Blocks until the batch has
+     * committed; after tasks.assign-queue.timeout-ms only if the batch has
+     * already started. Must not be called while holding a transaction.
+     *
+     * @param taskId          Task to assign
+     * @param expectedVersion Version from If-Match, or null for no precondition
+     * @return the assigned task
+     */
+    public TaskResponseDTO assign(Long taskId, Long expectedVersion) {
+        AssignRequest request = new AssignRequest(taskId, expectedVersion);
+        if (!running || !queue.offer(request)) {
+            throw new ServiceUnavailableException("Assignment is temporarily overloaded, please retry");
+        }
+
+        try {
+            try {
+                return request.result().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (request.claim()) {
+                    // Still queued: the worker will skip it, nothing was assigned
+                    request.result().cancel(false);
+                    throw new ServiceUnavailableException("Assignment is taking too long, please retry", e);
+                }
+                // Already in a batch transaction - its outcome is the answer
+                return request.result().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for assignment", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Assignment failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            List<AssignRequest> batch = new ArrayList<>(maxBatch);
+            try {
+                // Block for the first request, then gather more for one window
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    AssignRequest next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down - complete what was already taken
+                Thread.currentThread().interrupt();
+                batch.forEach(request -> request.result().completeExceptionally(
+                        new ServiceUnavailableException("Assignment service is shutting down, please retry")));
+                return;
+            }
+
+            // Take the requests over; callers that timed out first have
+            // withdrawn theirs
+            batch.removeIf(request -> !request.claim());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            batchSizes.record(batch.size());
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    batch.get(0).result().completeExceptionally(e);
+                } else {
+                    // One bad row (e.g. a concurrent write) must not fail the others
+                    log.warn("Batched assignment of {} tasks failed, retrying individually: {}",
+                            batch.size(), e.getMessage());
+                    retryIndividually(batch);
+                }
+            } catch (Throwable e) {
+                // Keep the worker alive; callers get 503 instead of waiting forever
+                log.error("Batched assignment of {} tasks failed", batch.size(), e);
+                failAll(batch, e);
+            }
+        }
+    }
+
+    private void retryIndividually(List<AssignRequest> batch) {
+        for (AssignRequest request : batch) {
+            if (request.result().isDone()) {
+                continue;
+            }
+            try {
+                process(List.of(request));
+            } catch (RuntimeException single) {
+                request.result().completeExceptionally(single);
+            } catch (Throwable single) {
+                log.error("Assignment of task {} failed", request.taskId(), single);
+                failAll(List.of(request), single);
+            }
+        }
+    }
+
+    private static void failAll(List<AssignRequest> batch, Throwable cause) {
+        batch.forEach(request -> request.result().completeExceptionally(
+                new ServiceUnavailableException("Assignment failed, please retry", cause)));
+    }
+
+    /**
+     * Assign one batch in one transaction. Futures - results and per-request
+     * failures alike - complete only after commit; if the transaction rolls
+     * back none of them is completed here, so a retry cannot assign a task
+     * whose caller was already told it failed
+     */
+    private void process(List<AssignRequest> batch) {
+        BatchOutcome outcome = transactionTemplate.execute(status -> assignBatch(batch));
+        outcome.failures().forEach((request, failure) -> request.result().completeExceptionally(failure));
+        outcome.results().forEach((request, task) -> request.result().complete(task));
+    }
+
+    private BatchOutcome assignBatch(List<AssignRequest> batch) {
+        // Step 1: Lock every task row of the batch in id order - task rows
+        // before WIP counters, like every other write path - then load the
+        // tasks with their users in one query
+        List<Long> lockedIds = taskRepository.lockAllById(
+                batch.stream().map(AssignRequest::taskId).collect(Collectors.toSet()));
+        Map<Long, Task> tasks = taskRepository.findWithUsersByIdIn(lockedIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        // Step 2: Per-request checks - failures fail only that request.
+        // A task requested twice in one batch is assigned once, both callers
+        // get the result
+        Map<AssignRequest, RuntimeException> failures = new HashMap<>();
+        Map<Long, List<AssignRequest>> accepted = new LinkedHashMap<>();
+        for (AssignRequest request : batch) {
+            Task task = tasks.get(request.taskId());
+            if (task == null) {
+                failures.put(request, new ResourceNotFoundException("Task", "id", request.taskId()));
+            } else if (request.expectedVersion() != null && !request.expectedVersion().equals(task.getVersion())) {
+                failures.put(request, new PreconditionFailedException("Task " + task.getId()
+                        + " has been modified (current version " + task.getVersion()
+                        + ", expected " + request.expectedVersion() + ")"));
+            } else {
+                accepted.computeIfAbsent(task.getId(), id -> new ArrayList<>()).add(request);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return new BatchOutcome(Map.of(), failures);
+        }
+
+        // Step 3: One load snapshot for the batch; tasks being reassigned no
+        // longer count for their current assignee
+        Map<Long, Long> loads = userLoadIndex.loads();
+        if (loads.isEmpty()) {
+            throw new BadRequestException("No active users available for assignment");
+        }
+        for (Long taskId : accepted.keySet()) {
+            Task task = tasks.get(taskId);
+            if (task.getAssignedTo() != null && task.getStatus() != TaskStatus.DONE) {
+                loads.computeIfPresent(task.getAssignedTo().getId(), (userId, load) -> load - 1);
+            }
+        }
+
+        // Step 4: Place each task on the current least-loaded user (min-heap,
+        // O(log n) per task) that has a free WIP slot, counting it before
+        // placing the next. A user found at the limit leaves the heap. Slots
+        // come from one capacity snapshot; no counter is locked yet
+        Map<Long, Integer> capacity = workloadService.remainingCapacity(loads.keySet());
+        PriorityQueue<Long> heap = new PriorityQueue<>(
+                Comparator.<Long>comparingLong(loads::get).thenComparing(Comparator.naturalOrder()));
+        heap.addAll(loads.keySet());
+        Map<Long, Long> chosen = new LinkedHashMap<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Long taskId : accepted.keySet()) {
+            Task task = tasks.get(taskId);
+            boolean open = task.getStatus() != TaskStatus.DONE;
+            Long previousId = task.getAssignedTo() != null ? task.getAssignedTo().getId() : null;
+            Long userId = null;
+            while (userId == null && !heap.isEmpty()) {
+                Long candidate = heap.poll();
+                if (!open || candidate.equals(previousId) || capacity.getOrDefault(candidate, 0) > 0) {
+                    userId = candidate;
+                }
+            }
+            if (userId == null) {
+                accepted.get(taskId).forEach(request -> failures.put(request,
+                        new ConflictException("All active users have reached their work-in-progress limit")));
+                continue;
+            }
+            chosen.put(taskId, userId);
+            if (open) {
+                loads.merge(userId, 1L, Long::sum);
+                if (!userId.equals(previousId)) {
+                    capacity.merge(userId, -1, Integer::sum);
+                    deltas.merge(userId, 1, Integer::sum);
+                    if (previousId != null) {
+                        capacity.merge(previousId, 1, Integer::sum);
+                        deltas.merge(previousId, -1, Integer::sum);
+                    }
+                }
+            }
+            heap.offer(userId);
+        }
+
+        // Step 5: Move the WIP slots, counters in user id order. The capacity
+        // above was a snapshot - apply() enforces the limits, and a 409 here
+        // fails the batch, whose requests are then retried one by one
+        workloadService.apply(deltas);
+
+        // Step 6: Apply and flush - one versioned UPDATE per task, sent in
+        // JDBC batches; the new assignees are read in one query for the DTOs
+        Map<Long, User> assignees = userRepository.findAllById(new ArrayList<>(chosen.values())).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Long> previous = new HashMap<>();
+        List<Task> changed = new ArrayList<>(chosen.size());
+        chosen.forEach((taskId, userId) -> {
+            Task task = tasks.get(taskId);
+            previous.put(taskId, task.getAssignedTo() != null ? task.getAssignedTo().getId() : null);
+            task.setAssignedTo(assignees.get(userId));
+            changed.add(task);
+        });
+        taskRepository.saveAllAndFlush(changed);
+
+        // Step 7: Caches and load index follow after commit
+        taskCache.evictAll(chosen.keySet());
+        chosen.forEach((taskId, userId) -> userLoadIndex.taskMoved(previous.get(taskId), userId,
+                tasks.get(taskId).getStatus() != TaskStatus.DONE));
+
+        Map<AssignRequest, TaskResponseDTO> results = new HashMap<>();
+        chosen.keySet().forEach(taskId -> {
+            TaskResponseDTO dto = taskMapper.toResponseDTO(tasks.get(taskId));
+            accepted.get(taskId).forEach(request -> results.put(request, dto));
+        });
+        return new BatchOutcome(results, failures);
+    }
+
+    private record AssignRequest(Long taskId, Long expectedVersion, CompletableFuture<TaskResponseDTO> result,
+            AtomicBoolean claimed) {
+
+        AssignRequest(Long taskId, Long expectedVersion) {
+            this(taskId, expectedVersion, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        /**
+         * Taken once, by the worker to process it or by a caller that timed
+         * out to withdraw it - whichever comes first
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * What a batch transaction decided for each of its requests, applied to
+     * the futures once it has committed
+     */
+    private record BatchOutcome(Map<AssignRequest, TaskResponseDTO> results,
+            Map<AssignRequest, RuntimeException> failures) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.CountCache;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.repository.SliceQueryExecutor;
+import com.example.apiproject.repository.TableStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * Offset pagination where the total is optional.
+ *
+ * The page is always read as a slice (size + 1 rows, no COUNT). The total is
+ * then produced according to the requested {@link TotalMode}:
+ * - when the slice is the last page the total is known for free and is
+ *   returned as EXACT whatever the mode
+ * - NONE: no total
+ * - ESTIMATED: planner statistics; estimates below paging.estimate.exact-below
+ *   are not trusted and an exact count is returned instead
+ * - EXACT: the count the caller already ran for this request, if any (see
+ *   {@link com.example.apiproject.pagination.ListETag}), otherwise COUNT(*)
+ *   through the {@link CountCache}
+ */
+@Service
+public class PagingService {
+
+    private final SliceQueryExecutor sliceQueryExecutor;
+    private final TableStatistics tableStatistics;
+    private final CountCache countCache;
+    private final long exactBelow;
+
+    public PagingService(SliceQueryExecutor sliceQueryExecutor,
+            TableStatistics tableStatistics,
+            CountCache countCache,
+            @Value("${paging.estimate.exact-below:10000}") long exactBelow) {
+        this.sliceQueryExecutor = sliceQueryExecutor;
+        this.tableStatistics = tableStatistics;
+        this.countCache = countCache;
+        this.exactBelow = exactBelow;
+    }
+
+    /**
+     * Read one page and its total
+     *
+     * @param type           Entity class
+     * @param table          Table of the entity (for statistics)
+     * @param spec           Filter specification
+     * @param filters        Column-to-value description of exactly the same filters
+     *                       as spec; used as the count cache key and for estimation
+     * @param pageable       Page, size and sort
+     * @param mode           Requested kind of total
+     * @param attributePaths To-one associations to fetch with the page
+     */
+    public <T> PageResult<T> findPage(Class<T> type, String table, Specification<T> spec,
+            Map<String, Object> filters, Pageable pageable, TotalMode mode, String... attributePaths) {
+        return findPage(type, table, spec, filters, pageable, mode, null, attributePaths);
+    }
+
+    /**
+     * Read one page; an EXACT total is the given count rather than a cached
+     * one, so it always agrees with the ETag computed from that count
+     *
+     * @param countedTotal Exact size of the filtered set, counted earlier in
+     *                     the same request; null to count (or use the cache)
+     */
+    public <T> PageResult<T> findPage(Class<T> type, String table, Specification<T> spec,
+            Map<String, Object> filters, Pageable pageable, TotalMode mode, Long countedTotal,
+            String... attributePaths) {
+        // Step 1: The page itself - never counts
+        Slice<T> slice = sliceQueryExecutor.findSlice(type, spec, pageable, attributePaths);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+
+        // Step 2: Last page reached - the total is known without counting
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            return new PageResult<>(slice, seen, TotalMode.EXACT);
+        }
+
+        // Step 3: Total as requested
+        if (mode == TotalMode.NONE) {
+            return new PageResult<>(slice, null, TotalMode.NONE);
+        }
+        if (mode == TotalMode.ESTIMATED) {
+            OptionalLong estimate = tableStatistics.estimateRows(table, filters);
+            if (estimate.isPresent() && estimate.getAsLong() >= exactBelow) {
+                // Never report fewer rows than the client has already been shown
+                long floor = slice.hasNext() ? seen + 1 : seen;
+                return new PageResult<>(slice, Math.max(estimate.getAsLong(), floor), TotalMode.ESTIMATED);
+            }
+        }
+        if (countedTotal != null) {
+            return new PageResult<>(slice, countedTotal, TotalMode.EXACT);
+        }
+        String key = type.getSimpleName() + new TreeMap<>(filters);
+        long total = countCache.get(key, () -> sliceQueryExecutor.count(type, spec));
+        return new PageResult<>(slice, total, TotalMode.EXACT);
+    }
+}
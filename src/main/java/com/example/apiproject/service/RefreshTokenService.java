@@ -3,8 +3,10 @@ package com.example.apiproject.service;
 import com.example.apiproject.entity.RefreshToken;
 import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.InvalidTokenException;
+import com.example.apiproject.exception.ServiceUnavailableException;
 import com.example.apiproject.exception.TokenReusedException;
 import com.example.apiproject.repository.RefreshTokenRepository;
+import com.example.apiproject.security.AccessTokenRevocationService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +15,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,15 +25,26 @@ public class RefreshTokenService {
     private static final long REFRESH_EXPIRY_DAYS = 7L;
 
     private final RefreshTokenRepository repo;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
-    public RefreshTokenService(RefreshTokenRepository repo) {
+    public RefreshTokenService(RefreshTokenRepository repo,
+                               AccessTokenRevocationService accessTokenRevocationService) {
         this.repo = repo;
+        this.accessTokenRevocationService = accessTokenRevocationService;
     }
 
+    /**
+     * Outcome of a successful rotation
+     *
+     * @param tokenId  id of the successor token
+     * @param rawToken successor token to hand to the client (never persisted)
+     * @param userId   owner of the token chain
+     */
+    public record Rotation(String tokenId, String rawToken, Long userId) {}
+
     // -- ISSUE -----------------------------------------------------------------
     public String createRefreshToken(User user, String familyId) {
-        String rawToken = UUID.randomUUID().toString()   // opaque random value
-                        + UUID.randomUUID().toString();  // extra entropy
+        String rawToken = newRawToken();
         String hash = sha256(rawToken);
 
         RefreshToken entity = RefreshToken.builder()
@@ -46,9 +60,25 @@ public class RefreshTokenService {
     }
 
     // -- ROTATE ----------------------------------------------------------------
-    public RefreshToken verifyAndConsume(String rawToken) {
-        String hash = sha256(rawToken);
-        RefreshToken stored = repo.findByTokenHash(hash)
+    /**
+     * Consume a refresh token and issue its successor. The happy path is one
+     * conditional UPDATE + INSERT round trip; the token is only read back to
+     * explain a failure.
+     */
+    @Transactional(noRollbackFor = { TokenReusedException.class, ServiceUnavailableException.class })
+    public Rotation rotate(String rawToken) {
+        String newId = UUID.randomUUID().toString();
+        String newRawToken = newRawToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        Optional<Long> userId = repo.rotate(sha256(rawToken), newId, sha256(newRawToken),
+            now, now.plusDays(REFRESH_EXPIRY_DAYS));
+        if (userId.isPresent()) {
+            return new Rotation(newId, newRawToken, userId.get());
+        }
+
+        // Nothing was claimed - find out why
+        RefreshToken stored = repo.findByTokenHash(sha256(rawToken))
             .orElseThrow(() -> new InvalidTokenException("Unknown refresh token"));
 
         if (stored.isRevoked() || stored.isExpired()) {
@@ -56,49 +86,44 @@ public class RefreshTokenService {
         }
 
         // !! REUSE DETECTION - token already replaced = stolen token
-        if (stored.isReplaced()) {
-            revokeFamily(stored.getFamilyId());  // nuke entire chain
-            throw new TokenReusedException("Refresh token reuse detected - all sessions revoked");
-        }
-
-        return stored; // caller will now create new token and link it
+        revokeFamily(stored.getFamilyId());  // nuke entire chain
+        // access tokens minted from the stolen chain die with it
+        accessTokenRevocationService.revokeAllForUser(stored.getUser().getId());
+        throw new TokenReusedException("Refresh token reuse detected - all sessions revoked");
     }
 
-    public void markReplaced(RefreshToken old, String newTokenId) {
-        old.setReplacedBy(newTokenId);
-        repo.save(old);
+    // -- REVOKE ----------------------------------------------------------------
+    // Single set-based UPDATEs - nothing is loaded into the persistence context.
+    // Each returns the number of tokens revoked.
+
+    public int revokeToken(String rawToken) {
+        if (rawToken == null) return 0;
+        return repo.revokeByTokenHash(sha256(rawToken), LocalDateTime.now());
     }
 
-    // -- REVOKE ----------------------------------------------------------------
-    public void revokeToken(String rawToken) {
-        sha256lookup(rawToken).ifPresent(t -> {
-            t.setRevokedAt(LocalDateTime.now());
-            repo.save(t);
-        });
+    public int revokeFamily(String familyId) {
+        return repo.revokeByFamilyId(familyId, LocalDateTime.now());
     }
 
-    private Optional<RefreshToken> sha256lookup(String rawToken) {
-        try {
-            return repo.findByTokenHash(sha256(rawToken));
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+    public int revokeAllForUser(Long userId) {
+        return repo.revokeByUserId(userId, LocalDateTime.now());
     }
 
-    public void revokeFamily(String familyId) {
-        repo.findByFamilyId(familyId).forEach(t -> {
-            if (!t.isRevoked()) t.setRevokedAt(LocalDateTime.now());
-        });
-        repo.flush();
+    public int revokeAllForUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return 0;
+        return repo.revokeByUserIds(userIds, LocalDateTime.now());
     }
 
-    public void revokeAllForUser(User user) {
-        repo.findByUserAndRevokedAtIsNull(user).forEach(t ->
-            t.setRevokedAt(LocalDateTime.now()));
-        repo.flush();
+    public int revokeIssuedBefore(LocalDateTime before) {
+        return repo.revokeIssuedBefore(before, LocalDateTime.now());
     }
 
     // -- HELPERS ---------------------------------------------------------------
+    private static String newRawToken() {
+        return UUID.randomUUID().toString()   // opaque random value
+             + UUID.randomUUID().toString();  // extra entropy
+    }
+
     public static String sha256(String input) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -0,0 +1,87 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.dto.SessionRevocationResultDTO;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ResourceNotFoundException;
+import com.example.apiproject.security.AccessTokenRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Admin-driven session revocation. Refresh tokens are revoked with single
+ * set-based UPDATEs; access tokens are cut off through the not-before epochs
+ * of {@link AccessTokenRevocationService}.
+ */
+@Slf4j
+@Service
+public class SessionRevocationService {
+
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final UserDirectory userDirectory;
+
+    public SessionRevocationService(RefreshTokenService refreshTokenService,
+                                    AccessTokenRevocationService accessTokenRevocationService,
+                                    UserDirectory userDirectory) {
+        this.refreshTokenService = refreshTokenService;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.userDirectory = userDirectory;
+    }
+
+    /**
+     * Revoke one login session (a refresh token family)
+     */
+    public SessionRevocationResultDTO revokeFamily(String familyId) {
+        int revoked = refreshTokenService.revokeFamily(familyId);
+        log.warn("Revoked {} refresh token(s) of family {}", revoked, familyId);
+        return new SessionRevocationResultDTO(revoked, false);
+    }
+
+    /**
+     * Revoke every session of a user
+     */
+    public SessionRevocationResultDTO revokeUser(Long userId) {
+        userDirectory.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        int revoked = refreshTokenService.revokeAllForUser(userId);
+        accessTokenRevocationService.revokeAllForUser(userId);
+        log.warn("Revoked {} refresh token(s) and all access tokens of user {}", revoked, userId);
+        return new SessionRevocationResultDTO(revoked, true);
+    }
+
+    /**
+     * Revoke every session of each listed user (unknown ids are ignored)
+     */
+    public SessionRevocationResultDTO revokeUsers(Collection<Long> userIds) {
+        Set<Long> distinct = new LinkedHashSet<>(userIds);
+
+        int revoked = refreshTokenService.revokeAllForUsers(distinct);
+        accessTokenRevocationService.revokeAllForUsers(distinct);
+        log.warn("Revoked {} refresh token(s) and all access tokens of {} user(s)", revoked, distinct.size());
+        return new SessionRevocationResultDTO(revoked, true);
+    }
+
+    /**
+     * Revoke every session, of any user, issued before the given time
+     * (e.g. after a signing-key rotation)
+     */
+    public SessionRevocationResultDTO revokeIssuedBefore(LocalDateTime before) {
+        if (before.isAfter(LocalDateTime.now())) {
+            // A future cut-off would also lock out everyone logging in until then
+            throw new BadRequestException("Cut-off time must not be in the future");
+        }
+
+        int revoked = refreshTokenService.revokeIssuedBefore(before);
+        accessTokenRevocationService.revokeAllIssuedBefore(before.atZone(ZoneId.systemDefault()).toInstant());
+        log.warn("Revoked {} refresh token(s) and all access tokens issued before {}", revoked, before);
+        return new SessionRevocationResultDTO(revoked, true);
+    }
+}
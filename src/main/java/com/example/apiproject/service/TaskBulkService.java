@@ -0,0 +1,611 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.ActiveUserRoster;
+import com.example.apiproject.cache.TaskCache;
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserLoadIndex;
+import com.example.apiproject.cache.UserSnapshot;
+import com.example.apiproject.dto.AssigneeLoadDTO;
+import com.example.apiproject.dto.TaskBatchItemResultDTO;
+import com.example.apiproject.dto.TaskBatchResultDTO;
+import com.example.apiproject.dto.TaskBulkAssignDTO;
+import com.example.apiproject.dto.TaskBulkAssignResultDTO;
+import com.example.apiproject.dto.TaskBulkFilterDTO;
+import com.example.apiproject.dto.TaskBulkUpdateDTO;
+import com.example.apiproject.dto.TaskBulkUpdateResultDTO;
+import com.example.apiproject.dto.TaskRequestDTO;
+import com.example.apiproject.entity.AssignmentType;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ForbiddenException;
+import com.example.apiproject.exception.ResourceNotFoundException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.repository.UserTaskCount;
+import com.example.apiproject.security.AuthenticatedUser;
+import com.example.apiproject.util.SecurityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based task operations for clients that work on many tasks at once.
+ *
+ * - creation: one query for all referenced assignees, then the inserts in
+ *   JDBC batches (pooled sequence ids, hibernate.jdbc.batch_size)
+ * - status/priority updates: a single UPDATE ... RETURNING with the role
+ *   rules of {@link TaskService#updateTask} expressed as SQL predicates
+ * - assignment: roster and open-task counts loaded once, tasks distributed
+ *   in memory, assignments written as one JDBC batch
+ */
+@Service
+public class TaskBulkService {
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final SecurityUtils securityUtils;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TaskCache taskCache;
+    private final UserDirectory userDirectory;
+    private final UserLoadIndex userLoadIndex;
+    private final ActiveUserRoster activeUserRoster;
+    private final WorkloadService workloadService;
+    private final int maxAssignTasks;
+    private final int maxUpdateTasks;
+
+    public TaskBulkService(TaskRepository taskRepository,
+            UserRepository userRepository,
+            SecurityUtils securityUtils,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TaskCache taskCache,
+            UserDirectory userDirectory,
+            UserLoadIndex userLoadIndex,
+            ActiveUserRoster activeUserRoster,
+            WorkloadService workloadService,
+            @Value("${tasks.bulk-assign.max-tasks:1000}") int maxAssignTasks,
+            @Value("${tasks.bulk-update.max-tasks:1000}") int maxUpdateTasks) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.securityUtils = securityUtils;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskCache = taskCache;
+        this.userDirectory = userDirectory;
+        this.userLoadIndex = userLoadIndex;
+        this.activeUserRoster = activeUserRoster;
+        this.workloadService = workloadService;
+        this.maxAssignTasks = maxAssignTasks;
+        this.maxUpdateTasks = maxUpdateTasks;
+    }
+
+    /**
+     * Create many tasks in one transaction. Items are checked with the same
+     * rules as {@link TaskService#createTask}; an item referencing a missing
+     * or non-USER assignee, or one beyond the assignee's remaining WIP
+     * capacity, is rejected on its own, the others are created.
+     *
+     * @param requests Validated task requests
+     * @return One result per request, in request order
+     */
+    @Transactional
+    public TaskBatchResultDTO createTasks(List<TaskRequestDTO> requests) {
+        // Step 1: Resolve every referenced assignee in a single query
+        Set<Long> assigneeIds = requests.stream()
+                .map(TaskRequestDTO::getAssignedToUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> assignees = assigneeIds.isEmpty()
+                ? Map.of()
+                : userRepository.findAllById(assigneeIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // Step 2: Reference the currently logged-in user(manager) - no extra query
+        User creator = securityUtils.getCurrentUserReference();
+        Map<Long, Integer> capacity = workloadService.remainingCapacity(assignees.keySet());
+        Map<Long, Integer> reserved = new HashMap<>();
+
+        // Step 3: Build the entities, rejecting items with an invalid assignee
+        List<TaskBatchItemResultDTO> results = new ArrayList<>(requests.size());
+        List<Task> tasks = new ArrayList<>(requests.size());
+        List<Integer> taskIndexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TaskRequestDTO request = requests.get(i);
+            User assignee = null;
+            if (request.getAssignedToUserId() != null) {
+                assignee = assignees.get(request.getAssignedToUserId());
+                if (assignee == null) {
+                    results.add(TaskBatchItemResultDTO.rejected(i,
+                            "User not found with id: '" + request.getAssignedToUserId() + "'"));
+                    continue;
+                }
+                if (assignee.getRole() != Role.USER) {
+                    results.add(TaskBatchItemResultDTO.rejected(i, "Tasks can only be assigned to a user"));
+                    continue;
+                }
+                if (reserved.getOrDefault(assignee.getId(), 0) >= capacity.get(assignee.getId())) {
+                    results.add(TaskBatchItemResultDTO.rejected(i,
+                            "User " + assignee.getId() + " has reached their work-in-progress limit"));
+                    continue;
+                }
+                reserved.merge(assignee.getId(), 1, Integer::sum);
+            }
+
+            Task task = new Task();
+            task.setTitle(request.getTitle());
+            task.setDescription(request.getDescription());
+            task.setPriority(request.getPriority());
+            task.setStatus(TaskStatus.OPEN);
+            task.setCreatedBy(creator);
+            task.setAssignedTo(assignee);
+            tasks.add(task);
+            taskIndexes.add(i);
+            results.add(null); // filled in once the id is known
+        }
+
+        // Step 4: Take the WIP slots (fails the batch with 409 if a concurrent
+        // request used them up), then persist - ids come from the pooled
+        // sequence (one nextval per 50 tasks), the INSERTs are sent in JDBC
+        // batches at flush
+        workloadService.apply(reserved);
+        taskRepository.saveAll(tasks);
+        tasks.stream()
+                .filter(task -> task.getAssignedTo() != null)
+                .forEach(task -> userLoadIndex.taskMoved(null, task.getAssignedTo().getId(), true));
+
+        for (int t = 0; t < tasks.size(); t++) {
+            int index = taskIndexes.get(t);
+            results.set(index, TaskBatchItemResultDTO.created(index, tasks.get(t).getId()));
+        }
+
+        return new TaskBatchResultDTO(tasks.size(), requests.size() - tasks.size(), results);
+    }
+
+    /**
+     * Set the status and/or priority of many tasks in one statement.
+     * Same rules as a single update:
+     * - ADMIN: may not update tasks
+     * - MANAGER: any task, status and priority
+     * - USER: only tasks assigned to them, status only
+     *
+     * In filter mode at most tasks.bulk-update.max-tasks matching tasks are
+     * updated (lowest ids after request.afterId first), so the row locks,
+     * the RETURNING set and the cache evictions stay bounded; hasMore and
+     * nextAfterId tell the client where to continue.
+     *
+     * @param request Task ids or filter, plus the target values
+     * @return Updated ids, and requested ids that were not updated
+     */
+    @Transactional
+    public TaskBulkUpdateResultDTO updateTasks(TaskBulkUpdateDTO request) {
+        // Step 1: Validate the request shape
+        boolean byIds = request.getTaskIds() != null && !request.getTaskIds().isEmpty();
+        TaskBulkFilterDTO filter = request.getFilter();
+        if (byIds == (filter != null)) {
+            throw new BadRequestException("Provide either taskIds or filter");
+        }
+        if (filter != null && !filter.hasCriteria()) {
+            throw new BadRequestException("Filter needs at least one criterion");
+        }
+        if (request.getStatus() == null && request.getPriority() == null) {
+            throw new BadRequestException("Nothing to update: status or priority is required");
+        }
+        if (byIds && request.getAfterId() != null) {
+            throw new BadRequestException("afterId only applies to a filter selection");
+        }
+
+        // Step 2: Role checks that do not depend on the rows
+        AuthenticatedUser principal = securityUtils.getCurrentPrincipal();
+        Role role = principal.role();
+        if (role == Role.ADMIN) {
+            throw new ForbiddenException("Access denied: Admin cannot update tasks");
+        }
+        if (role == Role.USER && request.getPriority() != null) {
+            throw new ForbiddenException("Access denied: Users can only update task status");
+        }
+
+        // Step 3: Build the single UPDATE
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("currentUserId", principal.id())
+                .addValue("now", LocalDateTime.now());
+        List<String> assignments = new ArrayList<>();
+        if (request.getStatus() != null) {
+            assignments.add("status = :status");
+            params.addValue("status", request.getStatus().name());
+        }
+        if (request.getPriority() != null) {
+            assignments.add("priority = :priority");
+            params.addValue("priority", request.getPriority().name());
+        }
+        assignments.add("updated_by = :currentUserId");
+        assignments.add("updated_at = :now");
+        // Keep @Version in step so clients holding an older ETag get 412
+        assignments.add("version = version + 1");
+
+        List<String> predicates = new ArrayList<>();
+        if (byIds) {
+            predicates.add("id IN (:ids)");
+            params.addValue("ids", new HashSet<>(request.getTaskIds()));
+        } else {
+            addFilterPredicates(filter, predicates, params);
+            if (request.getAfterId() != null) {
+                predicates.add("id > :afterId");
+                params.addValue("afterId", request.getAfterId());
+            }
+        }
+        if (role == Role.USER) {
+            // Row-level rule: a USER only touches tasks assigned to them
+            predicates.add("user_id = :currentUserId");
+        }
+        String where = String.join(" AND ", predicates);
+
+        // The CTE locks the rows first (in id order, like every other bulk
+        // path) so the previous status it returns is the one actually
+        // overwritten (needed for the WIP counters); a filter takes one chunk
+        String limit = "";
+        if (!byIds) {
+            limit = " LIMIT :limit";
+            params.addValue("limit", maxUpdateTasks);
+        }
+        String sql = "WITH targets AS (SELECT id, status AS old_status FROM tasks WHERE "
+                + where + " ORDER BY id" + limit + " FOR UPDATE)"
+                + " UPDATE tasks t SET " + String.join(", ", assignments)
+                + " FROM targets WHERE t.id = targets.id"
+                + " RETURNING t.id, t.user_id, targets.old_status";
+
+        // Step 4: Run it and evict the changed tasks (now and after commit)
+        List<UpdatedRow> rows = jdbcTemplate.query(sql, params, (rs, rowNum) -> {
+            long assigneeId = rs.getLong("user_id");
+            return new UpdatedRow(rs.getLong("id"), rs.wasNull() ? null : assigneeId,
+                    !TaskStatus.DONE.name().equals(rs.getString("old_status")));
+        });
+        List<Long> updatedIds = rows.stream().map(UpdatedRow::id).toList();
+        taskCache.evictAll(updatedIds);
+
+        // Step 4b: Status moves between open and DONE change assignees' WIP
+        // counters (409 for the whole request if a reopen exceeds a limit)
+        if (request.getStatus() != null) {
+            boolean isOpen = request.getStatus() != TaskStatus.DONE;
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (UpdatedRow row : rows) {
+                if (row.assigneeId() != null && row.wasOpen() != isOpen) {
+                    deltas.merge(row.assigneeId(), isOpen ? 1 : -1, Integer::sum);
+                }
+                userLoadIndex.taskStatusChanged(row.assigneeId(), row.wasOpen(), isOpen);
+            }
+            workloadService.apply(deltas);
+        }
+
+        // Step 5: Anything requested but not returned was missing or not
+        // permitted; a full chunk may have more matching tasks after it
+        List<Long> rejectedIds = List.of();
+        Long nextAfterId = null;
+        if (byIds) {
+            Set<Long> updated = new HashSet<>(updatedIds);
+            rejectedIds = request.getTaskIds().stream()
+                    .distinct()
+                    .filter(id -> !updated.contains(id))
+                    .toList();
+        } else if (rows.size() == maxUpdateTasks) {
+            long lastId = Collections.max(updatedIds);
+            params.addValue("afterId", lastId);
+            String rest = request.getAfterId() != null ? where : where + " AND id > :afterId";
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM tasks WHERE " + rest + ")", params, Boolean.class))) {
+                nextAfterId = lastId;
+            }
+        }
+        return new TaskBulkUpdateResultDTO(updatedIds.size(), updatedIds, rejectedIds,
+                nextAfterId != null, nextAfterId);
+    }
+
+    /**
+     * SQL form of the TaskSpecifications filters used by GET /api/tasks
+     */
+    private void addFilterPredicates(TaskBulkFilterDTO filter, List<String> predicates,
+            MapSqlParameterSource params) {
+        if (filter.getStatus() != null) {
+            predicates.add("status = :filterStatus");
+            params.addValue("filterStatus", filter.getStatus().name());
+        }
+        if (filter.getPriority() != null) {
+            predicates.add("priority = :filterPriority");
+            params.addValue("filterPriority", filter.getPriority().name());
+        }
+        if (filter.getAssignedToUserId() != null) {
+            predicates.add("user_id = :filterAssignee");
+            params.addValue("filterAssignee", filter.getAssignedToUserId());
+        }
+        if (filter.getCreatedByUserId() != null) {
+            predicates.add("created_by = :filterCreator");
+            params.addValue("filterCreator", filter.getCreatedByUserId());
+        }
+    }
+
+    /**
+     * Assign many tasks in one pass.
+     * - LEAST_LOADED: each task goes to the user with the fewest open tasks
+     *   at that point (min-heap of loads, seeded from one GROUP BY query)
+     * - RANDOM: roster shuffled once, then dealt round-robin
+     * - ROUND_ROBIN: dealt in the rotation shared with single assignments
+     * - MANUAL: every task to request.userId
+     *
+     * Users at their WIP limit are skipped; tasks left over once every
+     * candidate is full stay as they are and are reported in rejectedIds.
+     *
+     * In filter mode at most tasks.bulk-assign.max-tasks unassigned tasks are
+     * taken (lowest ids first); rows locked by a concurrent bulk assignment
+     * are skipped rather than waited for.
+     *
+     * @param request Assignment type and the task selection
+     * @return The resulting distribution over users
+     */
+    @Transactional
+    public TaskBulkAssignResultDTO assignTasks(TaskBulkAssignDTO request) {
+        // Step 1: Validate the request shape
+        boolean byIds = request.getTaskIds() != null && !request.getTaskIds().isEmpty();
+        if (byIds == (request.getFilter() != null)) {
+            throw new BadRequestException("Provide either taskIds or filter");
+        }
+
+        // Step 2: Lock the selected tasks
+        List<AssignTarget> targets = byIds
+                ? lockTasksById(request.getTaskIds())
+                : lockUnassignedTasks(request.getFilter());
+
+        List<Long> rejectedIds = new ArrayList<>();
+        if (byIds) {
+            Set<Long> found = new HashSet<>();
+            targets.forEach(target -> found.add(target.id()));
+            request.getTaskIds().stream()
+                    .distinct()
+                    .filter(id -> !found.contains(id))
+                    .forEach(rejectedIds::add);
+        }
+        if (targets.isEmpty()) {
+            return new TaskBulkAssignResultDTO(0, List.of(), rejectedIds);
+        }
+
+        // Step 3: Roster and current loads - one query each
+        List<Long> roster = roster(request.getAssignmentType(), request.getUserId());
+        Map<Long, Long> loads = new HashMap<>();
+        roster.forEach(userId -> loads.put(userId, 0L));
+        for (UserTaskCount count : taskRepository.countOpenTasksByAssignee()) {
+            loads.computeIfPresent(count.getUserId(), (userId, zero) -> count.getOpenTasks());
+        }
+        // Tasks being reassigned no longer count for their current assignee
+        for (AssignTarget target : targets) {
+            if (target.open() && target.assigneeId() != null) {
+                loads.computeIfPresent(target.assigneeId(), (userId, load) -> load - 1);
+            }
+        }
+
+        // Step 4: Distribute in memory within the users' remaining WIP capacity
+        Map<Long, Integer> capacity = workloadService.remainingCapacity(roster);
+        Map<Long, Long> assignments = distribute(request.getAssignmentType(), targets, roster, loads, capacity);
+
+        // Step 4b: Move the WIP slots of open tasks that changed hands. The
+        // capacity above was a snapshot - apply() enforces the limits (409)
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (AssignTarget target : targets) {
+            Long userId = assignments.get(target.id());
+            if (userId == null) {
+                rejectedIds.add(target.id());
+                if (target.open() && target.assigneeId() != null) {
+                    // Not moved after all - still counts for its assignee
+                    loads.computeIfPresent(target.assigneeId(), (id, load) -> load + 1);
+                }
+            } else if (target.open() && !userId.equals(target.assigneeId())) {
+                deltas.merge(userId, 1, Integer::sum);
+                if (target.assigneeId() != null) {
+                    deltas.merge(target.assigneeId(), -1, Integer::sum);
+                }
+            }
+        }
+        workloadService.apply(deltas);
+
+        // Step 5: Persist as one JDBC batch and evict the changed tasks
+        Long currentUserId = securityUtils.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] batch = assignments.entrySet().stream()
+                .map(assignment -> new MapSqlParameterSource()
+                        .addValue("id", assignment.getKey())
+                        .addValue("userId", assignment.getValue())
+                        .addValue("updatedBy", currentUserId)
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "UPDATE tasks SET user_id = :userId, updated_by = :updatedBy, updated_at = :now,"
+                        + " version = version + 1 WHERE id = :id",
+                batch);
+        taskCache.evictAll(assignments.keySet());
+        for (AssignTarget target : targets) {
+            if (assignments.containsKey(target.id())) {
+                userLoadIndex.taskMoved(target.assigneeId(), assignments.get(target.id()), target.open());
+            }
+        }
+
+        // Step 6: Report the distribution
+        Map<Long, Integer> received = new TreeMap<>();
+        assignments.values().forEach(userId -> received.merge(userId, 1, Integer::sum));
+        List<AssigneeLoadDTO> distribution = received.entrySet().stream()
+                .map(entry -> new AssigneeLoadDTO(entry.getKey(), entry.getValue(), loads.get(entry.getKey())))
+                .toList();
+        return new TaskBulkAssignResultDTO(assignments.size(), distribution, rejectedIds);
+    }
+
+    /**
+     * Candidate assignees: the requested user for MANUAL, every active USER otherwise
+     */
+    private List<Long> roster(AssignmentType type, Long userId) {
+        if (type == AssignmentType.MANUAL) {
+            if (userId == null) {
+                throw new BadRequestException("UserId is required for MANUAL assignment");
+            }
+            UserSnapshot user = userDirectory.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            if (user.role() != Role.USER) {
+                throw new BadRequestException("Tasks can only be assigned to users with USER role");
+            }
+            return List.of(userId);
+        }
+        List<Long> roster = activeUserRoster.ids();
+        if (roster.isEmpty()) {
+            throw new BadRequestException("No active users available for assignment");
+        }
+        return roster;
+    }
+
+    /**
+     * Pick an assignee for every target, updating loads and capacity as it
+     * goes. A user who cannot take an open task has no capacity left and
+     * leaves the rotation; distribution stops once no candidate is left
+     *
+     * @return task id to user id, in target order (targets left over are absent)
+     */
+    private Map<Long, Long> distribute(AssignmentType type, List<AssignTarget> targets,
+            List<Long> roster, Map<Long, Long> loads, Map<Long, Integer> capacity) {
+        Map<Long, Long> assignments = new LinkedHashMap<>();
+        if (type == AssignmentType.LEAST_LOADED) {
+            // O(log n) per task: take the least-loaded user, add one, put them back
+            PriorityQueue<Long> heap = new PriorityQueue<>(
+                    Comparator.<Long>comparingLong(loads::get).thenComparing(Comparator.naturalOrder()));
+            heap.addAll(roster);
+            for (AssignTarget target : targets) {
+                Long userId = heap.poll();
+                while (userId != null && !fits(target, userId, capacity)) {
+                    userId = heap.poll();
+                }
+                if (userId == null) {
+                    break;
+                }
+                assign(assignments, loads, capacity, target, userId);
+                heap.offer(userId);
+            }
+            return assignments;
+        }
+
+        List<Long> order = new ArrayList<>();
+        if (type == AssignmentType.ROUND_ROBIN) {
+            // Continue the rotation shared with single assignments
+            PrimitiveIterator.OfLong rotation = activeUserRoster.rotation(targets.size());
+            while (rotation.hasNext()) {
+                order.add(rotation.nextLong());
+            }
+        } else {
+            // RANDOM: shuffle once, then deal round-robin (MANUAL has a single user)
+            order.addAll(roster);
+            Collections.shuffle(order);
+        }
+        int next = 0;
+        for (AssignTarget target : targets) {
+            Long userId = null;
+            while (userId == null && !order.isEmpty()) {
+                int slot = next % order.size();
+                if (fits(target, order.get(slot), capacity)) {
+                    userId = order.get(slot);
+                    next = slot + 1;
+                } else {
+                    order.remove(slot);
+                    next = slot;
+                }
+            }
+            if (userId == null) {
+                break;
+            }
+            assign(assignments, loads, capacity, target, userId);
+        }
+        return assignments;
+    }
+
+    /**
+     * Whether the user can take the target: DONE tasks and tasks they already
+     * hold need no WIP slot
+     */
+    private static boolean fits(AssignTarget target, Long userId, Map<Long, Integer> capacity) {
+        return !target.open() || userId.equals(target.assigneeId()) || capacity.getOrDefault(userId, 0) > 0;
+    }
+
+    private void assign(Map<Long, Long> assignments, Map<Long, Long> loads, Map<Long, Integer> capacity,
+            AssignTarget target, Long userId) {
+        assignments.put(target.id(), userId);
+        if (target.open()) {
+            loads.merge(userId, 1L, Long::sum);
+            if (!userId.equals(target.assigneeId())) {
+                capacity.merge(userId, -1, Integer::sum);
+            }
+        }
+    }
+
+    private List<AssignTarget> lockTasksById(List<Long> taskIds) {
+        return jdbcTemplate.query("""
+                SELECT id, user_id, status FROM tasks
+                WHERE id IN (:ids)
+                ORDER BY id
+                FOR UPDATE
+                """,
+                new MapSqlParameterSource("ids", new HashSet<>(taskIds)),
+                (rs, rowNum) -> toTarget(rs));
+    }
+
+    private List<AssignTarget> lockUnassignedTasks(TaskBulkFilterDTO filter) {
+        List<String> predicates = new ArrayList<>();
+        predicates.add("user_id IS NULL");
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", maxAssignTasks);
+        addFilterPredicates(filter, predicates, params);
+        return jdbcTemplate.query("SELECT id, user_id, status FROM tasks WHERE "
+                + String.join(" AND ", predicates)
+                + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                params,
+                (rs, rowNum) -> toTarget(rs));
+    }
+
+    private static AssignTarget toTarget(ResultSet rs) throws SQLException {
+        long assigneeId = rs.getLong("user_id");
+        Long assignee = rs.wasNull() ? null : assigneeId;
+        return new AssignTarget(rs.getLong("id"), assignee, !TaskStatus.DONE.name().equals(rs.getString("status")));
+    }
+
+    /**
+     * A task changed by a bulk update
+     *
+     * @param id         Task id
+     * @param assigneeId Assignee, null if unassigned
+     * @param wasOpen    Whether the task was open (not DONE) before the update
+     */
+    private record UpdatedRow(Long id, Long assigneeId, boolean wasOpen) {
+    }
+
+    /**
+     * A task selected for assignment
+     *
+     * @param id         Task id
+     * @param assigneeId Current assignee, null if unassigned
+     * @param open       Whether the task counts towards its assignee's load
+     */
+    private record AssignTarget(Long id, Long assigneeId, boolean open) {
+    }
+}
@@ -6,9 +6,16 @@ import com.example.apiproject.dto.TaskUpdateDTO;
 import com.example.apiproject.entity.AssignmentType;
 import com.example.apiproject.entity.TaskPriority;
 import com.example.apiproject.entity.TaskStatus;
-import org.springframework.data.domain.Page;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.ListETag;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TaskSortField;
+import com.example.apiproject.pagination.TotalMode;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Optional;
+import java.util.Set;
+
 public interface TaskService {
 
     /**
@@ -18,18 +25,51 @@ public interface TaskService {
 
     /**
      * Assigns a task to a user using the specified assignment strategy
+     *
+     * @param expectedVersion Version from If-Match, or null for no precondition
+     * @throws com.example.apiproject.exception.PreconditionFailedException if
+     *         the task is no longer at expectedVersion
+     */
+    TaskResponseDTO assignTask(Long taskId, Long userId, AssignmentType assignmentType, Long expectedVersion);
+
+    /**
+     * Claim the next task for the current user: the oldest OPEN, unassigned
+     * task of the highest priority available is assigned to them and set
+     * IN_PROGRESS, in one transaction
+     *
+     * @param priorities Priorities to consider, null or empty for all
+     * @return The claimed task, or empty if nothing is claimable
+     * @throws com.example.apiproject.exception.ConflictException if the user
+     *         is at their work-in-progress limit
      */
-    TaskResponseDTO assignTask(Long taskId, Long userId, AssignmentType assignmentType);
+    Optional<TaskResponseDTO> claimNextTask(Set<TaskPriority> priorities);
 
     /**
      * Get a task by ID (with role-based access control)
      */
     TaskResponseDTO getTaskById(Long id);
 
+    /**
+     * ETag of the task list with the given filters (same role rules as
+     * {@link #getAllTasks}).
+     *
+     * With withCount it is a count + sum(id) + sum(version) fingerprint of
+     * the filtered set, and the count comes back for use as the page's EXACT
+     * total. Without, nothing is counted: the tag follows the table-wide
+     * counter of committed task writes - for lists that asked for no exact
+     * total.
+     */
+    ListETag getTaskListETag(TaskStatus status, TaskPriority priority, Long assignedToUserId,
+            Long createdByUserId, boolean withCount);
+
     /**
      * Update a task's details (with role-based field restrictions)
+     *
+     * @param expectedVersion Version from If-Match, or null for no precondition
+     * @throws com.example.apiproject.exception.PreconditionFailedException if
+     *         the task is no longer at expectedVersion
      */
-    TaskResponseDTO updateTask(Long id, TaskUpdateDTO updateDTO);
+    TaskResponseDTO updateTask(Long id, TaskUpdateDTO updateDTO, Long expectedVersion);
 
     /**
      * Get all tasks with pagination, sorting, and optional filters.
@@ -40,9 +80,25 @@ public interface TaskService {
      * @param status           Optional filter by task status
      * @param priority         Optional filter by task priority
      * @param assignedToUserId Optional filter by assigned user ID
+     * @param createdByUserId  Optional filter by creator user ID
      * @param pageable         Pagination and sorting parameters
-     * @return Paged list of tasks
+     * @param totalMode        How (and whether) to compute the total
+     * @param countedTotal     Exact total already counted for this request
+     *                         ({@link ListETag#count()}), or null
+     * @return Page of tasks with the total of the requested kind
+     */
+    PageResult<TaskResponseDTO> getAllTasks(TaskStatus status, TaskPriority priority,
+            Long assignedToUserId, Long createdByUserId, Pageable pageable, TotalMode totalMode,
+            Long countedTotal);
+
+    /**
+     * Same filters and role rules as {@link #getAllTasks}, paginated by
+     * keyset: ascending by sortField then id, starting after the cursor.
+     *
+     * @param cursor Cursor from the previous page, null or blank for the first page
+     * @param size   Page size
+     * @return Page content and the cursor of the following page
      */
-    Page<TaskResponseDTO> getAllTasks(TaskStatus status, TaskPriority priority,
-            Long assignedToUserId, Pageable pageable);
+    KeysetPage<TaskResponseDTO> getTasksAfter(TaskStatus status, TaskPriority priority,
+            Long assignedToUserId, Long createdByUserId, TaskSortField sortField, String cursor, int size);
 }
@@ -1,5 +1,9 @@
 package com.example.apiproject.service;
 
+import com.example.apiproject.cache.TaskCache;
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserLoadIndex;
+import com.example.apiproject.cache.UserSnapshot;
 import com.example.apiproject.dto.TaskRequestDTO;
 import com.example.apiproject.dto.TaskResponseDTO;
 import com.example.apiproject.dto.TaskUpdateDTO;
@@ -10,30 +14,57 @@ import com.example.apiproject.entity.TaskStatus;
 import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.BadRequestException;
 import com.example.apiproject.exception.ForbiddenException;
+import com.example.apiproject.exception.PreconditionFailedException;
 import com.example.apiproject.exception.ResourceNotFoundException;
 import com.example.apiproject.mapper.TaskMapper;
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.ListETag;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TaskSortField;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.repository.KeysetQueryExecutor;
+import com.example.apiproject.repository.SetFingerprint;
+import com.example.apiproject.repository.SliceQueryExecutor;
 import com.example.apiproject.repository.TaskRepository;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
 import com.example.apiproject.entity.AssignmentType;
 import com.example.apiproject.service.strategy.TaskAssignmentStrategyFactory;
+import com.example.apiproject.util.ETagUtils;
 import com.example.apiproject.util.SecurityUtils;
 import com.specification.TaskSpecifications;
 
 import org.springframework.stereotype.Service;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 @Service
 public class TaskServiceImpl implements TaskService {
 
+    // Order in which claimers are served
+    private static final List<TaskPriority> CLAIM_ORDER = List.of(
+            TaskPriority.HIGH, TaskPriority.MEDIUM, TaskPriority.LOW);
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final TaskAssignmentStrategyFactory strategyFactory;
     private final TaskMapper taskMapper;
     private final SecurityUtils securityUtils;
+    private final UserDirectory userDirectory;
+    private final TaskCache taskCache;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final PagingService pagingService;
+    private final SliceQueryExecutor sliceQueryExecutor;
+    private final UserLoadIndex userLoadIndex;
+    private final WorkloadService workloadService;
 
     // Constructor Injection - Best Practice for Dependency Injection
     // Depends on factory to get the right strategy dynamically
@@ -41,12 +72,26 @@ public class TaskServiceImpl implements TaskService {
             UserRepository userRepository,
             TaskAssignmentStrategyFactory strategyFactory,
             TaskMapper taskMapper,
-            SecurityUtils securityUtils) {
+            SecurityUtils securityUtils,
+            UserDirectory userDirectory,
+            TaskCache taskCache,
+            KeysetQueryExecutor keysetQueryExecutor,
+            PagingService pagingService,
+            SliceQueryExecutor sliceQueryExecutor,
+            UserLoadIndex userLoadIndex,
+            WorkloadService workloadService) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.strategyFactory = strategyFactory;
         this.taskMapper = taskMapper;
         this.securityUtils = securityUtils;
+        this.userDirectory = userDirectory;
+        this.taskCache = taskCache;
+        this.keysetQueryExecutor = keysetQueryExecutor;
+        this.pagingService = pagingService;
+        this.sliceQueryExecutor = sliceQueryExecutor;
+        this.userLoadIndex = userLoadIndex;
+        this.workloadService = workloadService;
     }
 
     @Override
@@ -61,24 +106,28 @@ public class TaskServiceImpl implements TaskService {
         // Step 2: Set default values
         task.setStatus(TaskStatus.OPEN);
 
-        // Step 3: Get the currently logged-in user(manager)
-        User creator = securityUtils.getCurrentUser();
-        task.setCreatedBy(creator);
+        // Step 3: Reference the currently logged-in user(manager) - no extra query
+        task.setCreatedBy(securityUtils.getCurrentUserReference());
 
         // Step 4: If assignedToUserId is provided, find and assign the user
         if (request.getAssignedToUserId() != null) {
-            User assignedUser = userRepository.findById(request.getAssignedToUserId())
+            UserSnapshot assignedUser = userDirectory.findById(request.getAssignedToUserId())
                     .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getAssignedToUserId()));
-            if (assignedUser.getRole() != Role.USER) {
+            if (assignedUser.role() != Role.USER) {
                 throw new BadRequestException("Tasks can only be assigned to a user");
             }
-            task.setAssignedTo(assignedUser);
+            // New tasks are open: take a WIP slot (409 at the limit)
+            workloadService.reserve(assignedUser.id());
+            task.setAssignedTo(userRepository.getReferenceById(assignedUser.id()));
         }
 
         // Note: createdAt and updatedAt are set automatically by @PrePersist
 
         // Step 5: Save the entity using repository
         Task savedTask = taskRepository.save(task);
+        if (savedTask.getAssignedTo() != null) {
+            userLoadIndex.taskMoved(null, savedTask.getAssignedTo().getId(), true);
+        }
 
         // Step 6: Convert to DTO using mapper
         return taskMapper.toResponseDTO(savedTask);
@@ -86,10 +135,20 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     @Transactional
-    public TaskResponseDTO assignTask(Long taskId, Long userId, AssignmentType assignmentType) {
-        // Step 1: Find task by ID, throw exception if not found
-        Task task = taskRepository.findById(taskId)
+    public TaskResponseDTO assignTask(Long taskId, Long userId, AssignmentType assignmentType,
+            Long expectedVersion) {
+        // Step 1: Find task by ID (with its users, mapped below), throw exception
+        // if not found. Then the conditional UPDATE on the version just read:
+        // it locks the task row before any WIP counter (the order of every
+        // write path), and a write that got in first fails this one with 412
+        Task task = taskRepository.findWithUsersById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        checkVersion(task, expectedVersion);
+        if (taskRepository.claimIfUnchanged(taskId, task.getVersion()) == 0) {
+            throw modified(task);
+        }
+
+        Long previousAssigneeId = task.getAssignedTo() != null ? task.getAssignedTo().getId() : null;
 
         // Step 2: Get the appropriate strategy from factory
         // Factory pattern enables dynamic strategy selection without modifying this
@@ -98,27 +157,74 @@ public class TaskServiceImpl implements TaskService {
 
         // Step 3: Use selected strategy to assign task
         // Each strategy handles its own validation (e.g., userId requirement)
+        // and moves the task's WIP slot to the user it picks
         strategy.assign(task, userId);
+        Long newAssigneeId = task.getAssignedTo() != null ? task.getAssignedTo().getId() : null;
 
-        // Step 4: Save the updated task
-        Task updatedTask = taskRepository.save(task);
+        // Step 4: Save the updated task - flushed now, so the response carries
+        // the new version (the row is ours, the versioned UPDATE cannot miss)
+        Task updatedTask = taskRepository.saveAndFlush(task);
+        taskCache.evict(taskId);
+        userLoadIndex.taskMoved(previousAssigneeId, newAssigneeId, updatedTask.getStatus() != TaskStatus.DONE);
 
         // Step 5: Convert to DTO and return
         return taskMapper.toResponseDTO(updatedTask);
     }
 
     @Override
-    @Cacheable(value = "tasks", key = "#id")
+    @Transactional
+    public Optional<TaskResponseDTO> claimNextTask(Set<TaskPriority> priorities) {
+        Long userId = securityUtils.getCurrentUserId();
+
+        // Step 1: Lock the oldest claimable task, highest priority first. Rows
+        // held by concurrent claimers are skipped, so each one gets its own
+        Optional<Long> claimedId = Optional.empty();
+        for (TaskPriority priority : CLAIM_ORDER) {
+            if (priorities == null || priorities.isEmpty() || priorities.contains(priority)) {
+                claimedId = taskRepository.lockNextClaimable(priority.name());
+                if (claimedId.isPresent()) {
+                    break;
+                }
+            }
+        }
+        if (claimedId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Step 2: Take a WIP slot (409 at the limit, which also gives the task
+        // back) - after the task row, the lock order of every write path
+        workloadService.reserve(userId);
+
+        // Step 3: Assign it to the caller and start it. The row is already ours,
+        // so the versioned UPDATE cannot fail; managers editing it meanwhile
+        // get 412
+        Long taskId = claimedId.get();
+        Task task = taskRepository.findWithUsersById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        User currentUser = securityUtils.getCurrentUserReference();
+        task.setAssignedTo(currentUser);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setUpdatedBy(currentUser);
+
+        Task claimedTask = taskRepository.saveAndFlush(task);
+        taskCache.evict(taskId);
+        userLoadIndex.taskMoved(null, userId, true);
+
+        // Step 4: Convert to DTO and return
+        return Optional.of(taskMapper.toResponseDTO(claimedTask));
+    }
+
+    @Override
     public TaskResponseDTO getTaskById(Long id) {
-        // Step 1: Find task by ID, throw exception if not found
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
+        // Step 1: Find task by ID (served from the task cache when possible),
+        // throw exception if not found
+        TaskResponseDTO task = taskCache.get(id, this::loadTask);
 
-        // Step 2: Get current user
-        User currentUser = securityUtils.getCurrentUser();
+        // Step 2: Get current user (from the token, no database lookup)
+        AuthenticatedUser currentUser = securityUtils.getCurrentPrincipal();
 
         // Step 3: Authorization check based on role
-        Role role = currentUser.getRole();
+        Role role = currentUser.role();
 
         if (role == Role.ADMIN || role == Role.MANAGER) {
             // Admin can view any task
@@ -126,26 +232,52 @@ public class TaskServiceImpl implements TaskService {
             // No restrictions
         } else if (role == Role.USER) {
             // User can only view tasks assigned to them
-            boolean isAssignee = task.getAssignedTo() != null
-                    && task.getAssignedTo().getId().equals(currentUser.getId());
+            // (checked on every call - cached views are shared by all callers)
+            boolean isAssignee = currentUser.id().equals(task.getAssignedUserId());
             if (!isAssignee) {
                 throw new ForbiddenException("Access denied: Users can only view tasks assigned to them");
             }
         }
 
+        return task;
+    }
+
+    /**
+     * If-Match check against the version just read (no lock taken - the
+     * conditional UPDATE that follows catches anything that changes after
+     * this read)
+     */
+    private void checkVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new PreconditionFailedException("Task " + task.getId() + " has been modified (current version "
+                    + task.getVersion() + ", expected " + expectedVersion + ")");
+        }
+    }
+
+    private static PreconditionFailedException modified(Task task) {
+        return new PreconditionFailedException("Task " + task.getId() + " has been modified (version "
+                + task.getVersion() + " is no longer current)");
+    }
+
+    private TaskResponseDTO loadTask(Long id) {
+        Task task = taskRepository.findWithUsersById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
         return taskMapper.toResponseDTO(task);
     }
 
     @Override
     @Transactional
-    public TaskResponseDTO updateTask(Long id, TaskUpdateDTO updateDTO) {
-        // Step 1: Find the task by ID
-        Task task = taskRepository.findById(id)
+    public TaskResponseDTO updateTask(Long id, TaskUpdateDTO updateDTO, Long expectedVersion) {
+        // Step 1: Find the task by ID (with its users, mapped below)
+        Task task = taskRepository.findWithUsersById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
 
+        TaskStatus previousStatus = task.getStatus();
+
         // Step 2: Get current user and check role
-        User currentUser = securityUtils.getCurrentUser();
-        Role role = currentUser.getRole();
+        AuthenticatedUser principal = securityUtils.getCurrentPrincipal();
+        Role role = principal.role();
+        User currentUser = securityUtils.getCurrentUserReference();
 
         // Step 3: Role-based update logic
         if (role == Role.ADMIN) {
@@ -171,7 +303,7 @@ public class TaskServiceImpl implements TaskService {
         } else if (role == Role.USER) {
             // Regular users can ONLY update status of tasks assigned to them
             boolean isAssignee = task.getAssignedTo() != null
-                    && task.getAssignedTo().getId().equals(currentUser.getId());
+                    && task.getAssignedTo().getId().equals(principal.id());
 
             if (!isAssignee) {
                 throw new ForbiddenException("Access denied: Users can only update tasks assigned to them");
@@ -187,41 +319,131 @@ public class TaskServiceImpl implements TaskService {
             }
         }
 
-        // Step 4: Save the updated task (updatedAt will be set automatically by
-        // @PreUpdate)
-        Task updatedTask = taskRepository.save(task);
+        // Step 4: Reject a stale write, then save (updatedAt will be set
+        // automatically by @PreUpdate). Flushed now, as the first statement of
+        // the write: a concurrent write that lands between our read and this
+        // UPDATE ... WHERE version = ? makes it match no row, which surfaces as
+        // 412 instead of a lost update - and it locks the task row before the
+        // WIP counter below, the order of every write path
+        checkVersion(task, expectedVersion);
+        Task updatedTask = taskRepository.saveAndFlush(task);
+
+        // Step 4b: Keep the assignee's WIP counter in step - completing frees a
+        // slot, reopening takes one (409 at the limit, rolling the UPDATE back)
+        boolean wasOpen = previousStatus != TaskStatus.DONE;
+        boolean isOpen = updatedTask.getStatus() != TaskStatus.DONE;
+        if (updatedTask.getAssignedTo() != null && wasOpen != isOpen) {
+            if (isOpen) {
+                workloadService.reserve(updatedTask.getAssignedTo().getId());
+            } else {
+                workloadService.release(updatedTask.getAssignedTo().getId());
+            }
+        }
+        taskCache.evict(id);
+        if (updatedTask.getAssignedTo() != null) {
+            userLoadIndex.taskStatusChanged(updatedTask.getAssignedTo().getId(),
+                    previousStatus != TaskStatus.DONE, updatedTask.getStatus() != TaskStatus.DONE);
+        }
 
         // Step 5: Convert to DTO and return
         return taskMapper.toResponseDTO(updatedTask);
     }
 
     @Override
-    public Page<TaskResponseDTO> getAllTasks(TaskStatus status, TaskPriority priority,
-            Long assignedToUserId, Pageable pageable) {
-        User currentUser = securityUtils.getCurrentUser();
-        Role role = currentUser.getRole();
+    public PageResult<TaskResponseDTO> getAllTasks(TaskStatus status, TaskPriority priority,
+            Long assignedToUserId, Long createdByUserId, Pageable pageable, TotalMode totalMode,
+            Long countedTotal) {
+        Long assignee = visibleAssignee(assignedToUserId);
+        Specification<Task> spec = taskFilter(status, priority, assignee, createdByUserId);
+
+        // Same filters by column, for the count cache key and row estimates
+        Map<String, Object> filters = new HashMap<>();
+        if (status != null) {
+            filters.put("status", status);
+        }
+        if (priority != null) {
+            filters.put("priority", priority);
+        }
+        if (assignee != null) {
+            filters.put("user_id", assignee);
+        }
+        if (createdByUserId != null) {
+            filters.put("created_by", createdByUserId);
+        }
 
-        // 1. Start with a base specification
-        Specification<Task> spec = Specification.where(null);
+        // 4. Page query with the users joined in; the total only as requested
+        PageResult<Task> tasks = pagingService.findPage(Task.class, "tasks", spec, filters, pageable, totalMode,
+                countedTotal, "assignedTo", "createdBy", "updatedBy");
 
-        // 2. Add Global Filters (Status and Priority apply to everyone)
-        spec = spec.and(TaskSpecifications.hasStatus(status))
-                .and(TaskSpecifications.hasPriority(priority));
+        return tasks.map(taskMapper::toResponseDTO);
+    }
+
+    @Override
+    public ListETag getTaskListETag(TaskStatus status, TaskPriority priority, Long assignedToUserId,
+            Long createdByUserId, boolean withCount) {
+        // The role-adjusted assignee is part of the tag: the same URL lists
+        // different tasks for different USERs
+        Long assignee = visibleAssignee(assignedToUserId);
+        if (!withCount) {
+            // Any committed write to any task moves the table-wide change
+            // counter (16 rows) - updated_at alone would not, as it is
+            // stamped before commit and not in commit order
+            return new ListETag(ETagUtils.of("tasks", assignee, taskRepository.countCommittedChanges()), null);
+        }
+        SetFingerprint fingerprint = sliceQueryExecutor.fingerprint(Task.class,
+                taskFilter(status, priority, assignee, createdByUserId));
+        return new ListETag(ETagUtils.of("tasks", assignee, fingerprint.count(), fingerprint.idSum(),
+                fingerprint.versionSum()),
+                fingerprint.count());
+    }
+
+    @Override
+    public KeysetPage<TaskResponseDTO> getTasksAfter(TaskStatus status, TaskPriority priority,
+            Long assignedToUserId, Long createdByUserId, TaskSortField sortField, String cursor, int size) {
+        // Validate the cursor before touching the database
+        KeysetCursor after = KeysetCursor.decode(cursor, sortField);
+
+        Specification<Task> spec = taskFilter(status, priority, visibleAssignee(assignedToUserId), createdByUserId);
+
+        // One statement: filters + seek predicate, LIMIT size + 1, users joined in
+        KeysetPage<Task> tasks = keysetQueryExecutor.findPage(Task.class, spec, sortField, after, size,
+                "assignedTo", "createdBy", "updatedBy");
+
+        return tasks.map(taskMapper::toResponseDTO);
+    }
+
+    /**
+     * Assignee filter with role-based visibility applied
+     */
+    private Long visibleAssignee(Long assignedToUserId) {
+        AuthenticatedUser currentUser = securityUtils.getCurrentPrincipal();
+        Role role = currentUser.role();
 
-        // 3. Apply Role-Based Logic
         if (role == Role.ADMIN || role == Role.MANAGER) {
             // Admins/Managers can filter by ANY user ID provided in the request
-            spec = spec.and(TaskSpecifications.isAssignedTo(assignedToUserId));
-        } else {
-            // REGULAR USERS: Force the filter to THEIR own ID only.
-            // They cannot see other people's tasks even if they send a different
-            // assignedToUserId
-            spec = spec.and(TaskSpecifications.isAssignedTo(currentUser.getId()));
+            return assignedToUserId;
         }
+        // REGULAR USERS: Force the filter to THEIR own ID only.
+        // They cannot see other people's tasks even if they send a different
+        // assignedToUserId
+        return currentUser.id();
+    }
 
-        // 4. Single Repository Call
-        Page<Task> tasks = taskRepository.findAll(spec, pageable);
+    /**
+     * Filters shared by all list modes
+     */
+    private Specification<Task> taskFilter(TaskStatus status, TaskPriority priority, Long assignee,
+            Long createdByUserId) {
+        // 1. Start with a base specification
+        Specification<Task> spec = Specification.where(null);
 
-        return tasks.map(taskMapper::toResponseDTO);
+        // 2. Add Global Filters (Status and Priority apply to everyone)
+        spec = spec.and(TaskSpecifications.hasStatus(status))
+                .and(TaskSpecifications.hasPriority(priority));
+
+        // 3. Apply the (role-adjusted) assignee filter and the creator filter.
+        // A USER may narrow their own tasks by creator, never widen them
+        return spec.and(TaskSpecifications.isAssignedTo(assignee))
+                .and(TaskSpecifications.hasCreatedBy(createdByUserId));
     }
 }
@@ -3,24 +3,39 @@ package com.example.apiproject.service;
 import com.example.apiproject.dto.PasswordUpdateDTO;
 import com.example.apiproject.dto.UserAdminDTO;
 import com.example.apiproject.dto.UserProfileDTO;
+import com.example.apiproject.dto.UserWorkloadDTO;
 import com.example.apiproject.entity.Role;
-import org.springframework.data.domain.Page;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.pagination.UserSortField;
 import org.springframework.data.domain.Pageable;
 
 public interface UserService {
 
     /**
      * Get all users with pagination and optional filters.
-     * - ADMIN: all users with full details (returns Page<UserAdminDTO>)
+     * - ADMIN: all users with full details (returns PageResult<UserAdminDTO>)
      * - MANAGER: only active USERs with limited details (returns
-     * Page<UserSummaryDTO>)
+     * PageResult<UserSummaryDTO>)
      *
-     * @param role     Optional filter by role (ADMIN view only)
-     * @param isActive Optional filter by active status (ADMIN view only)
-     * @param pageable Pagination and sorting parameters
+     * @param role      Optional filter by role (ADMIN view only)
+     * @param isActive  Optional filter by active status (ADMIN view only)
+     * @param pageable  Pagination and sorting parameters
+     * @param totalMode How (and whether) to compute the total
      * @return Paged list of users (type varies by caller's role)
      */
-    Page<?> getAllUsers(Role role, Boolean isActive, Pageable pageable);
+    PageResult<?> getAllUsers(Role role, Boolean isActive, Pageable pageable, TotalMode totalMode);
+
+    /**
+     * Same filters and role rules as {@link #getAllUsers}, paginated by
+     * keyset: ascending by sortField then id, starting after the cursor.
+     *
+     * @param cursor Cursor from the previous page, null or blank for the first page
+     * @param size   Page size
+     * @return Page content (type varies by caller's role) and the next cursor
+     */
+    KeysetPage<?> getUsersAfter(Role role, Boolean isActive, UserSortField sortField, String cursor, int size);
 
     /**
      * Update a user's role (Admin only)
@@ -41,4 +56,10 @@ public interface UserService {
      * Toggle user active status (Admin only)
      */
     UserAdminDTO toggleUserStatus(Long id, Boolean isActive);
+
+    /**
+     * Set a user's work-in-progress limit, or with null go back to the
+     * default (Admin only)
+     */
+    UserWorkloadDTO updateWipLimit(Long id, Integer wipLimit);
 }
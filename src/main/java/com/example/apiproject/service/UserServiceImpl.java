@@ -1,21 +1,36 @@
 package com.example.apiproject.service;
 
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserRosterChangedEvent;
+import com.example.apiproject.cache.UserSnapshot;
 import com.example.apiproject.dto.*;
 import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.BadRequestException;
 import com.example.apiproject.exception.ResourceNotFoundException;
+import com.example.apiproject.exception.ServiceUnavailableException;
 import com.example.apiproject.exception.UnauthorizedException;
 import com.example.apiproject.mapper.UserMapper;
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.pagination.UserSortField;
+import com.example.apiproject.repository.KeysetQueryExecutor;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AccessTokenRevocationService;
 import com.example.apiproject.util.SecurityUtils;
 import com.specification.UserSpecifications;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserServiceImpl implements UserService {
 
@@ -23,61 +38,111 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final SecurityUtils securityUtils;
+    private final UserDirectory userDirectory;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final PagingService pagingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WorkloadService workloadService;
 
     public UserServiceImpl(UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             UserMapper userMapper,
-            SecurityUtils securityUtils) {
+            SecurityUtils securityUtils,
+            UserDirectory userDirectory,
+            AccessTokenRevocationService accessTokenRevocationService,
+            KeysetQueryExecutor keysetQueryExecutor,
+            PagingService pagingService,
+            ApplicationEventPublisher eventPublisher,
+            WorkloadService workloadService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
         this.securityUtils = securityUtils;
+        this.userDirectory = userDirectory;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+        this.keysetQueryExecutor = keysetQueryExecutor;
+        this.pagingService = pagingService;
+        this.eventPublisher = eventPublisher;
+        this.workloadService = workloadService;
     }
 
     @Override
-    public Page<?> getAllUsers(Role role, Boolean isActive, Pageable pageable) {
-        User currentUser = securityUtils.getCurrentUser();
-
-        // 1. Start with a base specification
-        Specification<User> spec = Specification.where(null);
-
-        if (currentUser.getRole() == Role.MANAGER) {
-            // MANAGER: always locked to active USER-role accounts, request params ignored
-            spec = spec.and(UserSpecifications.hasRole(Role.USER))
-                       .and(UserSpecifications.isActive(true));
-            Page<User> users = userRepository.findAll(spec, pageable);
-            return users.map(userMapper::toSummaryDTO);
+    public PageResult<?> getAllUsers(Role role, Boolean isActive, Pageable pageable, TotalMode totalMode) {
+        Role currentRole = securityUtils.getCurrentUserRole();
+        boolean manager = currentRole == Role.MANAGER;
+
+        // MANAGER: always locked to active USER-role accounts, request params ignored
+        Role roleFilter = manager ? Role.USER : role;
+        Boolean activeFilter = manager ? Boolean.TRUE : isActive;
+
+        // 1. Build the specification, and the same filters by column for the
+        // count cache key and row estimates
+        Specification<User> spec = Specification.where(UserSpecifications.hasRole(roleFilter))
+                .and(UserSpecifications.isActive(activeFilter));
+        Map<String, Object> filters = new HashMap<>();
+        if (roleFilter != null) {
+            filters.put("role", roleFilter);
+        }
+        if (activeFilter != null) {
+            filters.put("is_active", activeFilter);
+        }
+
+        // 2. Page query; the total only as requested
+        PageResult<User> users = pagingService.findPage(User.class, "users", spec, filters, pageable, totalMode);
+
+        // 3. MANAGER gets the summary view, ADMIN the full one
+        return manager ? users.map(userMapper::toSummaryDTO) : users.map(userMapper::toAdminDTO);
+    }
+
+    @Override
+    public KeysetPage<?> getUsersAfter(Role role, Boolean isActive, UserSortField sortField, String cursor, int size) {
+        Role currentRole = securityUtils.getCurrentUserRole();
+        KeysetCursor after = KeysetCursor.decode(cursor, sortField);
+
+        if (currentRole == Role.MANAGER) {
+            // MANAGER: same lock-down as the offset mode
+            Specification<User> spec = Specification.where(UserSpecifications.hasRole(Role.USER))
+                    .and(UserSpecifications.isActive(true));
+            return keysetQueryExecutor.findPage(User.class, spec, sortField, after, size)
+                    .map(userMapper::toSummaryDTO);
         } else {
-            // ADMIN: sees all users with optional role and isActive filters
-            spec = spec.and(UserSpecifications.hasRole(role))
-                       .and(UserSpecifications.isActive(isActive));
-            Page<User> users = userRepository.findAll(spec, pageable);
-            return users.map(userMapper::toAdminDTO);
+            Specification<User> spec = Specification.where(UserSpecifications.hasRole(role))
+                    .and(UserSpecifications.isActive(isActive));
+            return keysetQueryExecutor.findPage(User.class, spec, sortField, after, size)
+                    .map(userMapper::toAdminDTO);
         }
     }
 
     @Override
+    @Transactional
     public UserAdminDTO updateUserRole(Long id, Role newRole) {
-        User user = userRepository.findById(id)
+        // One UPDATE sets the role and invalidates access tokens that still
+        // carry the old one; the row stays locked until commit, so the re-read
+        // below returns exactly this change
+        if (userRepository.updateRole(id, newRole) == 0) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        User updatedUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-
-        user.setRole(newRole);
-        User updatedUser = userRepository.save(user);
+        userDirectory.evict(id, updatedUser.getEmail());
+        // The set of assignable users may have changed
+        eventPublisher.publishEvent(new UserRosterChangedEvent(id));
 
         return userMapper.toAdminDTO(updatedUser);
     }
 
     @Override
     public UserProfileDTO getUserProfile(String email) {
-        User user = userRepository.findByEmail(email)
+        UserSnapshot user = userDirectory.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
 
         return userMapper.toProfileDTO(user);
     }
 
     @Override
-    @Transactional
     public String updatePassword(String email, PasswordUpdateDTO passwordDTO) {
+        // The current hash comes from the database - the user cache holds none
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
 
@@ -86,21 +151,43 @@ public class UserServiceImpl implements UserService {
             throw new UnauthorizedException("Current password is incorrect");
         }
 
-        // Update to new password
-        user.setPassword(passwordEncoder.encode(passwordDTO.getNewPassword()));
-        userRepository.save(user);
+        // Update to new password - hashing and verification run outside any
+        // transaction; only the single UPDATE below takes a connection
+        userRepository.updatePassword(user.getId(), passwordEncoder.encode(passwordDTO.getNewPassword()));
+        userDirectory.evict(user.getId(), user.getEmail());
 
         return "Password updated successfully";
     }
 
     @Override
+    // Keep the deactivation when the revocation could not be shared (503)
+    @Transactional(noRollbackFor = ServiceUnavailableException.class)
     public UserAdminDTO toggleUserStatus(Long id, Boolean isActive) {
-        User user = userRepository.findById(id)
+        // Status and security version change in one UPDATE (see updateUserRole)
+        if (userRepository.updateActive(id, isActive) == 0) {
+            throw new ResourceNotFoundException("User", "id", id);
+        }
+        User updatedUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
-
-        user.setIsActive(isActive);
-        User updatedUser = userRepository.save(user);
+        userDirectory.evict(id, updatedUser.getEmail());
+        eventPublisher.publishEvent(new UserRosterChangedEvent(id));
+        if (!isActive) {
+            // Deactivation takes effect immediately on every node
+            accessTokenRevocationService.revokeAllForUser(id);
+        }
 
         return userMapper.toAdminDTO(updatedUser);
     }
+
+    @Override
+    public UserWorkloadDTO updateWipLimit(Long id, Integer wipLimit) {
+        UserSnapshot user = userDirectory.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        if (user.role() != Role.USER) {
+            throw new BadRequestException("WIP limits only apply to users with USER role");
+        }
+
+        // Takes effect for the next reservation; tasks already held are kept
+        return workloadService.updateLimit(id, wipLimit);
+    }
 }
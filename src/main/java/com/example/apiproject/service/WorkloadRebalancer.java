@@ -0,0 +1,342 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.TaskCache;
+import com.example.apiproject.cache.UserLoadIndex;
+import com.example.apiproject.dto.RebalanceResultDTO;
+import com.example.apiproject.dto.TaskMoveDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Spreads open (non-DONE) tasks evenly over the active USERs.
+ *
+ * - loads: the active USER ids plus one GROUP BY over the open tasks
+ *   (open and not-yet-started counts per assignee)
+ * - plan, in memory: tasks held by inactive or non-USER accounts are handed
+ *   off first, each to the least-loaded user; then the most-loaded user gives
+ *   to the least-loaded one while either is outside
+ *   [mean - tolerance, mean + tolerance]. Every move removes part of a band
+ *   violation, so no move is wasted. Two sorted sets keep each step
+ *   O(log n), the whole plan O((users + moves) log users)
+ * - apply: the tasks behind the plan are locked (SKIP LOCKED), re-checked
+ *   and moved with one JDBC batch; WIP counters, task cache and load index
+ *   follow as for a bulk assignment
+ *
+ * Active users only give tasks they have not started (OPEN) and never
+ * receive beyond their WIP limit. Handed-off tasks go back to OPEN. A run
+ * moves at most tasks.rebalance.max-moves tasks; the next run continues
+ * (orphansLeft tells the scheduler whether a hand-off is still owed).
+ */
+@Slf4j
+@Service
+public class WorkloadRebalancer {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final WorkloadService workloadService;
+    private final TaskCache taskCache;
+    private final UserLoadIndex userLoadIndex;
+    private final int tolerance;
+    private final int maxMoves;
+
+    public WorkloadRebalancer(NamedParameterJdbcTemplate jdbcTemplate,
+            UserRepository userRepository,
+            WorkloadService workloadService,
+            TaskCache taskCache,
+            UserLoadIndex userLoadIndex,
+            @Value("${tasks.rebalance.tolerance:2}") int tolerance,
+            @Value("${tasks.rebalance.max-moves:1000}") int maxMoves) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.workloadService = workloadService;
+        this.taskCache = taskCache;
+        this.userLoadIndex = userLoadIndex;
+        this.tolerance = tolerance;
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Plan a rebalance and, unless dryRun, apply it in one transaction
+     *
+     * @param dryRun Only return the plan, change nothing
+     * @return The band, and the moves made (or planned)
+     * @throws com.example.apiproject.exception.ConflictException if a receiver
+     *         reached their WIP limit concurrently (nothing is moved)
+     */
+    @Transactional
+    public RebalanceResultDTO rebalance(boolean dryRun) {
+        // Step 1: Active USERs and every assignee's open load - one query each
+        Set<Long> active = new HashSet<>(userRepository.findActiveIdsByRole(Role.USER));
+        List<AssigneeLoad> loads = jdbcTemplate.query("""
+                SELECT user_id, count(*) AS open_tasks,
+                       count(*) FILTER (WHERE status = 'OPEN') AS not_started
+                FROM tasks
+                WHERE status <> 'DONE' AND user_id IS NOT NULL
+                GROUP BY user_id
+                """,
+                (rs, rowNum) -> new AssigneeLoad(rs.getLong("user_id"), rs.getInt("open_tasks"),
+                        rs.getInt("not_started")));
+
+        // Step 2: Plan in memory
+        Plan plan = plan(active, loads, workloadService.remainingCapacity(active), tolerance, maxMoves);
+
+        // Step 3: Pick the tasks behind the planned moves
+        List<TaskMoveDTO> moves = pickTasks(plan.transfers());
+        if (dryRun || moves.isEmpty()) {
+            return result(plan, dryRun, moves, active);
+        }
+
+        // Step 4: Lock the picked tasks - rows held by concurrent writers are
+        // skipped - and keep the moves whose task is still where it was planned
+        Map<Long, LockedTask> locked = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT id, user_id, status FROM tasks
+                WHERE id IN (:ids)
+                ORDER BY id
+                FOR UPDATE SKIP LOCKED
+                """,
+                new MapSqlParameterSource("ids", moves.stream().map(TaskMoveDTO::getTaskId).toList()),
+                rs -> {
+                    long assigneeId = rs.getLong("user_id");
+                    locked.put(rs.getLong("id"), new LockedTask(rs.wasNull() ? null : assigneeId,
+                            TaskStatus.valueOf(rs.getString("status"))));
+                });
+        List<TaskMoveDTO> applied = moves.stream()
+                .filter(move -> stillMovable(locked.get(move.getTaskId()), move, active))
+                .toList();
+        if (applied.isEmpty()) {
+            return result(plan, false, applied, active);
+        }
+
+        // Step 5: Move the WIP slots (in user id order), then the tasks as one
+        // JDBC batch, and evict the changed tasks
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (TaskMoveDTO move : applied) {
+            deltas.merge(move.getToUserId(), 1, Integer::sum);
+            deltas.merge(move.getFromUserId(), -1, Integer::sum);
+        }
+        workloadService.apply(deltas);
+
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] batch = applied.stream()
+                .map(move -> new MapSqlParameterSource()
+                        .addValue("id", move.getTaskId())
+                        .addValue("userId", move.getToUserId())
+                        .addValue("now", now))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "UPDATE tasks SET user_id = :userId, status = 'OPEN', updated_at = :now,"
+                        + " version = version + 1 WHERE id = :id",
+                batch);
+        taskCache.evictAll(applied.stream().map(TaskMoveDTO::getTaskId).toList());
+        applied.forEach(move -> userLoadIndex.taskMoved(move.getFromUserId(), move.getToUserId(), true));
+
+        log.info("Rebalanced {} task(s) over {} active user(s) (band {}..{}, {} orphaned, {} skipped)",
+                applied.size(), plan.activeUsers(), plan.lowerBound(), plan.upperBound(),
+                plan.orphanedTasks(), plan.transfers().size() - applied.size());
+        return result(plan, false, applied, active);
+    }
+
+    /**
+     * Decide who gives how many tasks to whom - in memory only, no queries
+     *
+     * @param active    Active USER ids
+     * @param loads     Open load of every assignee, active or not
+     * @param remaining Free WIP slots per active user
+     */
+    static Plan plan(Set<Long> active, List<AssigneeLoad> loads, Map<Long, Integer> remaining,
+            int tolerance, int maxMoves) {
+        Map<Long, AssigneeLoad> byUser = new HashMap<>();
+        long openTasks = 0;
+        long orphanedTasks = 0;
+        for (AssigneeLoad load : loads) {
+            byUser.put(load.userId(), load);
+            openTasks += load.openTasks();
+            if (!active.contains(load.userId())) {
+                orphanedTasks += load.openTasks();
+            }
+        }
+        if (active.isEmpty()) {
+            return new Plan(0, openTasks, orphanedTasks, 0, 0, 0, List.of());
+        }
+        double mean = (double) openTasks / active.size();
+        int lowerBound = Math.max(0, (int) Math.floor(mean) - tolerance);
+        int upperBound = (int) Math.ceil(mean) + tolerance;
+
+        // Users that can still receive / give, ordered by planned load then id:
+        // first() is the least loaded, last() the most
+        TreeSet<Slot> receivers = new TreeSet<>();
+        TreeSet<Slot> donors = new TreeSet<>();
+        for (Long userId : active) {
+            AssigneeLoad load = byUser.getOrDefault(userId, new AssigneeLoad(userId, 0, 0));
+            Slot slot = new Slot(userId, load.openTasks() - load.notStarted(),
+                    load.openTasks() + remaining.getOrDefault(userId, 0), load.openTasks());
+            adjust(slot, 0, receivers, donors);
+        }
+
+        // Hand off tasks of inactive / non-USER accounts first
+        List<Transfer> transfers = new ArrayList<>();
+        List<AssigneeLoad> orphans = loads.stream()
+                .filter(load -> !active.contains(load.userId()))
+                .sorted(Comparator.comparing(AssigneeLoad::userId))
+                .toList();
+        for (AssigneeLoad orphan : orphans) {
+            for (int i = 0; i < orphan.openTasks() && transfers.size() < maxMoves && !receivers.isEmpty(); i++) {
+                Slot receiver = receivers.first();
+                adjust(receiver, 1, receivers, donors);
+                transfers.add(new Transfer(orphan.userId(), receiver.userId));
+            }
+        }
+
+        // Then most-loaded to least-loaded while either is outside the band
+        while (transfers.size() < maxMoves && !donors.isEmpty() && !receivers.isEmpty()) {
+            Slot donor = donors.last();
+            Slot receiver = receivers.first();
+            boolean outside = donor.planned > upperBound || receiver.planned < lowerBound;
+            if (!outside || donor.planned - receiver.planned < 2) {
+                break;
+            }
+            adjust(donor, -1, receivers, donors);
+            adjust(receiver, 1, receivers, donors);
+            transfers.add(new Transfer(donor.userId, receiver.userId));
+        }
+
+        return new Plan(active.size(), openTasks, orphanedTasks, mean, lowerBound, upperBound, transfers);
+    }
+
+    /**
+     * Change a slot's planned load and re-file it (the sets are ordered by it)
+     */
+    private static void adjust(Slot slot, int delta, TreeSet<Slot> receivers, TreeSet<Slot> donors) {
+        receivers.remove(slot);
+        donors.remove(slot);
+        slot.planned += delta;
+        if (slot.planned < slot.ceiling) {
+            receivers.add(slot);
+        }
+        if (slot.planned > slot.floor) {
+            donors.add(slot);
+        }
+    }
+
+    /**
+     * Choose the concrete tasks, one query for all donors: not-started tasks
+     * first, newest first (active donors' quota never exceeds their OPEN ones)
+     */
+    private List<TaskMoveDTO> pickTasks(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> quota = new HashMap<>();
+        transfers.forEach(transfer -> quota.merge(transfer.fromUserId(), 1, Integer::sum));
+
+        Map<Long, Deque<Long>> tasksByDonor = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT id, user_id FROM (
+                    SELECT id, user_id,
+                           row_number() OVER (PARTITION BY user_id
+                                              ORDER BY (status = 'OPEN') DESC, id DESC) AS rn
+                    FROM tasks
+                    WHERE user_id IN (:donorIds) AND status <> 'DONE'
+                ) ranked
+                WHERE rn <= :maxQuota
+                ORDER BY user_id, rn
+                """,
+                new MapSqlParameterSource("donorIds", quota.keySet())
+                        .addValue("maxQuota", quota.values().stream().mapToInt(Integer::intValue).max().orElse(0)),
+                rs -> {
+                    tasksByDonor.computeIfAbsent(rs.getLong("user_id"), userId -> new ArrayDeque<>())
+                            .add(rs.getLong("id"));
+                });
+
+        List<TaskMoveDTO> moves = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            Long taskId = tasksByDonor.getOrDefault(transfer.fromUserId(), new ArrayDeque<>()).poll();
+            if (taskId != null) {
+                moves.add(new TaskMoveDTO(taskId, transfer.fromUserId(), transfer.toUserId()));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Still held by the planned donor and open - and, for an active donor,
+     * still not started
+     */
+    private static boolean stillMovable(LockedTask task, TaskMoveDTO move, Set<Long> active) {
+        return task != null
+                && move.getFromUserId().equals(task.assigneeId())
+                && task.status() != TaskStatus.DONE
+                && (task.status() == TaskStatus.OPEN || !active.contains(move.getFromUserId()));
+    }
+
+    private static RebalanceResultDTO result(Plan plan, boolean dryRun, List<TaskMoveDTO> moves, Set<Long> active) {
+        long handedOff = moves.stream().filter(move -> !active.contains(move.getFromUserId())).count();
+        return new RebalanceResultDTO(dryRun, plan.activeUsers(), plan.openTasks(), plan.orphanedTasks(),
+                plan.orphanedTasks() - handedOff, plan.meanLoad(), plan.lowerBound(), plan.upperBound(),
+                moves.size(), plan.transfers().size() - moves.size(), moves);
+    }
+
+    /**
+     * An assignee's open tasks, and how many of them are not started (OPEN)
+     */
+    record AssigneeLoad(Long userId, int openTasks, int notStarted) {
+    }
+
+    /**
+     * One planned task move, before the concrete task is chosen
+     */
+    record Transfer(Long fromUserId, Long toUserId) {
+    }
+
+    private record LockedTask(Long assigneeId, TaskStatus status) {
+    }
+
+    record Plan(int activeUsers, long openTasks, long orphanedTasks, double meanLoad,
+            int lowerBound, int upperBound, List<Transfer> transfers) {
+    }
+
+    /**
+     * An active user's planned load, between floor (cannot give started
+     * tasks) and ceiling (WIP limit)
+     */
+    private static final class Slot implements Comparable<Slot> {
+        private final Long userId;
+        private final int floor;
+        private final int ceiling;
+        private int planned;
+
+        private Slot(Long userId, int floor, int ceiling, int planned) {
+            this.userId = userId;
+            this.floor = floor;
+            this.ceiling = ceiling;
+            this.planned = planned;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byLoad = Integer.compare(planned, other.planned);
+            return byLoad != 0 ? byLoad : userId.compareTo(other.userId);
+        }
+    }
+}
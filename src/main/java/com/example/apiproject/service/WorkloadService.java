@@ -0,0 +1,143 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.dto.UserWorkloadDTO;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ConflictException;
+import com.example.apiproject.repository.UserWorkload;
+import com.example.apiproject.repository.UserWorkloadRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Work-in-progress limits: how many open (non-DONE) tasks a user may hold.
+ *
+ * Every write path that gives a user an open task takes a slot here first
+ * (a conditional increment of the user's counter row, in the caller's
+ * transaction) and every path that takes one away releases it, so the
+ * counters follow assignments and status changes and roll back with them.
+ * The limit is the user's own wip_limit, or tasks.wip-limit.default.
+ */
+@Service
+public class WorkloadService {
+
+    private final UserWorkloadRepository userWorkloadRepository;
+    private final int defaultLimit;
+
+    public WorkloadService(UserWorkloadRepository userWorkloadRepository,
+            @Value("${tasks.wip-limit.default:20}") int defaultLimit) {
+        this.userWorkloadRepository = userWorkloadRepository;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Take a slot for the task on the given user, if it needs one: DONE tasks
+     * and tasks already assigned to that user do not. An open task moving
+     * from another user gives that user's slot back in the same step.
+     *
+     * Callers hold the task's row lock. The two counter rows of a move are
+     * updated in user id order, as in {@link #apply}, and a refused slot
+     * leaves no counter row locked - so single and bulk paths always lock
+     * task rows first, then counters in id order, and cannot deadlock.
+     *
+     * @return false if the user is at their WIP limit or no longer active
+     *         (deactivated since the caller's roster was built, perhaps on
+     *         another node)
+     */
+    public boolean tryReserve(Task task, Long userId) {
+        Long previousId = task.getAssignedTo() != null ? task.getAssignedTo().getId() : null;
+        if (task.getStatus() == TaskStatus.DONE || userId.equals(previousId)) {
+            return true;
+        }
+        if (previousId == null) {
+            return userWorkloadRepository.tryIncrement(userId, 1, defaultLimit);
+        }
+        if (userId < previousId) {
+            // Receiver first; a refused increment takes no lock
+            if (!userWorkloadRepository.tryIncrement(userId, 1, defaultLimit)) {
+                return false;
+            }
+            userWorkloadRepository.decrement(previousId, 1);
+            return true;
+        }
+        return userWorkloadRepository.tryTransfer(previousId, userId, defaultLimit);
+    }
+
+    /**
+     * Take a slot for one more open task
+     *
+     * @throws ConflictException if the user is at their WIP limit
+     */
+    public void reserve(Long userId) {
+        if (!userWorkloadRepository.tryIncrement(userId, 1, defaultLimit)) {
+            throw atLimit(userId);
+        }
+    }
+
+    /**
+     * Give back the slot of an open task that was completed or moved away
+     */
+    public void release(Long userId) {
+        userWorkloadRepository.decrement(userId, 1);
+    }
+
+    /**
+     * Apply several counter changes at once (bulk paths). Rows are updated in
+     * user id order, after the callers have locked their task rows - the
+     * order every path follows, so concurrent writers cannot deadlock
+     *
+     * @param deltas User id to change in open tasks
+     * @throws ConflictException if an increase would exceed a user's limit
+     */
+    public void apply(Map<Long, Integer> deltas) {
+        new TreeMap<>(deltas).forEach((userId, delta) -> {
+            if (delta > 0 && !userWorkloadRepository.tryIncrement(userId, delta, defaultLimit)) {
+                throw atLimit(userId);
+            }
+            if (delta < 0) {
+                userWorkloadRepository.decrement(userId, -delta);
+            }
+        });
+    }
+
+    /**
+     * Open tasks each user can still take (a snapshot - {@link #apply} is
+     * what actually enforces the limit)
+     */
+    public Map<Long, Integer> remainingCapacity(Collection<Long> userIds) {
+        Map<Long, Integer> remaining = new HashMap<>();
+        userIds.forEach(userId -> remaining.put(userId, defaultLimit));
+        for (UserWorkload workload : userWorkloadRepository.findAllById(userIds)) {
+            remaining.put(workload.userId(), Math.max(0, limitOf(workload) - workload.openTasks()));
+        }
+        return remaining;
+    }
+
+    /**
+     * Set a user's own WIP limit, or with null fall back to the default
+     */
+    public UserWorkloadDTO updateLimit(Long userId, Integer wipLimit) {
+        if (wipLimit != null && wipLimit < 0) {
+            throw new BadRequestException("WIP limit cannot be negative");
+        }
+        userWorkloadRepository.setLimit(userId, wipLimit);
+        UserWorkload workload = userWorkloadRepository.findById(userId)
+                .orElse(new UserWorkload(userId, 0, wipLimit));
+        return new UserWorkloadDTO(userId, workload.openTasks(), workload.wipLimit(), limitOf(workload));
+    }
+
+    private int limitOf(UserWorkload workload) {
+        return workload.wipLimit() != null ? workload.wipLimit() : defaultLimit;
+    }
+
+    private ConflictException atLimit(Long userId) {
+        return new ConflictException("User " + userId
+                + " has reached their work-in-progress limit or is no longer active");
+    }
+}
@@ -1,32 +1,41 @@
 package com.example.apiproject.service.strategy;
 
+import com.example.apiproject.cache.UserLoadIndex;
 import com.example.apiproject.entity.AssignmentType;
-import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.Task;
-import com.example.apiproject.entity.TaskStatus;
-import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.BadRequestException;
-import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.exception.ConflictException;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.service.WorkloadService;
 import org.springframework.stereotype.Component;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Least Loaded Assignment Strategy
  * Assigns tasks to the user with the fewest active (non-completed) tasks
  * UserId parameter is ignored - system selects user automatically
+ *
+ * Loads come from the in-memory {@link UserLoadIndex} (O(log n) per lookup)
+ * instead of counting every user's tasks on each call. Users at their WIP
+ * limit are skipped.
+ * PUT /api/tasks/{id}/assign coalesces concurrent requests through
+ * LeastLoadedAssignmentQueue instead; this strategy places one task at a time.
  */
 @Component
 public class LeastLoadedAssignmentStrategy implements TaskAssignmentStrategy {
 
     private final UserRepository userRepository;
-    private final TaskRepository taskRepository;
+    private final UserLoadIndex userLoadIndex;
+    private final WorkloadService workloadService;
 
-    public LeastLoadedAssignmentStrategy(UserRepository userRepository, TaskRepository taskRepository) {
+    public LeastLoadedAssignmentStrategy(UserRepository userRepository, UserLoadIndex userLoadIndex,
+            WorkloadService workloadService) {
         this.userRepository = userRepository;
-        this.taskRepository = taskRepository;
+        this.userLoadIndex = userLoadIndex;
+        this.workloadService = workloadService;
     }
 
     @Override
@@ -38,24 +47,24 @@ public class LeastLoadedAssignmentStrategy implements TaskAssignmentStrategy {
     public void assign(Task task, Long userId) {
         // UserId is ignored for least-loaded assignment
 
-        // Fetch all active users with USER role
-        List<User> availableUsers = userRepository.findAllByRoleAndIsActiveTrue(Role.USER);
-
-        // Validate at least one user is available
-        if (availableUsers.isEmpty()) {
+        // Find the active USER with the fewest open tasks and a free WIP slot
+        Set<Long> atLimit = new HashSet<>();
+        Optional<Long> candidate = userLoadIndex.leastLoaded(atLimit);
+        if (candidate.isEmpty()) {
             throw new BadRequestException("No active users available for assignment");
         }
-
-        // Find user with least active tasks
-        User leastLoadedUser = availableUsers.stream()
-                .min(Comparator.comparingLong(user -> taskRepository.findByAssignedTo(user).stream()
-                        .filter(t -> t.getStatus() != TaskStatus.DONE)
-                        .count()))
-                .orElseThrow(() -> new BadRequestException("Unable to find suitable user for assignment"));
-
-        // Assign task to least loaded user
-        task.setAssignedTo(leastLoadedUser);
+        while (candidate.isPresent()) {
+            if (workloadService.tryReserve(task, candidate.get())) {
+                // Assign task to least loaded user (reference only - no extra query)
+                task.setAssignedTo(userRepository.getReferenceById(candidate.get()));
+                return;
+            }
+            atLimit.add(candidate.get());
+            candidate = userLoadIndex.leastLoaded(atLimit);
+        }
 
         // Note: Do not save here - service layer handles transaction management
+        // and reports the move to the load index
+        throw new ConflictException("All active users have reached their work-in-progress limit");
     }
 }
@@ -1,22 +1,30 @@
 package com.example.apiproject.service.strategy;
 
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserSnapshot;
 import com.example.apiproject.entity.AssignmentType;
 import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.Task;
-import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ConflictException;
 import com.example.apiproject.exception.ResourceNotFoundException;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.service.WorkloadService;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ManualAssignmentStrategy implements TaskAssignmentStrategy {
 
     private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+    private final WorkloadService workloadService;
 
     // Constructor Injection
-    public ManualAssignmentStrategy(UserRepository userRepository) {
+    public ManualAssignmentStrategy(UserRepository userRepository, UserDirectory userDirectory,
+            WorkloadService workloadService) {
         this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.workloadService = workloadService;
     }
 
     @Override
@@ -31,17 +39,24 @@ public class ManualAssignmentStrategy implements TaskAssignmentStrategy {
             throw new BadRequestException("UserId is required for MANUAL assignment");
         }
 
-        // Find user by ID, throw exception if not found
-        User user = userRepository.findById(userId)
+        // Find user by ID (from the user cache), throw exception if not found
+        UserSnapshot user = userDirectory.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         // Validate user has correct role
-        if (user.getRole() != Role.USER) {
+        if (user.role() != Role.USER) {
             throw new BadRequestException("Tasks can only be assigned to users with USER role");
         }
 
-        // Assign user to task
-        task.setAssignedTo(user);
+        // Take a WIP slot on the user (atomic conditional increment, which
+        // also refuses a user deactivated since the cache entry was loaded)
+        if (!workloadService.tryReserve(task, userId)) {
+            throw new ConflictException("User " + userId
+                    + " has reached their work-in-progress limit or is no longer active");
+        }
+
+        // Assign user to task (reference only - the user was already validated)
+        task.setAssignedTo(userRepository.getReferenceById(userId));
 
         // Note: Do not save here - service layer handles transaction management
     }
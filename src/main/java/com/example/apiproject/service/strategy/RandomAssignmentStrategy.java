@@ -1,30 +1,36 @@
 package com.example.apiproject.service.strategy;
 
+import com.example.apiproject.cache.ActiveUserRoster;
 import com.example.apiproject.entity.AssignmentType;
-import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.Task;
-import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ConflictException;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.service.WorkloadService;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Random;
+import java.util.PrimitiveIterator;
 
 /**
  * Random Assignment Strategy
  * Assigns tasks randomly to any active user with USER role
  * UserId parameter is ignored - system selects user automatically
+ *
+ * Candidates come from the {@link ActiveUserRoster} snapshot, not a query.
+ * Users at their WIP limit are skipped.
  */
 @Component
 public class RandomAssignmentStrategy implements TaskAssignmentStrategy {
 
     private final UserRepository userRepository;
-    private final Random random;
+    private final ActiveUserRoster activeUserRoster;
+    private final WorkloadService workloadService;
 
-    public RandomAssignmentStrategy(UserRepository userRepository) {
+    public RandomAssignmentStrategy(UserRepository userRepository, ActiveUserRoster activeUserRoster,
+            WorkloadService workloadService) {
         this.userRepository = userRepository;
-        this.random = new Random();
+        this.activeUserRoster = activeUserRoster;
+        this.workloadService = workloadService;
     }
 
     @Override
@@ -36,20 +42,23 @@ public class RandomAssignmentStrategy implements TaskAssignmentStrategy {
     public void assign(Task task, Long userId) {
         // UserId is ignored for random assignment
 
-        // Fetch all active users with USER role
-        List<User> availableUsers = userRepository.findAllByRoleAndIsActiveTrue(Role.USER);
-
-        // Validate at least one user is available
-        if (availableUsers.isEmpty()) {
+        // Start at a random active user, validating at least one is available
+        PrimitiveIterator.OfLong candidates = activeUserRoster.randomRotation();
+        if (!candidates.hasNext()) {
             throw new BadRequestException("No active users available for random assignment");
         }
 
-        // Select random user
-        User randomUser = availableUsers.get(random.nextInt(availableUsers.size()));
-
-        // Assign task to random user
-        task.setAssignedTo(randomUser);
+        // Take the first one with a free WIP slot
+        while (candidates.hasNext()) {
+            long candidate = candidates.nextLong();
+            if (workloadService.tryReserve(task, candidate)) {
+                // Assign task to random user (reference only - no extra query)
+                task.setAssignedTo(userRepository.getReferenceById(candidate));
+                return;
+            }
+        }
 
         // Note: Do not save here - service layer handles transaction management
+        throw new ConflictException("All active users have reached their work-in-progress limit");
     }
 }
@@ -0,0 +1,65 @@
+package com.example.apiproject.service.strategy;
+
+import com.example.apiproject.cache.ActiveUserRoster;
+import com.example.apiproject.entity.AssignmentType;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.exception.ConflictException;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.service.WorkloadService;
+import org.springframework.stereotype.Component;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * Round Robin Assignment Strategy
+ * Assigns tasks to active users with USER role in turn, so every user gets
+ * the same share of new assignments
+ * UserId parameter is ignored - system selects user automatically
+ *
+ * Served from the {@link ActiveUserRoster} snapshot: no query and no lock to
+ * pick a user. Users at their WIP limit are skipped.
+ */
+@Component
+public class RoundRobinAssignmentStrategy implements TaskAssignmentStrategy {
+
+    private final UserRepository userRepository;
+    private final ActiveUserRoster activeUserRoster;
+    private final WorkloadService workloadService;
+
+    public RoundRobinAssignmentStrategy(UserRepository userRepository, ActiveUserRoster activeUserRoster,
+            WorkloadService workloadService) {
+        this.userRepository = userRepository;
+        this.activeUserRoster = activeUserRoster;
+        this.workloadService = workloadService;
+    }
+
+    @Override
+    public AssignmentType getType() {
+        return AssignmentType.ROUND_ROBIN;
+    }
+
+    @Override
+    public void assign(Task task, Long userId) {
+        // UserId is ignored for round-robin assignment
+
+        // Walk the rotation from the next user in turn
+        PrimitiveIterator.OfLong candidates = activeUserRoster.rotation(1);
+        if (!candidates.hasNext()) {
+            throw new BadRequestException("No active users available for round-robin assignment");
+        }
+
+        // Take the first one with a free WIP slot
+        while (candidates.hasNext()) {
+            long candidate = candidates.nextLong();
+            if (workloadService.tryReserve(task, candidate)) {
+                // Assign task (reference only - no extra query)
+                task.setAssignedTo(userRepository.getReferenceById(candidate));
+                return;
+            }
+        }
+
+        // Note: Do not save here - service layer handles transaction management
+        throw new ConflictException("All active users have reached their work-in-progress limit");
+    }
+}
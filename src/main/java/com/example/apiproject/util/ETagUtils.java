@@ -0,0 +1,73 @@
+package com.example.apiproject.util;
+
+import com.example.apiproject.exception.PreconditionFailedException;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * Strong entity tags for conditional requests.
+ *
+ * - Lists: an opaque digest of a set fingerprint ({@link #of}), computed -
+ *   and compared against If-None-Match - without building or serializing
+ *   the response body
+ * - Versioned entities: a readable tag naming the @Version
+ *   ({@link #ofVersion}), so If-Match on a write can be turned back into the
+ *   expected version
+ */
+public final class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    /**
+     * ETag value (unquoted, as expected by WebRequest.checkNotModified)
+     *
+     * @param kind  Representation kind, keeps tags of different resources apart
+     * @param parts Values that change whenever the representation does
+     */
+    public static String of(String kind, Object... parts) {
+        StringJoiner joiner = new StringJoiner("|", kind + "|", "");
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return kind + "-" + DigestUtils.md5DigestAsHex(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * ETag value of one version of an entity, e.g. task-42-v3
+     */
+    public static String ofVersion(String kind, Long id, Long version) {
+        return kind + "-" + id + "-v" + version;
+    }
+
+    /**
+     * Expected version from an If-Match header
+     *
+     * @return the version, or null if there is no precondition (header
+     *         absent or "*" - the entity is loaded, so it exists)
+     * @throws PreconditionFailedException if the header cannot match this
+     *                                     entity (weak tag, other entity,
+     *                                     malformed)
+     */
+    public static Long parseVersion(String ifMatch, String kind, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses strong comparison: a weak tag never matches
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            String prefix = kind + "-" + id + "-v";
+            String value = tag.substring(1, tag.length() - 1);
+            if (value.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(value.substring(prefix.length()));
+                } catch (NumberFormatException ignored) {
+                    // falls through to 412
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + tag + " does not match the current " + kind);
+    }
+}
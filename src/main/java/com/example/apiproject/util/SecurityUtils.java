@@ -1,42 +1,95 @@
 package com.example.apiproject.util;
 
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserSnapshot;
+import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.User;
 import com.example.apiproject.exception.UnauthorizedException;
 import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * Shared security utility for retrieving the current authenticated user.
  * Single source of truth — injected into all services that need the current
  * user.
+ *
+ * Identity and role come straight from the token-backed principal; the full
+ * user is served from the {@link UserDirectory} cache.
  */
 @Component
 public class SecurityUtils {
 
     private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
 
-    public SecurityUtils(UserRepository userRepository) {
+    public SecurityUtils(UserRepository userRepository, UserDirectory userDirectory) {
         this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
     }
 
     /**
-     * Get the currently authenticated user entity from the security context.
+     * Get the principal of the currently authenticated user.
      *
-     * @return the authenticated User entity
+     * @return the principal built from access-token claims
      * @throws UnauthorizedException if no valid authentication exists
-     * @throws RuntimeException      if the authenticated user is not found in the
-     *                               database
      */
-    public User getCurrentUser() {
+    public AuthenticatedUser getCurrentPrincipal() {
+        return findCurrentPrincipal()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+    }
+
+    /**
+     * Principal of the current request, or empty on public endpoints called
+     * without (or with an invalid) access token
+     */
+    public Optional<AuthenticatedUser> findCurrentPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UnauthorizedException("User not authenticated");
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return Optional.of(principal);
         }
+        return Optional.empty();
+    }
+
+    /**
+     * ID of the current user (no database access)
+     */
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().id();
+    }
+
+    /**
+     * Role of the current user (no database access)
+     */
+    public Role getCurrentUserRole() {
+        return getCurrentPrincipal().role();
+    }
+
+    /**
+     * Reference to the current user for use in associations (createdBy,
+     * updatedBy, ...). Returns a lazy proxy - no query is issued unless
+     * a non-id attribute is read.
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
 
-        String currentUserEmail = authentication.getName();
-        return userRepository.findByEmail(currentUserEmail)
+    /**
+     * Get an immutable snapshot of the currently authenticated user.
+     * Prefer {@link #getCurrentPrincipal()} when only id/role are needed.
+     *
+     * @return the authenticated user
+     * @throws UnauthorizedException if no valid authentication exists
+     * @throws RuntimeException      if the authenticated user is not found in the
+     *                               database
+     */
+    public UserSnapshot getCurrentUser() {
+        return userDirectory.findById(getCurrentUserId())
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
     }
 }
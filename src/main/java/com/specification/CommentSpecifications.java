@@ -0,0 +1,17 @@
+package com.specification;
+
+import com.example.apiproject.entity.Comment;
+import com.example.apiproject.pagination.CommentSortField;
+import com.example.apiproject.pagination.KeysetCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+public class CommentSpecifications {
+
+    public static Specification<Comment> belongsToTask(Long taskId) {
+        return (root, query, cb) -> cb.equal(root.get("task").get("id"), taskId);
+    }
+
+    public static Specification<Comment> seekAfter(CommentSortField sortField, KeysetCursor cursor) {
+        return KeysetSpecifications.seekAfter(sortField, cursor);
+    }
+}
@@ -0,0 +1,38 @@
+package com.specification;
+
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.KeysetSortField;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Seek predicates for keyset pagination (ascending sort value, then id,
+ * see {@link KeysetSortField#order()}).
+ */
+public class KeysetSpecifications {
+
+    /**
+     * Rows strictly after the cursor:
+     * value >= v AND (value > v OR id > lastId)
+     * The leading, redundant "value >= v" lets PostgreSQL turn the predicate
+     * into an index range scan on (value, id).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> seekAfter(KeysetSortField<T> field, KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Path<Long> id = root.get("id");
+            if (field.isId()) {
+                return cb.greaterThan(id, cursor.id());
+            }
+            Path<Comparable> path = root.get(field.property());
+            Comparable value = field.parse(cursor.value());
+            return cb.and(
+                    cb.greaterThanOrEqualTo(path, value),
+                    cb.or(cb.greaterThan(path, value),
+                          cb.greaterThan(id, cursor.id())));
+        };
+    }
+}
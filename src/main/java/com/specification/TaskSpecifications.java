@@ -3,6 +3,8 @@ package com.specification;
 import com.example.apiproject.entity.Task;
 import com.example.apiproject.entity.TaskPriority;
 import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.TaskSortField;
 
 import org.springframework.data.jpa.domain.Specification;
 
@@ -23,4 +25,8 @@ public class TaskSpecifications {
     public static Specification<Task> hasCreatedBy(Long userId) {
         return (root, query, cb) -> userId == null ? null : cb.equal(root.get("createdBy").get("id"), userId);
     }
+
+    public static Specification<Task> seekAfter(TaskSortField sortField, KeysetCursor cursor) {
+        return KeysetSpecifications.seekAfter(sortField, cursor);
+    }
 }
\ No newline at end of file
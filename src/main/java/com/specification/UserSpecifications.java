@@ -2,6 +2,8 @@ package com.specification;
 
 import com.example.apiproject.entity.Role;
 import com.example.apiproject.entity.User;
+import com.example.apiproject.pagination.KeysetCursor;
+import com.example.apiproject.pagination.UserSortField;
 import org.springframework.data.jpa.domain.Specification;
 
 public class UserSpecifications {
@@ -13,4 +15,8 @@ public class UserSpecifications {
     public static Specification<User> isActive(Boolean isActive) {
         return (root, query, cb) -> isActive == null ? null : cb.equal(root.get("isActive"), isActive);
     }
+
+    public static Specification<User> seekAfter(UserSortField sortField, KeysetCursor cursor) {
+        return KeysetSpecifications.seekAfter(sortField, cursor);
+    }
 }
@@ -0,0 +1,11 @@
+-- Claim queue for POST /api/tasks/claim-next.
+--
+-- Only OPEN, unassigned tasks can be claimed, and they are taken per priority
+-- in (created_at, id) order. This partial index holds exactly those rows in
+-- that order, so a claimer's "LIMIT 1 FOR UPDATE SKIP LOCKED" reads the first
+-- few entries of one priority instead of sorting the open set. Claimed tasks
+-- leave the index as soon as they are assigned, keeping it small.
+--
+-- Built CONCURRENTLY, like V6; drop an INVALID leftover before retrying.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_claimable ON tasks (priority, created_at, id)
+    WHERE status = 'OPEN' AND user_id IS NULL;
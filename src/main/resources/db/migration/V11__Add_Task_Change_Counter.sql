@@ -0,0 +1,36 @@
+-- Commit-ordered change counter for tasks, the ETag of lists served
+-- without a count.
+--
+-- updated_at is stamped from the application clock before the transaction
+-- commits, so a write stamped T1 can commit after one stamped T2 > T1 and
+-- never move max(updated_at). Here every transaction that inserts, updates
+-- or deletes tasks adds one to a counter as it commits: a change that is
+-- visible to a reader has always been counted, so sum(changes) moves with
+-- every commit.
+--
+-- The trigger is deferred to commit time and runs its UPDATE once per
+-- transaction, so the counter row is the last lock a writer takes and is
+-- held only while it commits. Writers are spread over 16 rows by backend
+-- pid so that concurrent commits do not queue on a single row.
+CREATE TABLE task_change_counters (
+    stripe SMALLINT PRIMARY KEY,
+    changes BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO task_change_counters (stripe)
+SELECT generate_series(0, 15);
+
+CREATE FUNCTION count_task_change() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('app.task_change_counted', true) IS DISTINCT FROM 'on' THEN
+        PERFORM set_config('app.task_change_counted', 'on', true);
+        UPDATE task_change_counters SET changes = changes + 1 WHERE stripe = pg_backend_pid() % 16;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE CONSTRAINT TRIGGER tasks_count_change
+    AFTER INSERT OR UPDATE OR DELETE ON tasks
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION count_task_change();
@@ -0,0 +1,4 @@
+-- Per-user security version embedded in access tokens.
+-- Bumped whenever a user's role or active status changes so that tokens
+-- issued before the change stop being accepted.
+ALTER TABLE users ADD COLUMN security_version BIGINT NOT NULL DEFAULT 0;
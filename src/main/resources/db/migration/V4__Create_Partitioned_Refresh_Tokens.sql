@@ -0,0 +1,100 @@
+-- Refresh tokens, range-partitioned by expiry with one partition per day.
+-- Expired tokens are purged by dropping whole partitions (see
+-- TokenCleanupScheduler) instead of a bulk DELETE, so purging produces no
+-- dead tuples, no WAL spike and no autovacuum work.
+
+-- 1. Earlier deployments let Hibernate create an unpartitioned table - move it aside
+DO $$
+BEGIN
+    IF to_regclass('refresh_tokens') IS NOT NULL THEN
+        ALTER TABLE refresh_tokens RENAME TO refresh_tokens_legacy;
+    END IF;
+END $$;
+
+-- 2. Partitioned table. The partition key must be part of every unique
+-- constraint, hence (id, expires_at) and (token_hash, expires_at).
+CREATE TABLE refresh_tokens (
+    id VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    token_hash VARCHAR(255) NOT NULL,
+    family_id VARCHAR(255) NOT NULL,
+    replaced_by VARCHAR(255),
+    issued_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,
+
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id, expires_at),
+    -- Also serves lookups by token_hash (leading column)
+    CONSTRAINT uq_refresh_tokens_token_hash UNIQUE (token_hash, expires_at),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+) PARTITION BY RANGE (expires_at);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user_revoked ON refresh_tokens (user_id, revoked_at);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+-- Safety net for rows outside the pre-created range; normally stays empty
+CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens DEFAULT;
+
+-- 3. Partition maintenance
+-- Partition refresh_tokens_pYYYYMMDD holds tokens expiring on that day.
+CREATE OR REPLACE FUNCTION refresh_tokens_ensure_partitions(days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    d DATE := current_date;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE d <= current_date + days_ahead LOOP
+        partition_name := 'refresh_tokens_p' || to_char(d, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, d, d + 1);
+            created := created + 1;
+        END IF;
+        d := d + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Drops every daily partition whose day is over - all of its tokens have expired
+CREATE OR REPLACE FUNCTION refresh_tokens_drop_expired_partitions()
+RETURNS INTEGER AS $$
+DECLARE
+    part RECORD;
+    dropped INTEGER := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = 'refresh_tokens'::regclass
+           AND c.relname ~ '^refresh_tokens_p[0-9]{8}$'
+    LOOP
+        IF to_date(substring(part.relname FROM 17), 'YYYYMMDD') < current_date THEN
+            EXECUTE format('DROP TABLE IF EXISTS %I', part.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+
+    -- The default partition is tiny; a plain delete is fine there
+    DELETE FROM refresh_tokens_default WHERE expires_at < now();
+
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT refresh_tokens_ensure_partitions(14);
+
+-- 4. Carry over still-valid tokens from the legacy table so nobody is logged out
+DO $$
+BEGIN
+    IF to_regclass('refresh_tokens_legacy') IS NOT NULL THEN
+        INSERT INTO refresh_tokens (id, user_id, token_hash, family_id, replaced_by, issued_at, expires_at, revoked_at)
+        SELECT id, user_id, token_hash, family_id, replaced_by, issued_at, expires_at, revoked_at
+          FROM refresh_tokens_legacy
+         WHERE expires_at > now();
+        DROP TABLE refresh_tokens_legacy;
+    END IF;
+END $$;
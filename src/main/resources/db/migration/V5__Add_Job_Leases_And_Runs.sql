@@ -0,0 +1,26 @@
+-- Cluster-wide coordination for scheduled jobs (see ClusterJobRunner).
+
+-- 1. One row per job; a node may run the job only while it holds the lease
+CREATE TABLE job_leases (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    locked_until TIMESTAMP NOT NULL
+);
+
+-- 2. Outcome of every run, for the admin endpoint
+CREATE TABLE job_runs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    node_id VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    rows_affected BIGINT NOT NULL,
+    message TEXT,
+
+    CONSTRAINT job_runs_status_check CHECK (status IN ('SUCCEEDED', 'FAILED'))
+);
+
+CREATE INDEX idx_job_runs_job_name_started_at ON job_runs (job_name, started_at DESC);
+CREATE INDEX idx_job_runs_started_at ON job_runs (started_at DESC);
@@ -0,0 +1,48 @@
+-- Indexes matching the filter and sort shapes of the list endpoints.
+--
+-- Every supported sortBy (see TaskSortField, UserSortField, CommentSortField)
+-- is served by an index on (sort column, id), the order both the offset and the
+-- keyset mode use. Filters lead the index where they are equality predicates.
+--
+-- CONCURRENTLY keeps the tables writable while the indexes build. Flyway runs
+-- this script outside a transaction; if it fails half-way, drop any INVALID
+-- index it left behind before retrying.
+
+-- Tasks: assignee (+ status) - the USER view and assignedToUserId filter.
+-- Replaces idx_tasks_user_id, which is a prefix of it
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_user_status_id ON tasks (user_id, status, id);
+
+-- Tasks: creator - the createdByUserId filter. Replaces idx_tasks_created_by
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_created_by_id ON tasks (created_by, id);
+
+-- Tasks: status / priority filters, also the status and priority sort orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_status_id ON tasks (status, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_priority_id ON tasks (priority, id);
+
+-- Tasks: remaining sort orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_title_id ON tasks (title, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_created_at_id ON tasks (created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_updated_at_id ON tasks (updated_at, id);
+
+-- Tasks: unfinished work only (the bulk of a mature table is DONE)
+-- per-assignee workload counts and the "open work by priority" listing
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_open_user_id ON tasks (user_id, id)
+    WHERE status <> 'DONE';
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_open_priority_id ON tasks (priority, id)
+    WHERE status <> 'DONE';
+
+-- Comments of a task in either supported order. Replaces idx_comments_task_id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_task_created_at_id ON comments (task_id, created_at, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_task_id_id ON comments (task_id, id);
+
+-- Users: role filter / sort, the MANAGER view (active USERs), sort orders.
+-- Email is already covered by users_email_key
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_role_id ON users (role, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_active_role_id ON users (role, id) WHERE is_active;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_id ON users (name, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
+
+-- Foreign-key indexes made redundant by the composites above
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_user_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_created_by;
+DROP INDEX CONCURRENTLY IF EXISTS idx_comments_task_id;
@@ -0,0 +1,6 @@
+-- Tasks take their ids from tasks_id_seq in blocks of 50 (Hibernate pooled
+-- optimizer, see Task.id), so inserts need no per-row round trip and can be
+-- batched. Hibernate uses the 50 ids ending at each value it draws; plain
+-- INSERTs relying on the column default still draw single values from the
+-- same sequence and can never collide with such a block.
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
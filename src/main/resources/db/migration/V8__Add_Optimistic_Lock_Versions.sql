@@ -0,0 +1,7 @@
+-- Optimistic-locking versions (JPA @Version) for tasks and comments.
+-- Every UPDATE increments the version and carries "AND version = ?", so a
+-- write based on a stale read matches no row instead of silently
+-- overwriting. Also exposed to clients as the task ETag (If-Match).
+-- A constant default makes this a catalog-only change, no table rewrite.
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
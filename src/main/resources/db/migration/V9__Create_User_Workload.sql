@@ -0,0 +1,23 @@
+-- Per-user work-in-progress counters for WIP limits.
+--
+-- open_tasks is the number of non-DONE tasks assigned to the user, kept in
+-- step by every write path that assigns, reassigns, creates or changes the
+-- status of a task. A slot is taken with a single conditional increment
+--   UPDATE ... SET open_tasks = open_tasks + 1 WHERE open_tasks < limit
+-- which only locks this one row, so concurrent assignments cannot overshoot
+-- the limit and no COUNT over tasks is needed.
+--
+-- wip_limit overrides the default limit (tasks.wip-limit.default) for one
+-- user; NULL means the default applies. Rows for users without open tasks
+-- are created on first use.
+CREATE TABLE user_workload (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    open_tasks INTEGER NOT NULL DEFAULT 0 CHECK (open_tasks >= 0),
+    wip_limit INTEGER CHECK (wip_limit >= 0)
+);
+
+INSERT INTO user_workload (user_id, open_tasks)
+SELECT user_id, count(*)
+FROM tasks
+WHERE status <> 'DONE' AND user_id IS NOT NULL
+GROUP BY user_id;
@@ -0,0 +1,89 @@
+package com.example.apiproject;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base class for tests that need the real schema (row locks, query plans,
+ * statement counts - nothing an in-memory database would show faithfully).
+ *
+ * The database is a throwaway PostgreSQL container, or the one named by the
+ * TEST_DATABASE_URL (+ TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD)
+ * environment variables when Docker is not available. Either way the schema
+ * is cleaned and re-migrated once per application context, so tests start
+ * from the migrations alone. Redis is not needed: revocations and the task
+ * cache stay in process, and the scheduled rebalance is switched off so it
+ * cannot move tasks under a test. {@link QueryRecorder} captures the
+ * application's queries for tests that inspect them.
+ */
+@SpringBootTest(properties = {
+        "auth.revocation.store=memory",
+        "cache.tasks.redis.enabled=false",
+        "jobs.rebalance.cron=-",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.clean-disabled=false"
+})
+@Import(PostgresIntegrationTest.TestDatabase.class)
+public abstract class PostgresIntegrationTest {
+
+    private static PostgreSQLContainer<?> container;
+
+    // Skipped, not failed, where there is neither Docker nor a test database
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(System.getenv("TEST_DATABASE_URL") != null
+                || DockerClientFactory.instance().isDockerAvailable(),
+                "needs Docker or TEST_DATABASE_URL");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getenv("TEST_DATABASE_URL");
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", ""));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = startContainer();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    // Started once per JVM, stopped by Testcontainers when the JVM exits
+    private static synchronized PostgreSQLContainer<?> startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    @TestConfiguration
+    static class TestDatabase {
+
+        @Bean
+        static QueryRecorder queryRecorder() {
+            return new QueryRecorder();
+        }
+
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
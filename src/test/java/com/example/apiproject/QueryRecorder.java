@@ -0,0 +1,127 @@
+package com.example.apiproject;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the queries the application sends, with their bound parameters,
+ * while {@link #record} runs - so tests can EXPLAIN exactly what the
+ * application executes instead of a hand-written copy of it.
+ *
+ * Wraps the application DataSource; outside a recording it only passes
+ * calls through.
+ */
+public class QueryRecorder implements BeanPostProcessor {
+
+    /**
+     * One executed query
+     *
+     * @param sql        Statement text with JDBC placeholders
+     * @param parameters Bound values by placeholder index
+     */
+    public record RecordedQuery(String sql, Map<Integer, Object> parameters) {
+
+        /**
+         * Prepare this query, prefixed (e.g. with EXPLAIN), on another connection
+         */
+        public PreparedStatement prepare(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(prefix + sql);
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            return statement;
+        }
+    }
+
+    private final List<RecordedQuery> recorded = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    /**
+     * Run the action and return the queries it executed, in order
+     */
+    public List<RecordedQuery> record(Runnable action) {
+        recorded.clear();
+        recording = true;
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+        return List.copyOf(recorded);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)) {
+            return new RecordingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+
+        private Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return recording(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("setNull")) {
+                            parameters.put((Integer) args[0], null);
+                        } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, args[1]);
+                        } else if (name.equals("clearParameters")) {
+                            parameters.clear();
+                        } else if (recording && name.equals("executeQuery")) {
+                            recorded.add(new RecordedQuery(sql, Collections.unmodifiableMap(new TreeMap<>(parameters))));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
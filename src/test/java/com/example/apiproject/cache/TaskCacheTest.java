@@ -0,0 +1,120 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes sharing one (map-backed) Redis: L2 is filled cache-aside, and a
+ * view loaded before a write committed is never stored after its eviction
+ */
+class TaskCacheTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(values.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+                redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    void aViewLoadedOnOneNodeIsAnL2HitOnAnother() {
+        TaskCache first = node();
+        TaskCache second = node();
+        AtomicInteger loads = new AtomicInteger();
+
+        first.get(1L, id -> view(id, 3L, loads));
+        TaskResponseDTO shared = second.get(1L, id -> view(id, 3L, loads));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(shared.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void aViewLoadedBeforeAWriteIsNotStoredAfterItsEviction() throws Exception {
+        TaskCache reader = node();
+        TaskCache writer = node();
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // The reader has read version 3 from the database...
+        CompletableFuture<TaskResponseDTO> staleRead = CompletableFuture.supplyAsync(() -> reader.get(1L, id -> {
+            TaskResponseDTO view = view(id, 3L, loads);
+            loaded.countDown();
+            await(committed);
+            return view;
+        }));
+        assertThat(loaded.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // ...when the writer commits version 4 and evicts
+        writer.evict(1L);
+        committed.countDown();
+        assertThat(staleRead.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(3L);
+
+        // The late store was refused: the next node reads the database again
+        TaskResponseDTO fresh = node().get(1L, id -> view(id, 4L, loads));
+        assertThat(fresh.getVersion()).isEqualTo(4L);
+        assertThat(redis.get(TaskCache.KEY_PREFIX + 1L)).isEqualTo(TaskCache.TOMBSTONE);
+    }
+
+    private TaskCache node() {
+        return new TaskCache(new SimpleMeterRegistry(), new ObjectMapper().findAndRegisterModules(),
+                provider(redisTemplate), provider((RedisMessageListenerContainer) null),
+                100, 60, true, 300, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bean);
+        return provider;
+    }
+
+    private static TaskResponseDTO view(Long id, Long version, AtomicInteger loads) {
+        loads.incrementAndGet();
+        TaskResponseDTO view = new TaskResponseDTO();
+        view.setId(id);
+        view.setTitle("Cached task");
+        view.setVersion(version);
+        return view;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
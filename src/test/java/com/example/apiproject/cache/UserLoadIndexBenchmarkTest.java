@@ -0,0 +1,107 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UserLoadIndex at 1k users / 1M tasks: the cost of a lookup + move, and
+ * lookups answered while a rebuild runs the aggregate. Run with
+ * mvn test -Pbenchmark; timings are logged
+ */
+@Slf4j
+@Tag("benchmark")
+class UserLoadIndexBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 1_000;
+    private static final int TASKS = 1_000_000;
+    private static final int OPERATIONS = 200_000;
+
+    @Autowired
+    private UserLoadIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lookupsDuringARebuild() throws Exception {
+        long firstUser = seed();
+        try {
+            long seedStart = System.nanoTime();
+            index.resync();
+            index.loads();
+            long seedMillis = millisSince(seedStart);
+            assertThat(index.loads()).hasSizeGreaterThanOrEqualTo(USERS);
+
+            // Lookup + move, the per-assignment work
+            long start = System.nanoTime();
+            for (int i = 0; i < OPERATIONS; i++) {
+                long userId = index.leastLoaded(Set.of()).orElseThrow();
+                index.taskMoved(null, userId, true);
+                index.taskMoved(userId, firstUser + i % USERS, true);
+            }
+            long operationNanos = (System.nanoTime() - start) / OPERATIONS;
+
+            // Lookups while another thread rebuilds: answered from the old
+            // snapshot instead of waiting for the new one
+            CompletableFuture<Long> rebuild = CompletableFuture.supplyAsync(() -> {
+                long rebuildStart = System.nanoTime();
+                index.resync();
+                return millisSince(rebuildStart);
+            });
+            long lookups = 0;
+            long slowestNanos = 0;
+            while (!rebuild.isDone()) {
+                long lookupStart = System.nanoTime();
+                index.leastLoaded(Set.of());
+                slowestNanos = Math.max(slowestNanos, System.nanoTime() - lookupStart);
+                lookups++;
+            }
+            long rebuildMillis = rebuild.get(1, TimeUnit.MINUTES);
+            assertThat(lookups).isGreaterThan(1);
+
+            log.info("UserLoadIndex, {} users / {} tasks: seeded in {} ms, {} ns per lookup + move; rebuild took"
+                    + " {} ms and served {} lookups meanwhile, slowest {} us",
+                    USERS, TASKS, seedMillis, operationNanos, rebuildMillis, lookups, slowestNanos / 1000);
+        } finally {
+            jdbcTemplate.update("DELETE FROM tasks WHERE title LIKE 'Load task %'");
+            jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'load-%@load.test'");
+            index.resync();
+        }
+    }
+
+    /**
+     * 1k active users holding 1M tasks, 30% of them DONE
+     */
+    private long seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (name, email, password, role, is_active, created_at)
+                SELECT 'Load user ' || n, 'load-' || n || '@load.test', 'unused', 'USER', true, now()
+                FROM generate_series(1, ?) AS n
+                """, USERS);
+        long firstUser = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM users WHERE email LIKE 'load-%@load.test'", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO tasks (title, priority, status, user_id, created_at, updated_at)
+                SELECT 'Load task ' || n, 'MEDIUM',
+                       CASE WHEN n % 10 < 3 THEN 'DONE' ELSE 'IN_PROGRESS' END,
+                       ? + n % ?, now(), now()
+                FROM generate_series(1, ?) AS n
+                """, firstUser, USERS, TASKS);
+        jdbcTemplate.execute("ANALYZE tasks");
+        return firstUser;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
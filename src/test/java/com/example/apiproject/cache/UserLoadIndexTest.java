@@ -0,0 +1,129 @@
+package com.example.apiproject.cache;
+
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.repository.UserTaskCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserLoadIndexTest {
+
+    private UserRepository userRepository;
+    private TaskRepository taskRepository;
+    private UserLoadIndex index;
+
+    private final CountDownLatch queryStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseQuery = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        taskRepository = mock(TaskRepository.class);
+        when(userRepository.findActiveIdsByRole(Role.USER)).thenReturn(List.of(1L, 2L));
+        index = new UserLoadIndex(userRepository, taskRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseQuery.countDown();
+    }
+
+    @Test
+    void lookupsUseTheCurrentViewWhileARebuildQueries() throws Exception {
+        when(taskRepository.countOpenTasksByAssignee()).thenReturn(counts(Map.of(2L, 5L)));
+        assertThat(index.leastLoaded(Set.of())).contains(1L);
+
+        blockNextCount(Map.of(1L, 9L));
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(index::resync);
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Answered from the old view, not queued behind the aggregate
+        CompletableFuture<Long> lookup = CompletableFuture.supplyAsync(() -> index.leastLoaded(Set.of()).orElseThrow());
+        assertThat(lookup.get(1, TimeUnit.SECONDS)).isEqualTo(1L);
+
+        releaseQuery.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        assertThat(index.leastLoaded(Set.of())).contains(2L);
+    }
+
+    @Test
+    void updatesDuringARebuildAreReplayedOnce() throws Exception {
+        when(taskRepository.countOpenTasksByAssignee()).thenReturn(counts(Map.of()));
+        assertThat(index.loads()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 0L, 2L, 0L));
+
+        // The fresh counts were read before the move committed
+        blockNextCount(Map.of(2L, 3L));
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(index::resync);
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        index.taskMoved(2L, 1L, true);
+        assertThat(index.loads()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1L, 2L, 0L));
+
+        releaseQuery.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        assertThat(index.loads()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1L, 2L, 2L));
+    }
+
+    @Test
+    void rosterChangeDropsTheUserBeforeTheRebuildFinishes() throws Exception {
+        when(taskRepository.countOpenTasksByAssignee()).thenReturn(counts(Map.of(2L, 5L)));
+        assertThat(index.leastLoaded(Set.of())).contains(1L);
+
+        // User 1 deactivated
+        when(userRepository.findActiveIdsByRole(Role.USER)).thenReturn(List.of(2L));
+        blockNextCount(Map.of(2L, 5L));
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(
+                () -> index.onRosterChanged(new UserRosterChangedEvent(1L)));
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(index.leastLoaded(Set.of())).contains(2L);
+
+        releaseQuery.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+        assertThat(index.loads()).containsOnlyKeys(2L);
+    }
+
+    @Test
+    void leastLoadedSkipsExcludedUsers() {
+        when(taskRepository.countOpenTasksByAssignee()).thenReturn(counts(Map.of(2L, 5L)));
+
+        assertThat(index.leastLoaded(Set.of(1L))).contains(2L);
+        assertThat(index.leastLoaded(Set.of(1L, 2L))).isEmpty();
+    }
+
+    private void blockNextCount(Map<Long, Long> openTasks) {
+        when(taskRepository.countOpenTasksByAssignee()).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return counts(openTasks);
+        });
+    }
+
+    private static List<UserTaskCount> counts(Map<Long, Long> openTasks) {
+        List<UserTaskCount> counts = new ArrayList<>();
+        openTasks.forEach((userId, open) -> counts.add(new UserTaskCount() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getOpenTasks() {
+                return open;
+            }
+        }));
+        return counts;
+    }
+}
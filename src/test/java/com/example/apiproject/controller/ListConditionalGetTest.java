@@ -0,0 +1,271 @@
+package com.example.apiproject.controller;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.QueryRecorder;
+import com.example.apiproject.QueryRecorder.RecordedQuery;
+import com.example.apiproject.dto.CommentRequestDTO;
+import com.example.apiproject.dto.CommentResponseDTO;
+import com.example.apiproject.dto.TaskUpdateDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.response.ApiResponse;
+import com.example.apiproject.response.PagedResponse;
+import com.example.apiproject.security.AuthenticatedUser;
+import com.example.apiproject.service.CommentService;
+import com.example.apiproject.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conditional GETs of the task and comment lists: an unchanged list answers
+ * 304 before any page query, a write changes the tag, an EXACT total is the
+ * count the tag was built from, and lists asked for without an exact total
+ * are never counted
+ */
+class ListConditionalGetTest extends PostgresIntegrationTest {
+
+    private static final int TASKS = 3;
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private TaskController taskController;
+
+    @Autowired
+    private CommentController commentController;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User manager;
+    private List<Long> taskIds;
+
+    @BeforeEach
+    void setUp() {
+        manager = new User();
+        manager.setName("Conditional manager");
+        manager.setEmail("conditional-" + System.nanoTime() + "@etag.test");
+        manager.setPassword("unused");
+        manager.setRole(Role.MANAGER);
+        manager = userRepository.save(manager);
+
+        // Created by this test's manager (the filter that isolates them), DONE
+        // so that none of them is claimable by other tests
+        taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            taskIds.add(saveTask("Conditional task " + i));
+        }
+
+        AuthenticatedUser principal = new AuthenticatedUser(manager.getId(), manager.getEmail(), Role.MANAGER,
+                0L, "etag-test", Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_MANAGER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void exactListCountsOnceAndItsTotalMatchesItsTag() {
+        Exchange first = exchange(null, ifNoneMatch -> listTasks(TotalMode.EXACT, null, ifNoneMatch));
+        assertThat(first.status()).isEqualTo(200);
+        assertThat(first.page().getTotalElements()).isEqualTo(TASKS);
+        // The fingerprint's count is the total: fingerprint + page query
+        assertThat(first.counts()).isEqualTo(1);
+        assertThat(first.queries()).hasSize(2);
+
+        // Unchanged: 304 on the fingerprint alone
+        Exchange unchanged = exchange(first.etag(), ifNoneMatch -> listTasks(TotalMode.EXACT, null, ifNoneMatch));
+        assertThat(unchanged.status()).isEqualTo(304);
+        assertThat(unchanged.body()).isNull();
+        assertThat(unchanged.queries()).hasSize(1);
+
+        // A new task: new tag and, within the count cache's TTL, a total
+        // that agrees with it
+        saveTask("Conditional task " + TASKS);
+        Exchange changed = exchange(first.etag(), ifNoneMatch -> listTasks(TotalMode.EXACT, null, ifNoneMatch));
+        assertThat(changed.status()).isEqualTo(200);
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+        assertThat(changed.page().getTotalElements()).isEqualTo(TASKS + 1);
+    }
+
+    @Test
+    void countFreeListsAreNeverCounted() {
+        assertNotCountedAndRevalidated(ifNoneMatch -> listTasks(TotalMode.NONE, null, ifNoneMatch));
+        // Keyset, first page
+        assertNotCountedAndRevalidated(ifNoneMatch -> listTasks(TotalMode.EXACT, "", ifNoneMatch));
+    }
+
+    @Test
+    void aWriteStampedEarlierThanTheLatestStillChangesTheTag() {
+        // updated_at comes from the writer's clock before it commits: a write
+        // that commits after a later-stamped one leaves max(updated_at) alone
+        Function<String, Exchange> counted = ifNoneMatch -> listTasks(TotalMode.EXACT, null, ifNoneMatch);
+        Function<String, Exchange> countFree = ifNoneMatch -> listTasks(TotalMode.NONE, null, ifNoneMatch);
+        String countedTag = exchange(null, counted).etag();
+        String countFreeTag = exchange(null, countFree).etag();
+
+        long changes = taskRepository.countCommittedChanges();
+        jdbcTemplate.update("UPDATE tasks SET title = 'Stamped early', updated_at = timestamp '2000-01-01',"
+                + " version = version + 1 WHERE id IN (?, ?)", taskIds.get(1), taskIds.get(2));
+
+        assertThat(exchange(countedTag, counted).status()).isEqualTo(200);
+        assertThat(exchange(countFreeTag, countFree).status()).isEqualTo(200);
+        // One per committed transaction, however many rows it wrote
+        assertThat(taskRepository.countCommittedChanges()).isEqualTo(changes + 1);
+    }
+
+    @Test
+    void commentsAnswer304UntilACommentIsAddedOrDeleted() {
+        Long taskId = taskIds.get(0);
+        CommentResponseDTO comment = commentService.createComment(taskId, commentRequest("First"));
+
+        Exchange first = exchange(null, ifNoneMatch -> listComments(taskId, null, ifNoneMatch));
+        assertThat(first.status()).isEqualTo(200);
+        assertThat(first.page().getContent()).hasSize(1);
+
+        // Unchanged: 304, the comments themselves are not read
+        Exchange unchanged = exchange(first.etag(), ifNoneMatch -> listComments(taskId, "", ifNoneMatch));
+        assertThat(unchanged.status()).isEqualTo(304);
+        assertThat(unchanged.body()).isNull();
+        assertThat(unchanged.queries()).filteredOn(query -> query.sql().matches("(?is).*\\bfrom comments\\b.*"))
+                .hasSize(1);
+
+        commentService.createComment(taskId, commentRequest("Second"));
+        Exchange added = exchange(first.etag(), ifNoneMatch -> listComments(taskId, null, ifNoneMatch));
+        assertThat(added.status()).isEqualTo(200);
+        assertThat(added.page().getContent()).hasSize(2);
+
+        commentService.deleteComment(taskId, comment.getId());
+        Exchange deleted = exchange(added.etag(), ifNoneMatch -> listComments(taskId, null, ifNoneMatch));
+        assertThat(deleted.status()).isEqualTo(200);
+        assertThat(deleted.etag()).isNotIn(first.etag(), added.etag());
+        assertThat(deleted.page().getContent()).hasSize(1);
+    }
+
+    /**
+     * No COUNT on either the 200 or the 304, and the tag still moves when a
+     * task of the list is changed
+     */
+    private void assertNotCountedAndRevalidated(Function<String, Exchange> request) {
+        Exchange first = exchange(null, request);
+        assertThat(first.status()).isEqualTo(200);
+        assertThat(first.counts()).isZero();
+
+        Exchange unchanged = exchange(first.etag(), request);
+        assertThat(unchanged.status()).isEqualTo(304);
+        assertThat(unchanged.queries()).hasSize(1);
+        assertThat(unchanged.counts()).isZero();
+
+        TaskUpdateDTO update = new TaskUpdateDTO();
+        update.setTitle("Conditional task renamed " + System.nanoTime());
+        taskService.updateTask(taskIds.get(1), update, null);
+        Exchange changed = exchange(first.etag(), request);
+        assertThat(changed.status()).isEqualTo(200);
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+    }
+
+    private Exchange exchange(String ifNoneMatch, Function<String, Exchange> request) {
+        Exchange[] result = new Exchange[1];
+        List<RecordedQuery> queries = queryRecorder.record(() -> result[0] = request.apply(ifNoneMatch));
+        return result[0].withQueries(queries);
+    }
+
+    private Exchange listTasks(TotalMode total, String cursor, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ResponseEntity<? extends ApiResponse<? extends PagedResponse<?>>> body = taskController.getAllTasks(0,
+                PAGE_SIZE, "id", null, null, null, manager.getId(), cursor, total,
+                new ServletWebRequest(request, response));
+        return new Exchange(response.getStatus(), response.getHeader(HttpHeaders.ETAG), body, List.of());
+    }
+
+    private Exchange listComments(Long taskId, String cursor, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/" + taskId + "/comments");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ResponseEntity<? extends ApiResponse<? extends PagedResponse<?>>> body = commentController
+                .getCommentsForTask(taskId, 0, PAGE_SIZE, "createdAt", cursor,
+                        new ServletWebRequest(request, response));
+        return new Exchange(response.getStatus(), response.getHeader(HttpHeaders.ETAG), body, List.of());
+    }
+
+    private Long saveTask(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setStatus(TaskStatus.DONE);
+        task.setPriority(TaskPriority.MEDIUM);
+        task.setCreatedBy(manager);
+        return taskRepository.save(task).getId();
+    }
+
+    private static CommentRequestDTO commentRequest(String message) {
+        CommentRequestDTO request = new CommentRequestDTO();
+        request.setMessage(message);
+        return request;
+    }
+
+    /**
+     * One request: status, ETag header, body (null on 304) and the queries it sent
+     */
+    private record Exchange(int status, String etag,
+            ResponseEntity<? extends ApiResponse<? extends PagedResponse<?>>> body, List<RecordedQuery> queries) {
+
+        Exchange withQueries(List<RecordedQuery> recorded) {
+            return new Exchange(status, etag, body, recorded);
+        }
+
+        PagedResponse<?> page() {
+            return body.getBody().getData();
+        }
+
+        long counts() {
+            return queries.stream().filter(query -> query.sql().matches("(?is).*\\bcount\\(.*")).count();
+        }
+    }
+}
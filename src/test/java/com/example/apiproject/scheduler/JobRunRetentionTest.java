@@ -0,0 +1,65 @@
+package com.example.apiproject.scheduler;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.repository.JobRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * job_runs stays bounded: runs older than jobs.job-runs.retention-days are
+ * deleted in chunks, oldest first, and recent history is kept
+ */
+class JobRunRetentionTest extends PostgresIntegrationTest {
+
+    private static final String JOB = "retention-test";
+
+    @Autowired
+    private TokenCleanupScheduler tokenCleanupScheduler;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM job_runs WHERE job_name = ?", JOB);
+        jdbcTemplate.update("DELETE FROM job_leases WHERE job_name = ?", TokenCleanupScheduler.PURGE_JOB_RUNS_JOB);
+    }
+
+    @Test
+    void oldRunsArePurgedInChunksAndRecentOnesKept() {
+        for (int days = 40; days < 45; days++) {
+            insertRun(LocalDateTime.now().minusDays(days));
+        }
+        insertRun(LocalDateTime.now().minusDays(1));
+
+        // A chunk takes the oldest runs first
+        assertThat(jobRunRepository.deleteStartedBeforeChunk(LocalDateTime.now().minusDays(30), 2)).isEqualTo(2);
+        assertThat(runsStartedBefore(LocalDateTime.now().minusDays(43))).isZero();
+
+        tokenCleanupScheduler.purgeOldJobRuns();
+
+        assertThat(runsStartedBefore(LocalDateTime.now().minusDays(30))).isZero();
+        assertThat(runsStartedBefore(LocalDateTime.now())).isEqualTo(1);
+    }
+
+    private void insertRun(LocalDateTime startedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO job_runs (job_name, node_id, status, started_at, finished_at, duration_ms, rows_affected)
+                VALUES (?, 'test-node', 'SUCCEEDED', ?, ?, 0, 0)
+                """, JOB, startedAt, startedAt);
+    }
+
+    private int runsStartedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM job_runs WHERE job_name = ? AND started_at < ?",
+                Integer.class, JOB, cutoff);
+    }
+}
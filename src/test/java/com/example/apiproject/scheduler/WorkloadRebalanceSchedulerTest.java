@@ -0,0 +1,75 @@
+package com.example.apiproject.scheduler;
+
+import com.example.apiproject.cache.UserDirectory;
+import com.example.apiproject.cache.UserRosterChangedEvent;
+import com.example.apiproject.dto.RebalanceResultDTO;
+import com.example.apiproject.service.WorkloadRebalancer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A hand-off stays pending while a run leaves orphaned tasks behind (move
+ * cap, rows locked by other writers) and still makes progress
+ */
+class WorkloadRebalanceSchedulerTest {
+
+    private WorkloadRebalancer rebalancer;
+    private WorkloadRebalanceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rebalancer = mock(WorkloadRebalancer.class);
+        ClusterJobRunner jobRunner = mock(ClusterJobRunner.class);
+        when(jobRunner.runExclusively(eq(WorkloadRebalanceScheduler.REBALANCE_JOB), any(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<ClusterJobRunner.ClusterJob>getArgument(2).run(Instant.now());
+                    return true;
+                });
+        UserDirectory userDirectory = mock(UserDirectory.class);
+        when(userDirectory.findById(anyLong())).thenReturn(Optional.empty());
+        scheduler = new WorkloadRebalanceScheduler(rebalancer, jobRunner, userDirectory);
+    }
+
+    @Test
+    void handOffIsRepeatedUntilNoOrphanIsLeft() {
+        // 2500 orphaned tasks, 1000 moves per run, 100 rows locked in the second
+        when(rebalancer.rebalance(false)).thenReturn(
+                result(2_500, 1_000, 0), result(1_500, 900, 100), result(600, 600, 0));
+
+        scheduler.onRosterChanged(new UserRosterChangedEvent(7L));
+        for (int poll = 0; poll < 5; poll++) {
+            scheduler.handOffIfPending();
+        }
+
+        verify(rebalancer, times(3)).rebalance(false);
+    }
+
+    @Test
+    void handOffWithoutProgressIsLeftToThePeriodicRun() {
+        // No active user has a free WIP slot
+        when(rebalancer.rebalance(false)).thenReturn(result(40, 0, 0));
+
+        scheduler.onRosterChanged(new UserRosterChangedEvent(7L));
+        scheduler.handOffIfPending();
+        scheduler.handOffIfPending();
+
+        verify(rebalancer, times(1)).rebalance(false);
+    }
+
+    private static RebalanceResultDTO result(long orphaned, int moved, int skipped) {
+        return new RebalanceResultDTO(false, 10, 5_000, orphaned, orphaned - moved, 500, 498, 502,
+                moved, skipped, List.of());
+    }
+}
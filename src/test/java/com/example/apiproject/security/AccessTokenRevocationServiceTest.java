@@ -0,0 +1,94 @@
+package com.example.apiproject.security;
+
+import com.example.apiproject.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessTokenRevocationServiceTest {
+
+    private static final long LIFETIME_MS = 15 * 60 * 1000;
+
+    private AccessTokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccessTokenRevocationService(new InMemoryRevocationStore(), LIFETIME_MS);
+        service.init();
+    }
+
+    @Test
+    void tokenIssuedJustAfterLogoutAllStaysValid() {
+        Instant before = Instant.now().minusMillis(1);
+        service.revokeAllForUser(1L);
+        Instant after = Instant.now().plusMillis(1);
+
+        assertThat(service.isRevoked(1L, "a", before)).isTrue();
+        assertThat(service.isRevoked(1L, "b", after)).isFalse();
+        assertThat(service.isRevoked(2L, "c", before)).isFalse();
+    }
+
+    @Test
+    void globalCutOffOnlyAffectsTokensIssuedUpToIt() {
+        Instant cutOff = Instant.now();
+        service.revokeAllIssuedBefore(cutOff);
+
+        assertThat(service.isRevoked(1L, "a", cutOff)).isTrue();
+        assertThat(service.isRevoked(1L, "b", cutOff.plusMillis(1))).isFalse();
+    }
+
+    @Test
+    void revokesEveryListedUser() {
+        Instant before = Instant.now().minusMillis(1);
+        service.revokeAllForUsers(List.of(1L, 2L, 3L));
+
+        assertThat(service.isRevoked(1L, "a", before)).isTrue();
+        assertThat(service.isRevoked(3L, "b", before)).isTrue();
+        assertThat(service.isRevoked(4L, "c", before)).isFalse();
+    }
+
+    @Test
+    void deniedTokenIsRevokedUntilItExpires() {
+        service.revokeToken("jti", Instant.now().plusSeconds(60));
+
+        assertThat(service.isRevoked(1L, "jti", Instant.now())).isTrue();
+        assertThat(service.isRevoked(1L, "other", Instant.now())).isFalse();
+    }
+
+    @Test
+    void epochsTravelAsMillisecondsUnchanged() {
+        RevocationEvent event = RevocationEvent.userEpoch(7L, 1_700_000_000_123L);
+
+        assertThat(RevocationEvent.decode(event.encode())).isEqualTo(event);
+        assertThat(RevocationEvent.decode("USER_EPOCH|7|1700000000").epochMillis()).isEqualTo(1_700_000_000L);
+    }
+
+    @Test
+    void storeFailuresFailTheRevocation() {
+        InMemoryRevocationStore failing = new InMemoryRevocationStore() {
+            @Override
+            public void publish(RevocationEvent event) {
+                throw new IllegalStateException("store down");
+            }
+
+            @Override
+            public void publishAll(List<RevocationEvent> events) {
+                throw new IllegalStateException("store down");
+            }
+        };
+        AccessTokenRevocationService unshared = new AccessTokenRevocationService(failing, LIFETIME_MS);
+        unshared.init();
+        Instant before = Instant.now().minusMillis(1);
+
+        assertThatThrownBy(() -> unshared.revokeAllForUser(1L)).isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> unshared.revokeAllForUsers(List.of(2L))).isInstanceOf(ServiceUnavailableException.class);
+        // Still enforced on this node in the meantime
+        assertThat(unshared.isRevoked(1L, "a", before)).isTrue();
+        assertThat(unshared.isRevoked(2L, "b", before)).isTrue();
+    }
+}
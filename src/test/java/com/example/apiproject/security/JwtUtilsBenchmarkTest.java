@@ -0,0 +1,94 @@
+package com.example.apiproject.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request token check, before and after JwtUtils.verify: the old filter
+ * parsed every token three times (extractUsername, then validateToken's
+ * extractUsername and extractExpiration), each time decoding the key and
+ * building a parser. Run with mvn test -Pbenchmark; results are logged
+ */
+@Slf4j
+@Tag("benchmark")
+class JwtUtilsBenchmarkTest {
+
+    private static final int TOKENS = 20_000;
+    private static final int WARM_UP_PASSES = 2;
+
+    @Test
+    void verifyAgainstTheThreeParsePath() {
+        JwtUtils jwtUtils = JwtUtilsTest.jwtUtils(900_000, 300);
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(jwtUtils.generateToken(JwtUtilsTest.user((long) i)));
+        }
+        // Both paths accept the same tokens and read the same subject
+        assertThat(jwtUtils.verify(tokens.get(0)).subject()).isEqualTo(oldCheck(tokens.get(0)));
+
+        double oldNanos = nanosPerToken(tokens, token -> oldCheck(token).length());
+        // A zero cache TTL makes every call a full verification
+        JwtUtils uncached = JwtUtilsTest.jwtUtils(900_000, 0);
+        double firstNanos = nanosPerToken(tokens, token -> uncached.verify(token).subject().length());
+        // Well within the cache's 10k entries, so every call is a hit
+        List<String> recent = tokens.subList(0, 5_000);
+        double cachedNanos = nanosPerToken(recent, token -> jwtUtils.verify(token).subject().length());
+
+        log.info("Token check over {} tokens: three parses {} us, verify on first sight {} us, verify cached {} us",
+                TOKENS, micros(oldNanos), micros(firstNanos), micros(cachedNanos));
+    }
+
+    /**
+     * Warm-up passes, then one measured pass. The result of each call feeds
+     * a sink so the JIT cannot drop the work
+     */
+    private static double nanosPerToken(List<String> tokens, ToIntFunction<String> check) {
+        long sink = 0;
+        for (int pass = 0; pass < WARM_UP_PASSES; pass++) {
+            for (String token : tokens) {
+                sink += check.applyAsInt(token);
+            }
+        }
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            sink += check.applyAsInt(token);
+        }
+        double nanos = (double) (System.nanoTime() - start) / tokens.size();
+        assertThat(sink).isPositive();
+        return nanos;
+    }
+
+    /**
+     * The filter's work per request before verify(): subject, then subject
+     * and expiry again, each from a full parse with a freshly decoded key
+     */
+    private static String oldCheck(String token) {
+        String username = claim(token, Claims::getSubject);
+        boolean valid = claim(token, Claims::getSubject).equals(username)
+                && !claim(token, Claims::getExpiration).before(new Date());
+        return valid ? username : "";
+    }
+
+    private static <T> T claim(String token, Function<Claims, T> resolver) {
+        Key key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(JwtUtilsTest.SECRET));
+        return resolver.apply(Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody());
+    }
+
+    private static String micros(double nanos) {
+        return String.format("%.2f", nanos / 1000);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.apiproject.security;
+
+import com.example.apiproject.cache.UserSnapshot;
+import com.example.apiproject.entity.Role;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilsTest {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Test
+    void repeatedVerificationIsServedFromTheCache() {
+        JwtUtils jwtUtils = jwtUtils(900_000, 30);
+        String token = jwtUtils.generateToken(user(1L));
+
+        VerifiedToken first = jwtUtils.verify(token);
+
+        assertThat(jwtUtils.verify(token)).isSameAs(first);
+        assertThat(first.userId()).isEqualTo(1L);
+        assertThat(first.role()).isEqualTo(Role.USER);
+    }
+
+    @Test
+    void tamperedTokensAreNeverServedFromTheCache() {
+        JwtUtils jwtUtils = jwtUtils(900_000, 30);
+        String token = jwtUtils.generateToken(user(1L));
+        jwtUtils.verify(token);
+
+        // Another user's id in the payload, original signature
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"uid\":1", "\"uid\":2");
+        assertThat(payload).contains("\"uid\":2");
+        String forgedClaims = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        // Original payload, damaged signature
+        String forgedSignature = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        for (String forged : new String[] { forgedClaims, forgedSignature }) {
+            assertThatThrownBy(() -> jwtUtils.verify(forged)).isInstanceOf(JwtException.class);
+            // A failed check is not remembered as a success either
+            assertThatThrownBy(() -> jwtUtils.verify(forged)).isInstanceOf(JwtException.class);
+        }
+        assertThat(jwtUtils.verify(token).userId()).isEqualTo(1L);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws Exception {
+        // exp has second precision: the token lives at most one second
+        JwtUtils jwtUtils = jwtUtils(1_000, 30);
+        String token = jwtUtils.generateToken(user(1L));
+        VerifiedToken verified = jwtUtils.verify(token);
+
+        sleepUntil(verified.expiresAt());
+
+        assertThatThrownBy(() -> jwtUtils.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void entriesAreReverifiedAfterTheCacheTtl() throws Exception {
+        JwtUtils jwtUtils = jwtUtils(900_000, 1);
+        String token = jwtUtils.generateToken(user(1L));
+        VerifiedToken first = jwtUtils.verify(token);
+
+        sleepUntil(Instant.now().plusSeconds(1));
+
+        VerifiedToken second = jwtUtils.verify(token);
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+    }
+
+    @Test
+    void tokensWithoutMillisecondIssueTimeAreRejected() {
+        JwtUtils jwtUtils = jwtUtils(900_000, 30);
+        Date now = new Date();
+        String token = Jwts.builder()
+                .claim(JwtUtils.CLAIM_USER_ID, 1L)
+                .claim(JwtUtils.CLAIM_ROLE, Role.USER.name())
+                .setSubject("user1@jwt.test")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + 900_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThatThrownBy(() -> jwtUtils.verify(token)).isInstanceOf(MalformedJwtException.class);
+    }
+
+    static JwtUtils jwtUtils(long expirationMillis, long cacheTtlSeconds) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expirationTime", expirationMillis);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheTtlSeconds", cacheTtlSeconds);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static UserSnapshot user(Long id) {
+        return new UserSnapshot(id, "User " + id, "user" + id + "@jwt.test", Role.USER, true, 0L, null);
+    }
+
+    private static void sleepUntil(Instant instant) throws InterruptedException {
+        Thread.sleep(Math.max(0, Duration.between(Instant.now(), instant).toMillis()) + 50);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.apiproject.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every epoch write and purge goes through the compare-and-write scripts,
+ * never a plain HSET / HDEL
+ */
+class RedisRevocationStoreTest {
+
+    private StringRedisTemplate redisTemplate;
+    private HashOperations<String, Object, Object> hashes;
+    private RedisRevocationStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        hashes = mock(HashOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashes);
+        store = new RedisRevocationStore(redisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void epochsAreMaxMerged() {
+        store.publishAll(List.of(RevocationEvent.userEpoch(1L, 2_000L), RevocationEvent.globalEpoch(1_000L),
+                RevocationEvent.token("jti", 3_000L)));
+
+        verify(redisTemplate).execute(RedisRevocationStore.MAX_MERGE, List.of(RedisRevocationStore.USER_EPOCHS_KEY),
+                "1", "2000", RevocationEvent.GLOBAL_KEY, "1000");
+        verify(redisTemplate).execute(RedisRevocationStore.MAX_MERGE, List.of(RedisRevocationStore.DENIED_TOKENS_KEY),
+                "jti", "3000");
+        verify(hashes, never()).put(anyString(), any(), any());
+        verify(hashes, never()).putAll(anyString(), any());
+        verify(redisTemplate).convertAndSend(eq(RedisRevocationStore.CHANNEL), anyString());
+    }
+
+    @Test
+    void purgeRechecksEachValueInRedis() {
+        when(hashes.entries(RedisRevocationStore.USER_EPOCHS_KEY)).thenReturn(Map.of("1", "500", "2", "5000"));
+        when(hashes.entries(RedisRevocationStore.DENIED_TOKENS_KEY)).thenReturn(Map.of("old", "900", "live", "9000"));
+
+        store.purge(1_000L, 1_000L);
+
+        verify(redisTemplate).execute(RedisRevocationStore.PURGE_UP_TO, List.of(RedisRevocationStore.USER_EPOCHS_KEY),
+                "1000", "1");
+        verify(redisTemplate).execute(RedisRevocationStore.PURGE_UP_TO, List.of(RedisRevocationStore.DENIED_TOKENS_KEY),
+                "999", "old");
+        verify(hashes, never()).delete(anyString(), any());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.cache.TaskCache;
+import com.example.apiproject.cache.UserLoadIndex;
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.ServiceUnavailableException;
+import com.example.apiproject.mapper.TaskMapper;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A caller that times out withdraws its request only while it is still
+ * queued; once its batch has started, the batch's outcome is the answer
+ */
+class LeastLoadedAssignmentQueueTest {
+
+    private static final long TIMEOUT_MILLIS = 100;
+    private static final long USER_ID = 7L;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final List<Collection<Long>> lockedBatches = new ArrayList<>();
+    private LeastLoadedAssignmentQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        // The first batch holds its transaction until the test releases it
+        when(taskRepository.lockAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            synchronized (lockedBatches) {
+                lockedBatches.add(List.copyOf(ids));
+            }
+            firstBatchStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.copyOf(ids);
+        });
+        when(taskRepository.findWithUsersByIdIn(anyCollection())).thenAnswer(invocation -> invocation
+                .<Collection<Long>>getArgument(0).stream().map(LeastLoadedAssignmentQueueTest::openTask).toList());
+
+        User user = new User();
+        user.setId(USER_ID);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+
+        UserLoadIndex userLoadIndex = mock(UserLoadIndex.class);
+        when(userLoadIndex.loads()).thenAnswer(invocation -> new HashMap<>(Map.of(USER_ID, 0L)));
+        WorkloadService workloadService = mock(WorkloadService.class);
+        when(workloadService.remainingCapacity(any())).thenAnswer(invocation -> new HashMap<>(
+                Map.of(USER_ID, 100)));
+        TaskMapper taskMapper = mock(TaskMapper.class);
+        when(taskMapper.toResponseDTO(any())).thenAnswer(invocation -> {
+            TaskResponseDTO dto = new TaskResponseDTO();
+            dto.setId(invocation.<Task>getArgument(0).getId());
+            return dto;
+        });
+
+        queue = new LeastLoadedAssignmentQueue(taskRepository, userRepository, taskMapper, mock(TaskCache.class),
+                userLoadIndex, workloadService, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                16, 1, 1, TIMEOUT_MILLIS);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        queue.stop();
+    }
+
+    @Test
+    void aStartedBatchIsWaitedForPastTheTimeout() throws Exception {
+        CompletableFuture<TaskResponseDTO> caller = CompletableFuture.supplyAsync(() -> queue.assign(1L, null));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread.sleep(TIMEOUT_MILLIS * 3);
+        assertThat(caller).isNotDone();
+        release.countDown();
+
+        assertThat(caller.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void aRequestStillQueuedAtTheTimeoutIsWithdrawn() throws Exception {
+        CompletableFuture<TaskResponseDTO> first = CompletableFuture.supplyAsync(() -> queue.assign(1L, null));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Queued behind the stalled batch: 503, and never assigned afterwards
+        assertThatThrownBy(() -> queue.assign(2L, null)).isInstanceOf(ServiceUnavailableException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        Thread.sleep(TIMEOUT_MILLIS);
+        synchronized (lockedBatches) {
+            assertThat(lockedBatches).containsExactly(List.of(1L));
+        }
+    }
+
+    private static Task openTask(Long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setStatus(TaskStatus.OPEN);
+        task.setVersion(0L);
+        return task;
+    }
+}
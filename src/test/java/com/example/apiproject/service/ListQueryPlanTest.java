@@ -0,0 +1,218 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.QueryRecorder;
+import com.example.apiproject.QueryRecorder.RecordedQuery;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.pagination.CommentSortField;
+import com.example.apiproject.pagination.TaskSortField;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.pagination.UserSortField;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every supported list shape (filters x sort order, offset and keyset mode)
+ * is planned on an index, on a table large enough for the planner to prefer
+ * a sequential scan where no index fits. The queries explained are the ones
+ * the services actually send, recorded with their parameters.
+ *
+ * Totals are requested as NONE: an unfiltered COUNT(*) reads the whole table
+ * whatever the indexes.
+ */
+class ListQueryPlanTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 20_000;
+    private static final int TASKS = 100_000;
+    private static final int SIZE = 20;
+
+    private static boolean seeded;
+    private static long assignee;
+    private static long creator;
+    private static long commentedTask;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        if (!seeded) {
+            seed();
+            seeded = true;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void taskListShapesUseAnIndex() {
+        authenticateAs(creator, Role.ADMIN);
+        for (TaskSortField sortField : TaskSortField.values()) {
+            assertIndexed("tasks", "tasks by " + sortField, () -> taskService.getAllTasks(null, null, null, null,
+                    PageRequest.of(2, SIZE, sortField.order()), TotalMode.NONE, null));
+            assertIndexed("tasks", "tasks after, by " + sortField, () -> taskService.getTasksAfter(null, null,
+                    null, null, sortField, null, SIZE));
+        }
+        assertIndexed("tasks", "tasks of an assignee", () -> taskService.getAllTasks(null, null, assignee, null,
+                PageRequest.of(0, SIZE, TaskSortField.ID.order()), TotalMode.NONE, null));
+        assertIndexed("tasks", "tasks of an assignee by status", () -> taskService.getAllTasks(TaskStatus.OPEN,
+                null, assignee, null, PageRequest.of(0, SIZE, TaskSortField.ID.order()), TotalMode.NONE,
+                null));
+        assertIndexed("tasks", "tasks of a creator", () -> taskService.getAllTasks(null, null, null, creator,
+                PageRequest.of(0, SIZE, TaskSortField.CREATED_AT.order()), TotalMode.NONE, null));
+        assertIndexed("tasks", "tasks by priority", () -> taskService.getTasksAfter(null, TaskPriority.HIGH,
+                null, null, TaskSortField.ID, null, SIZE));
+        // The tag without a count reads the change counter rows, not tasks
+        assertThat(queryRecorder.record(() -> taskService.getTaskListETag(TaskStatus.OPEN, null, null, creator,
+                false))).extracting(RecordedQuery::sql).singleElement().asString()
+                .containsIgnoringCase("from task_change_counters");
+    }
+
+    @Test
+    void userViewUsesAnIndex() {
+        authenticateAs(assignee, Role.USER);
+        assertIndexed("tasks", "own tasks", () -> taskService.getAllTasks(null, null, null, null,
+                PageRequest.of(0, SIZE, TaskSortField.ID.order()), TotalMode.NONE, null));
+        assertIndexed("tasks", "own tasks by status", () -> taskService.getTasksAfter(TaskStatus.IN_PROGRESS,
+                null, null, null, TaskSortField.ID, null, SIZE));
+    }
+
+    @Test
+    void commentListShapesUseAnIndex() {
+        authenticateAs(creator, Role.ADMIN);
+        for (CommentSortField sortField : CommentSortField.values()) {
+            assertIndexed("comments", "comments by " + sortField, () -> commentService.getCommentsByTaskId(
+                    commentedTask, PageRequest.of(0, SIZE, sortField.order())));
+            assertIndexed("comments", "comments after, by " + sortField, () -> commentService.getCommentsAfter(
+                    commentedTask, sortField, null, SIZE));
+        }
+    }
+
+    @Test
+    void userListShapesUseAnIndex() {
+        authenticateAs(creator, Role.ADMIN);
+        for (UserSortField sortField : UserSortField.values()) {
+            assertIndexed("users", "users by " + sortField, () -> userService.getAllUsers(null, null,
+                    PageRequest.of(2, SIZE, sortField.order()), TotalMode.NONE));
+            assertIndexed("users", "users after, by " + sortField, () -> userService.getUsersAfter(null, null,
+                    sortField, null, SIZE));
+        }
+        assertIndexed("users", "active users of a role", () -> userService.getUsersAfter(Role.MANAGER, true,
+                UserSortField.ID, null, SIZE));
+    }
+
+    /**
+     * EXPLAIN every query on the table that the action sent
+     */
+    private void assertIndexed(String table, String shape, Runnable action) {
+        List<RecordedQuery> queries = queryRecorder.record(action).stream()
+                .filter(query -> query.sql().matches("(?is).*\\bfrom " + table + "\\b.*"))
+                .toList();
+        assertThat(queries).as(shape).isNotEmpty();
+        for (RecordedQuery query : queries) {
+            String plan = explain(query);
+            assertThat(plan).as(shape + "\n" + query.sql() + "\n" + plan).doesNotContain("Seq Scan on " + table);
+        }
+    }
+
+    private String explain(RecordedQuery query) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = query.prepare(connection, "EXPLAIN ");
+                ResultSet rows = statement.executeQuery()) {
+            List<String> lines = new ArrayList<>();
+            while (rows.next()) {
+                lines.add(rows.getString(1));
+            }
+            return String.join("\n", lines);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A mature table: most tasks DONE, work spread over a few hundred
+     * assignees, a handful of creators. Unassigned tasks are all DONE, so
+     * none of them is claimable by other tests sharing the database
+     */
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (name, email, password, role, is_active, created_at)
+                SELECT 'Plan user ' || n, 'plan-' || n || '@plan.test', 'unused',
+                       CASE WHEN n % 100 = 0 THEN 'MANAGER' ELSE 'USER' END, n % 10 <> 0,
+                       now() - n * interval '1 minute'
+                FROM generate_series(1, ?) AS n
+                """, USERS);
+        long firstUser = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM users WHERE email LIKE 'plan-%'", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO tasks (title, priority, status, user_id, created_by, updated_by, created_at, updated_at)
+                SELECT 'Plan task ' || n,
+                       (ARRAY['LOW', 'MEDIUM', 'HIGH'])[1 + n % 3],
+                       CASE WHEN n % 10 < 8 THEN 'DONE' WHEN n % 10 = 8 THEN 'IN_PROGRESS' ELSE 'OPEN' END,
+                       CASE WHEN n % 20 = 5 THEN NULL ELSE ? + n % 300 END,
+                       ? + 99 + 100 * (n % 5), ? + n % 300,
+                       now() - n * interval '1 minute', now() - n * interval '1 second'
+                FROM generate_series(1, ?) AS n
+                """, firstUser, firstUser, firstUser, TASKS);
+        assignee = firstUser + 1;
+        creator = firstUser + 99;
+        commentedTask = jdbcTemplate.queryForObject(
+                "SELECT min(id) FROM tasks WHERE title LIKE 'Plan task %'", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO comments (message, created_at, task_id, user_id)
+                SELECT 'Plan comment ' || n, now() - n * interval '1 minute',
+                       t.id, t.user_id
+                FROM (SELECT id, coalesce(user_id, created_by) AS user_id FROM tasks
+                      WHERE title LIKE 'Plan task %' ORDER BY id LIMIT 2000) t,
+                     generate_series(1, 20) AS n
+                """);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE tasks");
+        jdbcTemplate.execute("ANALYZE comments");
+    }
+
+    private static void authenticateAs(long userId, Role role) {
+        AuthenticatedUser principal = new AuthenticatedUser(userId, "plan-" + userId + "@plan.test", role,
+                0L, "plan-test", Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
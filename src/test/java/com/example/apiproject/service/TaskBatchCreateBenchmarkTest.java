@@ -0,0 +1,78 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskBatchResultDTO;
+import com.example.apiproject.dto.TaskRequestDTO;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /api/tasks/batch against the same tasks sent as single POSTs: one
+ * transaction, pooled ids and batched INSERTs instead of a round trip per
+ * statement per task. Run with mvn test -Pbenchmark; throughput is logged
+ */
+@Slf4j
+@Tag("benchmark")
+class TaskBatchCreateBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int TASKS = 500;
+    private static final int WARM_UP_TASKS = 50;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User manager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TaskBatchCreateTest.closeTasksOf(jdbcTemplate, manager);
+    }
+
+    @Test
+    void singleCreatesAgainstOneBatch() {
+        manager = TaskBatchCreateTest.createManager(userRepository);
+        TaskBatchCreateTest.authenticateAs(manager);
+        List<TaskRequestDTO> requests = TaskBatchCreateTest.requests(TASKS);
+
+        // Warm both paths (statement caches, the id block) before timing
+        taskBulkService.createTasks(requests.subList(0, WARM_UP_TASKS));
+        requests.subList(0, WARM_UP_TASKS).forEach(taskService::createTask);
+
+        long start = System.nanoTime();
+        requests.forEach(taskService::createTask);
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        TaskBatchResultDTO batch = taskBulkService.createTasks(requests);
+        long batchNanos = System.nanoTime() - start;
+
+        assertThat(batch.getCreated()).isEqualTo(TASKS);
+        log.info("Create {} tasks: {} tasks/s as single creates, {} tasks/s as one batch",
+                TASKS, perSecond(singleNanos), perSecond(batchNanos));
+    }
+
+    private static long perSecond(long nanos) {
+        return TASKS * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
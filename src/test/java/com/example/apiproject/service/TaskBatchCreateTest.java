@@ -0,0 +1,156 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.QueryRecorder;
+import com.example.apiproject.dto.TaskBatchItemResultDTO;
+import com.example.apiproject.dto.TaskBatchResultDTO;
+import com.example.apiproject.dto.TaskRequestDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SequenceGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A batch of new tasks takes its ids from the pooled sequence (one nextval
+ * per allocationSize tasks) and is written in JDBC batches of
+ * hibernate.jdbc.batch_size rows
+ */
+class TaskBatchCreateTest extends PostgresIntegrationTest {
+
+    private static final int TASKS = 120;
+    private static final int BLOCK = 50;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User manager;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().setStatisticsEnabled(false);
+        closeTasksOf(jdbcTemplate, manager);
+    }
+
+    @Test
+    void allocationSizeMatchesTheSequenceIncrement() throws Exception {
+        SequenceGenerator generator = Task.class.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+
+        // A mismatch hands out ids another node's block already covers
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class,
+                generator.sequenceName());
+        assertThat(generator.allocationSize()).isEqualTo(BLOCK);
+        assertThat(increment).isEqualTo((long) generator.allocationSize());
+    }
+
+    @Test
+    void batchIsOneNextvalPerBlockAndOneInsertPerJdbcBatch() {
+        manager = createManager(userRepository);
+        authenticateAs(manager);
+        List<TaskRequestDTO> requests = requests(TASKS);
+        // The pooled optimizer reads two values on first use; start from a
+        // block it is already handing out
+        taskBulkService.createTasks(requests(1));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<TaskBatchResultDTO> result = new ArrayList<>();
+        List<QueryRecorder.RecordedQuery> queries = queryRecorder.record(
+                () -> result.add(taskBulkService.createTasks(requests)));
+
+        // Every item created, in request order, with ascending unique ids
+        TaskBatchResultDTO batch = result.get(0);
+        assertThat(batch.getCreated()).isEqualTo(TASKS);
+        assertThat(batch.getRejected()).isZero();
+        List<Long> ids = batch.getResults().stream().map(TaskBatchItemResultDTO::getTaskId).toList();
+        assertThat(ids).doesNotContainNull().doesNotHaveDuplicates().isSorted();
+        assertThat(batch.getResults()).extracting(TaskBatchItemResultDTO::getIndex)
+                .containsExactlyElementsOf(indexes(TASKS));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM tasks WHERE created_by = ?",
+                Integer.class, manager.getId())).isEqualTo(TASKS + 1);
+
+        // Ids: what is left of the current block, then one nextval per 50
+        // tasks; rows: a single prepared INSERT, executed in batches of 50
+        long nextvals = queries.stream().filter(query -> query.sql().contains("nextval")).count();
+        int blocks = (TASKS + BLOCK - 1) / BLOCK;
+        assertThat(nextvals).isBetween((long) blocks - 1, (long) blocks);
+        assertThat(queries).hasSize((int) nextvals);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(TASKS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(nextvals + 1);
+    }
+
+    static List<TaskRequestDTO> requests(int count) {
+        List<TaskRequestDTO> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskRequestDTO request = new TaskRequestDTO();
+            request.setTitle("Batch task " + i);
+            request.setPriority(TaskPriority.LOW);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    static User createManager(UserRepository userRepository) {
+        User user = new User();
+        user.setName("Batch manager");
+        user.setEmail("batch-" + System.nanoTime() + "@batch.test");
+        user.setPassword("unused");
+        user.setRole(Role.MANAGER);
+        return userRepository.save(user);
+    }
+
+    // The new tasks are OPEN and unassigned: close them so that none of them
+    // is claimable by other tests
+    static void closeTasksOf(JdbcTemplate jdbcTemplate, User creator) {
+        if (creator != null) {
+            jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE created_by = ?", creator.getId());
+        }
+    }
+
+    static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                0L, "batch-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static List<Integer> indexes(int count) {
+        List<Integer> indexes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
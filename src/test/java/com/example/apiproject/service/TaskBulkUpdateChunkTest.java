@@ -0,0 +1,146 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskBulkFilterDTO;
+import com.example.apiproject.dto.TaskBulkUpdateDTO;
+import com.example.apiproject.dto.TaskBulkUpdateResultDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.BadRequestException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A filter-mode bulk update takes at most tasks.bulk-update.max-tasks rows
+ * per request and says where to continue, even when the updated rows still
+ * match the filter
+ */
+class TaskBulkUpdateChunkTest extends PostgresIntegrationTest {
+
+    private static final int CHUNK = 10;
+    private static final int TASKS = 2 * CHUNK;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Object target;
+    private Object configuredChunk;
+
+    @BeforeEach
+    void setUp() {
+        target = AopTestUtils.getTargetObject(taskBulkService);
+        configuredChunk = ReflectionTestUtils.getField(target, "maxUpdateTasks");
+        ReflectionTestUtils.setField(target, "maxUpdateTasks", CHUNK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(target, "maxUpdateTasks", configuredChunk);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filterUpdatesAreChunkedAndContinueAfterTheLastId() {
+        User manager = createManager();
+        List<Long> taskIds = createDoneTasks(manager);
+        authenticateAs(manager);
+
+        TaskBulkUpdateResultDTO first = taskBulkService.updateTasks(raisePriority(manager, null));
+        assertThat(first.getUpdatedIds()).containsExactlyInAnyOrderElementsOf(taskIds.subList(0, CHUNK));
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getNextAfterId()).isEqualTo(taskIds.get(CHUNK - 1));
+
+        // A full last chunk: nothing matches after it
+        TaskBulkUpdateResultDTO second = taskBulkService.updateTasks(raisePriority(manager, first.getNextAfterId()));
+        assertThat(second.getUpdatedIds()).containsExactlyInAnyOrderElementsOf(taskIds.subList(CHUNK, TASKS));
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextAfterId()).isNull();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE created_by = ? AND priority = 'HIGH'",
+                Integer.class, manager.getId())).isEqualTo(TASKS);
+    }
+
+    @Test
+    void afterIdIsRefusedWithTaskIds() {
+        User manager = createManager();
+        authenticateAs(manager);
+        TaskBulkUpdateDTO request = raisePriority(manager, 1L);
+        request.setFilter(null);
+        request.setTaskIds(List.of(1L));
+
+        assertThatThrownBy(() -> taskBulkService.updateTasks(request)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static TaskBulkUpdateDTO raisePriority(User creator, Long afterId) {
+        TaskBulkFilterDTO filter = new TaskBulkFilterDTO();
+        filter.setCreatedByUserId(creator.getId());
+        TaskBulkUpdateDTO request = new TaskBulkUpdateDTO();
+        request.setFilter(filter);
+        request.setPriority(TaskPriority.HIGH);
+        request.setAfterId(afterId);
+        return request;
+    }
+
+    private User createManager() {
+        User user = new User();
+        user.setName("Chunk manager");
+        user.setEmail("chunk-" + System.nanoTime() + "@chunk.test");
+        user.setPassword("unused");
+        user.setRole(Role.MANAGER);
+        return userRepository.save(user);
+    }
+
+    // DONE, so that none of them is claimable by other tests
+    private List<Long> createDoneTasks(User creator) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Chunk task " + i);
+            task.setStatus(TaskStatus.DONE);
+            task.setPriority(TaskPriority.LOW);
+            task.setCreatedBy(creator);
+            tasks.add(task);
+        }
+        List<Long> ids = new ArrayList<>();
+        taskRepository.saveAll(tasks).forEach(task -> ids.add(task.getId()));
+        ids.sort(null);
+        return ids;
+    }
+
+    private static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                0L, "chunk-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
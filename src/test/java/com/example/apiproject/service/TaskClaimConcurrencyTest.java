@@ -0,0 +1,161 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.ConflictException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /api/tasks/claim-next under contention: hundreds of claimers drain
+ * the same pool and no task may be handed out twice
+ */
+class TaskClaimConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int CLAIMERS = 200;
+    private static final int TASKS = 1000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentClaimersNeverShareATask() throws Exception {
+        List<User> claimers = createClaimers();
+        Set<Long> poolIds = createOpenTasks();
+
+        Map<Long, Long> claimedBy = new ConcurrentHashMap<>();
+        List<Long> duplicates = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMERS);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (User claimer : claimers) {
+                results.add(executor.submit(() -> {
+                    authenticateAs(claimer);
+                    try {
+                        start.await();
+                        // A claimer stops on an empty pool or at its WIP limit (409);
+                        // the limits together (20 x 200) exceed the pool, so the
+                        // pool is always drained
+                        Optional<TaskResponseDTO> claimed;
+                        while ((claimed = claimNext()).isPresent()) {
+                            if (claimedBy.putIfAbsent(claimed.get().getId(), claimer.getId()) != null) {
+                                duplicates.add(claimed.get().getId());
+                            }
+                        }
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates).isEmpty();
+        assertThat(claimedBy.keySet()).isEqualTo(poolIds);
+
+        // The database agrees with what each claimer was told
+        List<Task> tasks = taskRepository.findAllById(poolIds);
+        Map<Long, Integer> heldByUser = new HashMap<>();
+        for (Task task : tasks) {
+            assertThat(task.getStatus()).isEqualTo(TaskStatus.IN_PROGRESS);
+            Long assignee = jdbcTemplate.queryForObject(
+                    "SELECT user_id FROM tasks WHERE id = ?", Long.class, task.getId());
+            assertThat(assignee).isEqualTo(claimedBy.get(task.getId()));
+            heldByUser.merge(assignee, 1, Integer::sum);
+        }
+        for (User claimer : claimers) {
+            Integer openTasks = jdbcTemplate.query(
+                    "SELECT open_tasks FROM user_workload WHERE user_id = ?",
+                    rs -> rs.next() ? rs.getInt(1) : 0, claimer.getId());
+            assertThat(openTasks).isEqualTo(heldByUser.getOrDefault(claimer.getId(), 0));
+        }
+    }
+
+    private Optional<TaskResponseDTO> claimNext() {
+        try {
+            return taskService.claimNextTask(null);
+        } catch (ConflictException atWipLimit) {
+            return Optional.empty();
+        }
+    }
+
+    private List<User> createClaimers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS; i++) {
+            User user = new User();
+            user.setName("Claimer " + i);
+            user.setEmail("claimer-" + i + "@claim.test");
+            user.setPassword("unused");
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private Set<Long> createOpenTasks() {
+        TaskPriority[] priorities = TaskPriority.values();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Claimable " + i);
+            task.setStatus(TaskStatus.OPEN);
+            task.setPriority(priorities[i % priorities.length]);
+            tasks.add(task);
+        }
+        Set<Long> ids = new HashSet<>();
+        taskRepository.saveAll(tasks).forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+
+    private static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), Role.USER,
+                0L, "claim-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskUpdateDTO;
+import com.example.apiproject.entity.AssignmentType;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.PreconditionFailedException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A single-task write that loses the race for the task row fails with 412:
+ * its conditional UPDATE waits for the other writer and then matches no row,
+ * instead of overwriting the change it never saw
+ */
+class TaskConcurrentEditTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateThatLosesTheRaceIsRejected() throws Exception {
+        User manager = createUser("edit-manager", Role.MANAGER);
+        Long taskId = createDoneTask();
+        TaskUpdateDTO update = new TaskUpdateDTO();
+        update.setTitle("Second writer");
+
+        String title = raceAgainstCommittedWrite(taskId, () -> {
+            authenticateAs(manager);
+            taskService.updateTask(taskId, update, null);
+        });
+
+        assertThat(title).isEqualTo("First writer");
+    }
+
+    @Test
+    void assignmentThatLosesTheRaceIsRejected() throws Exception {
+        User manager = createUser("edit-manager", Role.MANAGER);
+        User user = createUser("edit-user", Role.USER);
+        Long taskId = createDoneTask();
+
+        raceAgainstCommittedWrite(taskId, () -> {
+            authenticateAs(manager);
+            taskService.assignTask(taskId, user.getId(), AssignmentType.MANUAL, null);
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT user_id FROM tasks WHERE id = ?", Long.class, taskId))
+                .isNull();
+    }
+
+    /**
+     * Hold the task row in another transaction that changes it, start the
+     * write, commit the other transaction while the write waits for the row,
+     * and expect 412
+     *
+     * @return The task title afterwards
+     */
+    private String raceAgainstCommittedWrite(Long taskId, Runnable write) throws Exception {
+        try (Connection first = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            try (PreparedStatement statement = first.prepareStatement(
+                    "UPDATE tasks SET title = 'First writer', version = version + 1 WHERE id = ?")) {
+                statement.setLong(1, taskId);
+                statement.executeUpdate();
+            }
+
+            CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+                try {
+                    write.run();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+            // The second write has read the old version and is waiting for the row
+            awaitLockWait();
+            assertThat(second).isNotDone();
+            first.commit();
+
+            // Both are answered with 412 (GlobalExceptionHandler)
+            assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS)).cause()
+                    .isInstanceOfAny(PreconditionFailedException.class, OptimisticLockingFailureException.class);
+        }
+        return jdbcTemplate.queryForObject("SELECT title FROM tasks WHERE id = ?", String.class, taskId);
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                    Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("The second writer never waited for the task row");
+    }
+
+    private User createUser(String name, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@edit.test");
+        user.setPassword("unused");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    // DONE: holds no WIP slot, and is not claimable by other tests
+    private Long createDoneTask() {
+        Task task = new Task();
+        task.setTitle("Edited task");
+        task.setStatus(TaskStatus.DONE);
+        task.setPriority(TaskPriority.MEDIUM);
+        return taskRepository.save(task).getId();
+    }
+
+    private static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                0L, "edit-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
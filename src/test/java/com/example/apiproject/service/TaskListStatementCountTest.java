@@ -0,0 +1,142 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskResponseDTO;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.pagination.KeysetPage;
+import com.example.apiproject.pagination.PageResult;
+import com.example.apiproject.pagination.TaskSortField;
+import com.example.apiproject.pagination.TotalMode;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the fetch plans of the task read paths against N+1 regressions:
+ * the users of every task on a page come with the page query, whatever the
+ * page size and however many distinct users it shows
+ */
+class TaskListStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 10;
+    private static final int TASKS = 120;
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User author;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // One author (the filter that isolates this test's rows), and
+        // assignees / editors spread over USERS distinct users
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= USERS; i++) {
+            User user = new User();
+            user.setName("Lister " + i);
+            user.setEmail("lister-" + i + "-" + System.nanoTime() + "@list.test");
+            user.setPassword("unused");
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+        author = users.get(USERS);
+
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Listed " + i);
+            task.setStatus(TaskStatus.IN_PROGRESS);
+            task.setPriority(TaskPriority.MEDIUM);
+            task.setAssignedTo(users.get(i % USERS));
+            task.setCreatedBy(author);
+            task.setUpdatedBy(users.get((i + 3) % USERS));
+            newTasks.add(task);
+        }
+        tasks = taskRepository.saveAll(newTasks);
+
+        AuthenticatedUser admin = new AuthenticatedUser(author.getId(), author.getEmail(), Role.ADMIN,
+                0L, "list-test", Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, List.of()));
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void offsetPageIsOnePageQueryPlusOneCount() {
+        PageResult<TaskResponseDTO> page = taskService.getAllTasks(null, null, null, author.getId(),
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id")), TotalMode.EXACT, null);
+
+        assertThat(page.slice().getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.total()).isEqualTo(TASKS);
+        assertUsersResolved(page.slice().getContent());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keysetPageIsOneQuery() {
+        KeysetPage<TaskResponseDTO> page = taskService.getTasksAfter(null, null, null, author.getId(),
+                TaskSortField.ID, null, PAGE_SIZE);
+
+        assertThat(page.content()).hasSize(PAGE_SIZE);
+        assertUsersResolved(page.content());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void detailIsOneQuery() {
+        TaskResponseDTO task = taskService.getTaskById(tasks.get(0).getId());
+
+        assertUsersResolved(List.of(task));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static void assertUsersResolved(List<TaskResponseDTO> tasks) {
+        assertThat(tasks).allSatisfy(task -> {
+            assertThat(task.getAssignedUserName()).startsWith("Lister ");
+            assertThat(task.getCreatedByUserName()).startsWith("Lister ");
+            assertThat(task.getUpdatedByUserName()).startsWith("Lister ");
+        });
+    }
+}
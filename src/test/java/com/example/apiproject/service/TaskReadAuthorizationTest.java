@@ -0,0 +1,103 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.QueryRecorder;
+import com.example.apiproject.entity.AssignmentType;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.ForbiddenException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Task views are cached unfiltered and shared by all callers: every read is
+ * authorized against the caller after the cache, and an assignment change
+ * takes effect on the next read
+ */
+class TaskReadAuthorizationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cachedViewsAreAuthorizedOnEveryRead() {
+        User manager = createUser("reader-manager", Role.MANAGER);
+        User owner = createUser("reader-owner", Role.USER);
+        User other = createUser("reader-other", Role.USER);
+        Long taskId = createDoneTask(owner);
+
+        // Warmed by a caller allowed to see any task
+        authenticateAs(manager);
+        taskService.getTaskById(taskId);
+
+        authenticateAs(other);
+        assertThat(queryRecorder.record(() -> assertThatThrownBy(() -> taskService.getTaskById(taskId))
+                .isInstanceOf(ForbiddenException.class))).isEmpty();
+        authenticateAs(owner);
+        assertThat(queryRecorder.record(() -> assertThat(taskService.getTaskById(taskId).getAssignedUserId())
+                .isEqualTo(owner.getId()))).isEmpty();
+
+        // Reassigned: the cached view is evicted, not served to the old assignee
+        authenticateAs(manager);
+        taskService.assignTask(taskId, other.getId(), AssignmentType.MANUAL, null);
+        authenticateAs(owner);
+        assertThatThrownBy(() -> taskService.getTaskById(taskId)).isInstanceOf(ForbiddenException.class);
+        authenticateAs(other);
+        assertThat(taskService.getTaskById(taskId).getAssignedUserId()).isEqualTo(other.getId());
+    }
+
+    private User createUser(String name, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "-" + System.nanoTime() + "@reader.test");
+        user.setPassword("unused");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    // DONE: holds no WIP slot, and is not claimable by other tests
+    private Long createDoneTask(User assignee) {
+        Task task = new Task();
+        task.setTitle("Reader task");
+        task.setStatus(TaskStatus.DONE);
+        task.setPriority(TaskPriority.MEDIUM);
+        task.setAssignedTo(assignee);
+        return taskRepository.save(task).getId();
+    }
+
+    private static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                0L, "reader-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
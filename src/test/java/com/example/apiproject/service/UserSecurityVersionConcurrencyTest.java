@@ -0,0 +1,72 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent role and status changes on the same user: each bumps the
+ * security version once and neither reverts the other's field
+ */
+class UserSecurityVersionConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentRoleAndStatusChangesBothApply() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                User user = createUser(round);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> results = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return userService.updateUserRole(user.getId(), Role.MANAGER);
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return userService.toggleUserStatus(user.getId(), false);
+                        }));
+                start.countDown();
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+
+                User after = userRepository.findById(user.getId()).orElseThrow();
+                assertThat(after.getRole()).isEqualTo(Role.MANAGER);
+                assertThat(after.getIsActive()).isFalse();
+                assertThat(after.getSecurityVersion()).isEqualTo(2L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private User createUser(int round) {
+        User user = new User();
+        user.setName("Version user " + round);
+        user.setEmail("version-" + round + "-" + System.nanoTime() + "@version.test");
+        user.setPassword("unused");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+}
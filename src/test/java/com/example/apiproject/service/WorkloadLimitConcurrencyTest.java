@@ -0,0 +1,252 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.PostgresIntegrationTest;
+import com.example.apiproject.dto.TaskBulkAssignDTO;
+import com.example.apiproject.entity.AssignmentType;
+import com.example.apiproject.entity.Role;
+import com.example.apiproject.entity.Task;
+import com.example.apiproject.entity.TaskPriority;
+import com.example.apiproject.entity.TaskStatus;
+import com.example.apiproject.entity.User;
+import com.example.apiproject.exception.ConflictException;
+import com.example.apiproject.exception.PreconditionFailedException;
+import com.example.apiproject.repository.TaskRepository;
+import com.example.apiproject.repository.UserRepository;
+import com.example.apiproject.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * WIP limits under contention: concurrent single and bulk assignments never
+ * push a user past their limit, and writers locking the same tasks and
+ * counters from different paths never deadlock
+ */
+class WorkloadLimitConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int LIMIT = 5;
+    private static final int WRITERS = 40;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private WorkloadService workloadService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentAssignmentsNeverExceedTheLimit() throws Exception {
+        User manager = createUser("limit-manager", Role.MANAGER);
+        User user = createUser("limit-user", Role.USER);
+        workloadService.updateLimit(user.getId(), LIMIT);
+        List<Long> taskIds = createOpenTasks("Limit task", WRITERS);
+
+        // Half through PUT /api/tasks/{id}/assign, half through bulk assignment
+        AtomicInteger assigned = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Long taskId = taskIds.get(i);
+            boolean bulk = i % 2 == 1;
+            writers.add(() -> {
+                try {
+                    // A bulk request reports tasks it found no slot for as rejected
+                    boolean placed = bulk
+                            ? taskBulkService.assignTasks(manualBulk(user.getId(), List.of(taskId))).getAssigned() == 1
+                            : taskService.assignTask(taskId, user.getId(), AssignmentType.MANUAL, null) != null;
+                    (placed ? assigned : refused).incrementAndGet();
+                } catch (ConflictException atLimit) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(manager, writers);
+
+        assertThat(assigned.get()).isEqualTo(LIMIT);
+        assertThat(refused.get()).isEqualTo(WRITERS - LIMIT);
+        assertThat(openTasksCounter(user.getId())).isEqualTo(LIMIT);
+        assertThat(openTasksHeld(user.getId())).isEqualTo(LIMIT);
+
+        // Not claimable by other tests sharing the database
+        jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE title LIKE 'Limit task %' AND user_id IS NULL");
+    }
+
+    @Test
+    void singleAndBulkWritersMovingTasksBothWaysDoNotDeadlock() throws Exception {
+        User manager = createUser("swap-manager", Role.MANAGER);
+        User first = createUser("swap-first", Role.USER);
+        User second = createUser("swap-second", Role.USER);
+        workloadService.updateLimit(first.getId(), 1000);
+        workloadService.updateLimit(second.getId(), 1000);
+        List<Long> taskIds = createOpenTasks("Swap task", 20);
+        authenticateAs(manager);
+        try {
+            for (int i = 0; i < taskIds.size(); i++) {
+                taskService.assignTask(taskIds.get(i), (i % 2 == 0 ? first : second).getId(),
+                        AssignmentType.MANUAL, null);
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        // Every writer moves random tasks to a random one of the two users,
+        // singly or two at a time, so the same task and counter rows are
+        // taken by single and bulk paths in both directions
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            writers.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int round = 0; round < 40; round++) {
+                    Long to = (random.nextBoolean() ? first : second).getId();
+                    Long taskId = taskIds.get(random.nextInt(taskIds.size()));
+                    if (random.nextBoolean()) {
+                        try {
+                            taskService.assignTask(taskId, to, AssignmentType.MANUAL, null);
+                        } catch (PreconditionFailedException e) {
+                            // Another writer moved the task after it was read (412)
+                        }
+                    } else {
+                        Long other = taskIds.get(random.nextInt(taskIds.size()));
+                        taskBulkService.assignTasks(manualBulk(to, List.of(taskId, other)));
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(manager, writers);
+
+        // Counters still match the tasks actually held
+        assertThat(openTasksCounter(first.getId()) + openTasksCounter(second.getId())).isEqualTo(taskIds.size());
+        assertThat(openTasksCounter(first.getId())).isEqualTo(openTasksHeld(first.getId()));
+        assertThat(openTasksCounter(second.getId())).isEqualTo(openTasksHeld(second.getId()));
+    }
+
+    @Test
+    void aUserDeactivatedOnAnotherNodeGetsNoSlot() {
+        User manager = createUser("inactive-manager", Role.MANAGER);
+        User user = createUser("inactive-user", Role.USER);
+        List<Long> taskIds = createOpenTasks("Inactive task", 2);
+        authenticateAs(manager);
+        try {
+            // Loads the user into this node's caches as active
+            taskService.assignTask(taskIds.get(0), user.getId(), AssignmentType.MANUAL, null);
+
+            // Deactivated elsewhere: no event reaches this node's caches
+            jdbcTemplate.update("UPDATE users SET is_active = false WHERE id = ?", user.getId());
+
+            assertThatThrownBy(() -> taskService.assignTask(taskIds.get(1), user.getId(), AssignmentType.MANUAL,
+                    null)).isInstanceOf(ConflictException.class);
+            assertThat(openTasksCounter(user.getId())).isEqualTo(1);
+            assertThat(openTasksHeld(user.getId())).isEqualTo(1);
+        } finally {
+            SecurityContextHolder.clearContext();
+            jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE title LIKE 'Inactive task %'");
+        }
+    }
+
+    /**
+     * Start all writers at once; fails on the first exception any of them threw
+     */
+    private void runConcurrently(User principal, List<Callable<Void>> writers) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        List<Future<Void>> results = new ArrayList<>();
+        try {
+            for (Callable<Void> writer : writers) {
+                results.add(executor.submit(() -> {
+                    authenticateAs(principal);
+                    try {
+                        start.await();
+                        return writer.call();
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TaskBulkAssignDTO manualBulk(Long userId, List<Long> taskIds) {
+        TaskBulkAssignDTO request = new TaskBulkAssignDTO();
+        request.setAssignmentType(AssignmentType.MANUAL);
+        request.setUserId(userId);
+        request.setTaskIds(taskIds);
+        return request;
+    }
+
+    private int openTasksCounter(Long userId) {
+        return jdbcTemplate.query("SELECT open_tasks FROM user_workload WHERE user_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : 0, userId);
+    }
+
+    private int openTasksHeld(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tasks WHERE user_id = ? AND status <> 'DONE'", Integer.class, userId);
+    }
+
+    private User createUser(String name, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@limit.test");
+        user.setPassword("unused");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private List<Long> createOpenTasks(String title, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setTitle(title + " " + i);
+            task.setStatus(TaskStatus.OPEN);
+            task.setPriority(TaskPriority.MEDIUM);
+            tasks.add(task);
+        }
+        List<Long> ids = new ArrayList<>();
+        taskRepository.saveAll(tasks).forEach(task -> ids.add(task.getId()));
+        return Collections.unmodifiableList(ids);
+    }
+
+    private static void authenticateAs(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(),
+                0L, "limit-test-" + user.getId(), Instant.now().plusSeconds(900));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.service.WorkloadRebalancer.AssigneeLoad;
+import com.example.apiproject.service.WorkloadRebalancer.Plan;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WorkloadRebalancer.plan at 10k active users holding 1M open tasks, with
+ * 100 deactivated users still holding some: O((users + moves) log users),
+ * capped at the default tasks.rebalance.max-moves and run to the band.
+ * Run with mvn test -Pbenchmark; timings are logged
+ */
+@Slf4j
+@Tag("benchmark")
+class WorkloadRebalancerPlanBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int ORPHAN_HOLDERS = 100;
+    private static final int MAX_MOVES = 1_000;
+
+    @Test
+    void planForTenThousandUsersAndAMillionTasks() {
+        Random random = new Random(42);
+        Set<Long> active = new HashSet<>();
+        List<AssigneeLoad> loads = new ArrayList<>();
+        long openTasks = 0;
+        for (long userId = 1; userId <= USERS + ORPHAN_HOLDERS; userId++) {
+            // Skewed: most users near 90, one in ten far above
+            int open = userId <= USERS && random.nextInt(10) == 0 ? 180 + random.nextInt(40) : random.nextInt(180);
+            loads.add(new AssigneeLoad(userId, open, open / 2));
+            openTasks += open;
+            if (userId <= USERS) {
+                active.add(userId);
+            }
+        }
+        Map<Long, Integer> remaining = WorkloadRebalancerPlanTest.capacity(active, 1_000);
+        assertThat(openTasks).isGreaterThan(1_000_000);
+
+        // The first plan pays for class loading and the JIT
+        WorkloadRebalancer.plan(active, loads, remaining, 2, MAX_MOVES);
+
+        long start = System.nanoTime();
+        Plan capped = WorkloadRebalancer.plan(active, loads, remaining, 2, MAX_MOVES);
+        long cappedMicros = (System.nanoTime() - start) / 1000;
+        start = System.nanoTime();
+        Plan full = WorkloadRebalancer.plan(active, loads, remaining, 2, Integer.MAX_VALUE);
+        long fullMicros = (System.nanoTime() - start) / 1000;
+
+        assertThat(capped.transfers()).hasSize(MAX_MOVES);
+        assertThat(full.transfers().size()).isGreaterThan(MAX_MOVES);
+        log.info("Rebalance plan, {} users / {} open tasks: {} us for {} moves, {} us for all {} moves",
+                USERS, openTasks, cappedMicros, MAX_MOVES, fullMicros, full.transfers().size());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.apiproject.service;
+
+import com.example.apiproject.service.WorkloadRebalancer.AssigneeLoad;
+import com.example.apiproject.service.WorkloadRebalancer.Plan;
+import com.example.apiproject.service.WorkloadRebalancer.Transfer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The rebalance plan, in memory: the band, orphan hand-off, WIP ceilings,
+ * started tasks, the move cap, and no move that does not remove part of a
+ * band violation
+ */
+class WorkloadRebalancerPlanTest {
+
+    private static final int UNLIMITED = 1_000;
+
+    @Test
+    void bringsEveryUserIntoTheBand() {
+        // 16 open tasks over 4 users: mean 4, band 2..6
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L, 3L, 4L),
+                List.of(load(1L, 12, 12), load(2L, 4, 4)), capacity(Set.of(1L, 2L, 3L, 4L), UNLIMITED),
+                2, UNLIMITED);
+
+        assertThat(plan.meanLoad()).isEqualTo(4.0);
+        assertThat(plan.lowerBound()).isEqualTo(2);
+        assertThat(plan.upperBound()).isEqualTo(6);
+        Map<Long, Integer> after = apply(plan, Map.of(1L, 12, 2L, 4));
+        assertThat(after.values()).allSatisfy(load -> assertThat(load).isBetween(2, 6));
+        // 6 above the band: exactly 6 moves, all from the one donor
+        assertThat(plan.transfers()).hasSize(6).allSatisfy(transfer -> assertThat(transfer.fromUserId()).isEqualTo(1L));
+    }
+
+    @Test
+    void loadsInsideTheToleranceAreLeftAlone() {
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L, 3L),
+                List.of(load(1L, 6, 6), load(2L, 4, 4), load(3L, 2, 2)), capacity(Set.of(1L, 2L, 3L), UNLIMITED),
+                2, UNLIMITED);
+
+        assertThat(plan.transfers()).isEmpty();
+    }
+
+    @Test
+    void noTaskIsMovedTwiceOrBack() {
+        Set<Long> active = new HashSet<>();
+        List<AssigneeLoad> loads = new ArrayList<>();
+        Map<Long, Integer> before = new HashMap<>();
+        for (long userId = 1; userId <= 50; userId++) {
+            int open = (int) ((userId * 37) % 23);
+            active.add(userId);
+            loads.add(load(userId, open, open));
+            before.put(userId, open);
+        }
+
+        Plan plan = WorkloadRebalancer.plan(active, loads, capacity(active, UNLIMITED), 1, UNLIMITED);
+
+        Set<Long> donors = new HashSet<>();
+        Set<Long> receivers = new HashSet<>();
+        plan.transfers().forEach(transfer -> {
+            donors.add(transfer.fromUserId());
+            receivers.add(transfer.toUserId());
+        });
+        assertThat(donors).doesNotContainAnyElementsOf(receivers);
+        // Every move takes from a user above the band or gives to one below it
+        Map<Long, Integer> after = apply(plan, before);
+        int excess = before.values().stream().mapToInt(load -> Math.max(0, load - plan.upperBound())).sum();
+        int deficit = before.values().stream().mapToInt(load -> Math.max(0, plan.lowerBound() - load)).sum();
+        assertThat(plan.transfers().size()).isEqualTo(Math.max(excess, deficit));
+        assertThat(after.values()).allSatisfy(load -> assertThat(load)
+                .isBetween(plan.lowerBound(), plan.upperBound()));
+    }
+
+    @Test
+    void orphanedTasksAreHandedOffFirstToTheLeastLoaded() {
+        // User 9 is inactive (or no longer a USER): all 5 tasks go, even
+        // started ones, while the active users are already in the band
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L),
+                List.of(load(1L, 3, 3), load(2L, 1, 1), load(9L, 5, 1)), capacity(Set.of(1L, 2L), UNLIMITED),
+                10, UNLIMITED);
+
+        assertThat(plan.orphanedTasks()).isEqualTo(5);
+        assertThat(plan.transfers()).hasSize(5).allSatisfy(transfer -> assertThat(transfer.fromUserId()).isEqualTo(9L));
+        assertThat(apply(plan, Map.of(1L, 3, 2L, 1, 9L, 5))).containsEntry(1L, 5).containsEntry(2L, 4).containsEntry(9L, 0);
+    }
+
+    @Test
+    void receiversStayWithinTheirWipLimit() {
+        Map<Long, Integer> remaining = Map.of(1L, 0, 2L, 1, 3L, 2);
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L, 3L),
+                List.of(load(1L, 12, 12), load(9L, 6, 6)), remaining, 0, UNLIMITED);
+
+        Map<Long, Integer> received = new HashMap<>();
+        plan.transfers().forEach(transfer -> received.merge(transfer.toUserId(), 1, Integer::sum));
+        assertThat(received).doesNotContainKey(1L);
+        assertThat(received.getOrDefault(2L, 0)).isLessThanOrEqualTo(1);
+        assertThat(received.getOrDefault(3L, 0)).isLessThanOrEqualTo(2);
+        assertThat(plan.transfers()).filteredOn(transfer -> transfer.fromUserId() == 9L).hasSize(3);
+    }
+
+    @Test
+    void startedTasksAreNotTakenFromActiveUsers() {
+        // User 1 has 10 open tasks but started 8 of them
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L),
+                List.of(load(1L, 10, 2)), capacity(Set.of(1L, 2L), UNLIMITED), 0, UNLIMITED);
+
+        assertThat(plan.transfers()).hasSize(2);
+    }
+
+    @Test
+    void aRunIsCappedAtMaxMoves() {
+        Plan plan = WorkloadRebalancer.plan(Set.of(1L, 2L),
+                List.of(load(9L, 10, 10)), capacity(Set.of(1L, 2L), UNLIMITED), 0, 4);
+
+        assertThat(plan.transfers()).hasSize(4);
+        assertThat(plan.orphanedTasks()).isEqualTo(10);
+    }
+
+    @Test
+    void nothingIsPlannedWithoutActiveUsers() {
+        Plan plan = WorkloadRebalancer.plan(Set.of(), List.of(load(9L, 3, 3)), Map.of(), 2, UNLIMITED);
+
+        assertThat(plan.transfers()).isEmpty();
+        assertThat(plan.orphanedTasks()).isEqualTo(3);
+    }
+
+    static AssigneeLoad load(Long userId, int openTasks, int notStarted) {
+        return new AssigneeLoad(userId, openTasks, notStarted);
+    }
+
+    static Map<Long, Integer> capacity(Set<Long> users, int slots) {
+        Map<Long, Integer> remaining = new HashMap<>();
+        users.forEach(userId -> remaining.put(userId, slots));
+        return remaining;
+    }
+
+    private static Map<Long, Integer> apply(Plan plan, Map<Long, Integer> before) {
+        Map<Long, Integer> after = new HashMap<>(before);
+        for (Transfer transfer : plan.transfers()) {
+            after.merge(transfer.fromUserId(), -1, Integer::sum);
+            after.merge(transfer.toUserId(), 1, Integer::sum);
+        }
+        return after;
+    }
+}